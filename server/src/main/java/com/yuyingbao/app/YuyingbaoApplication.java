@@ -2,8 +2,10 @@ package com.yuyingbao.app;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class YuyingbaoApplication {
 	public static void main(String[] args) {
 		SpringApplication.run(YuyingbaoApplication.class, args);
@@ -0,0 +1,47 @@
+package com.yuyingbao.app.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+/**
+ * 本地缓存配置
+ * 缓存在启动时创建并开启统计，Actuator 会以 cache.gets{result=hit|miss} 等指标暴露命中情况
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+	public static final String TODAY_STATISTICS = "todayStatistics";
+	public static final String FAMILY_TODAY_STATISTICS = "familyTodayStatistics";
+	public static final String GROWTH_TREND = "growthTrend";
+	public static final String LATEST_RECORDS = "latestRecords";
+	// 权限检查使用的成员关系缓存，条目很小，单独配置容量与过期时间
+	public static final String USER_FAMILIES = "userFamilies";
+	public static final String BABY_FAMILY = "babyFamily";
+
+	@Bean
+	public CacheManager cacheManager(@Value("${spring.cache.caffeine.spec:maximumSize=1000,expireAfterWrite=10m}") String spec,
+									 @Value("${app.permission.cache-spec:maximumSize=10000,expireAfterWrite=5m}") String permissionSpec) {
+		CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+		cacheManager.setCaffeine(caffeine(spec));
+		cacheManager.setCacheNames(List.of(TODAY_STATISTICS, FAMILY_TODAY_STATISTICS, GROWTH_TREND, LATEST_RECORDS));
+		cacheManager.registerCustomCache(USER_FAMILIES, caffeine(permissionSpec).build());
+		cacheManager.registerCustomCache(BABY_FAMILY, caffeine(permissionSpec).build());
+		return cacheManager;
+	}
+
+	private static Caffeine<Object, Object> caffeine(String spec) {
+		Caffeine<Object, Object> caffeine = Caffeine.from(spec);
+		// 命中率指标依赖统计开关，配置里已开启时不能重复设置
+		if (!spec.contains("recordStats")) {
+			caffeine.recordStats();
+		}
+		return caffeine;
+	}
+}
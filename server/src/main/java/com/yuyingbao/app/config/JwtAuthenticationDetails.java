@@ -0,0 +1,48 @@
+package com.yuyingbao.app.config;
+
+import com.yuyingbao.app.service.JwtService;
+import io.jsonwebtoken.Claims;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.security.web.authentication.WebAuthenticationDetails;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * JWT 认证的请求详情
+ * 除请求来源外，保存令牌中携带的所属家庭ID与成员关系版本；令牌没有携带时两者都为 null
+ */
+public class JwtAuthenticationDetails extends WebAuthenticationDetails {
+	private final Set<Long> familyIds;
+	private final Long membershipVersion;
+
+	public JwtAuthenticationDetails(HttpServletRequest request, Claims claims) {
+		super(request);
+		Object families = claims.get(JwtService.FAMILY_IDS_CLAIM);
+		Object version = claims.get(JwtService.MEMBERSHIP_VERSION_CLAIM);
+		if (families instanceof Collection<?> ids && version instanceof Number number) {
+			Set<Long> familyIds = new HashSet<>();
+			for (Object id : ids) {
+				familyIds.add(((Number) id).longValue());
+			}
+			this.familyIds = Set.copyOf(familyIds);
+			this.membershipVersion = number.longValue();
+		} else {
+			this.familyIds = null;
+			this.membershipVersion = null;
+		}
+	}
+
+	public boolean hasMembership() {
+		return membershipVersion != null;
+	}
+
+	public Set<Long> getFamilyIds() {
+		return familyIds;
+	}
+
+	public Long getMembershipVersion() {
+		return membershipVersion;
+	}
+}
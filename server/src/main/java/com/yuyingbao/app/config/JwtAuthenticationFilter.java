@@ -2,20 +2,29 @@ package com.yuyingbao.app.config;
 
 import com.yuyingbao.app.service.JwtService;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.User;
-import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
 import java.util.Collections;
 
+/**
+ * 解析 Bearer 令牌并设置当前认证
+ * 主体直接使用令牌中的用户ID字符串；令牌内容不写日志，解析失败只在 DEBUG 级别记录原因
+ */
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
+	private static final Logger log = LoggerFactory.getLogger(JwtAuthenticationFilter.class);
+	private static final String BEARER_PREFIX = "Bearer ";
+
 	private final JwtService jwtService;
 
 	public JwtAuthenticationFilter(JwtService jwtService) {
@@ -24,28 +33,20 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
 	@Override
 	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
-		String authHeader = request.getHeader("Authorization");
-		System.out.println("JWT Filter - Authorization Header: " + authHeader);
-		
-		if (authHeader != null && authHeader.startsWith("Bearer ")) {
-			String token = authHeader.substring(7);
-			System.out.println("JWT Filter - Token: " + token);
-			
+		String authHeader = request.getHeader(HttpHeaders.AUTHORIZATION);
+		if (authHeader != null && authHeader.startsWith(BEARER_PREFIX)) {
 			try {
-				Claims claims = jwtService.parseToken(token);
-				System.out.println("JWT Filter - Claims: " + claims);
-				
-				String subject = claims.getSubject();
-				User principal = new User(subject, "", Collections.emptyList());
-				UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
-				authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+				Claims claims = jwtService.parseToken(authHeader.substring(BEARER_PREFIX.length()));
+				UsernamePasswordAuthenticationToken authentication = UsernamePasswordAuthenticationToken.authenticated(
+						claims.getSubject(), null, Collections.emptyList());
+				authentication.setDetails(new JwtAuthenticationDetails(request, claims));
 				SecurityContextHolder.getContext().setAuthentication(authentication);
-			} catch (Exception e) {
-				System.out.println("JWT Filter - Token parsing failed: " + e.getMessage());
+			} catch (JwtException | IllegalArgumentException e) {
+				if (log.isDebugEnabled()) {
+					log.debug("JWT 解析失败: {}", e.getMessage());
+				}
 				SecurityContextHolder.clearContext();
 			}
-		} else {
-			System.out.println("JWT Filter - No valid Bearer token found");
 		}
 		
 		filterChain.doFilter(request, response);
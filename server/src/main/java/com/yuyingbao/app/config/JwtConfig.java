@@ -9,6 +9,10 @@ public class JwtConfig {
 	private String secret;
 	private String issuer;
 	private int expirationMinutes;
+	// 是否在令牌中携带用户所属的家庭与成员关系版本，权限检查据此免查数据库
+	private boolean membershipClaims;
+	// 已验证令牌的缓存条数，0 表示不缓存、每次都校验签名
+	private int tokenCacheSize = 10000;
 
 	public String getSecret() { return secret; }
 	public void setSecret(String secret) { this.secret = secret; }
@@ -16,4 +20,8 @@ public class JwtConfig {
 	public void setIssuer(String issuer) { this.issuer = issuer; }
 	public int getExpirationMinutes() { return expirationMinutes; }
 	public void setExpirationMinutes(int expirationMinutes) { this.expirationMinutes = expirationMinutes; }
+	public boolean isMembershipClaims() { return membershipClaims; }
+	public void setMembershipClaims(boolean membershipClaims) { this.membershipClaims = membershipClaims; }
+	public int getTokenCacheSize() { return tokenCacheSize; }
+	public void setTokenCacheSize(int tokenCacheSize) { this.tokenCacheSize = tokenCacheSize; }
 }
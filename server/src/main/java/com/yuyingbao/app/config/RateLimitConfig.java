@@ -0,0 +1,59 @@
+package com.yuyingbao.app.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 接口限流配置
+ * 每类接口分别为每个用户、每个家庭配置令牌桶：capacity 为允许的突发请求数，per-second 为每秒补充的令牌数
+ */
+@Configuration
+@ConfigurationProperties(prefix = "app.rate-limit")
+public class RateLimitConfig {
+	private boolean enabled = true;
+	// 同时跟踪的令牌桶上限，空闲的桶在补满后被淘汰
+	private int maxBuckets = 100000;
+	private Budget recordWrite = new Budget(30, 5, 60, 10);
+	private Budget recordRead = new Budget(60, 10, 120, 20);
+	private Budget statistics = new Budget(30, 5, 60, 10);
+
+	public boolean isEnabled() { return enabled; }
+	public void setEnabled(boolean enabled) { this.enabled = enabled; }
+	public int getMaxBuckets() { return maxBuckets; }
+	public void setMaxBuckets(int maxBuckets) { this.maxBuckets = maxBuckets; }
+	public Budget getRecordWrite() { return recordWrite; }
+	public void setRecordWrite(Budget recordWrite) { this.recordWrite = recordWrite; }
+	public Budget getRecordRead() { return recordRead; }
+	public void setRecordRead(Budget recordRead) { this.recordRead = recordRead; }
+	public Budget getStatistics() { return statistics; }
+	public void setStatistics(Budget statistics) { this.statistics = statistics; }
+
+	/**
+	 * 一类接口的限流额度
+	 */
+	public static class Budget {
+		private int userCapacity;
+		private double userPerSecond;
+		private int familyCapacity;
+		private double familyPerSecond;
+
+		public Budget() {
+		}
+
+		public Budget(int userCapacity, double userPerSecond, int familyCapacity, double familyPerSecond) {
+			this.userCapacity = userCapacity;
+			this.userPerSecond = userPerSecond;
+			this.familyCapacity = familyCapacity;
+			this.familyPerSecond = familyPerSecond;
+		}
+
+		public int getUserCapacity() { return userCapacity; }
+		public void setUserCapacity(int userCapacity) { this.userCapacity = userCapacity; }
+		public double getUserPerSecond() { return userPerSecond; }
+		public void setUserPerSecond(double userPerSecond) { this.userPerSecond = userPerSecond; }
+		public int getFamilyCapacity() { return familyCapacity; }
+		public void setFamilyCapacity(int familyCapacity) { this.familyCapacity = familyCapacity; }
+		public double getFamilyPerSecond() { return familyPerSecond; }
+		public void setFamilyPerSecond(double familyPerSecond) { this.familyPerSecond = familyPerSecond; }
+	}
+}
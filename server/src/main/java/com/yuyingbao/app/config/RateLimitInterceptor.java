@@ -0,0 +1,146 @@
+package com.yuyingbao.app.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yuyingbao.app.controller.BabyRecordController;
+import com.yuyingbao.app.controller.RecordController;
+import com.yuyingbao.app.controller.StatisticsController;
+import com.yuyingbao.app.service.PermissionService;
+import com.yuyingbao.app.service.RateLimiter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 记录与统计接口的限流
+ * 按接口类别（记录写入、记录读取、统计）分别限制每个用户和每个家庭的请求速率，先检查用户再检查家庭；
+ * 家庭取自路径中的 familyId，或由 babyId 经权限缓存得到。超出额度时返回 429 和 Retry-After（秒），
+ * 并计入 app.rate.limit.throttled{route, scope} 指标
+ */
+@Component
+public class RateLimitInterceptor implements HandlerInterceptor {
+	public static final String THROTTLED_METRIC = "app.rate.limit.throttled";
+
+	private final RateLimitConfig config;
+	private final RateLimiter rateLimiter;
+	private final PermissionService permissionService;
+	private final MeterRegistry meterRegistry;
+	private final ObjectMapper objectMapper;
+
+	public RateLimitInterceptor(RateLimitConfig config, RateLimiter rateLimiter, PermissionService permissionService,
+								MeterRegistry meterRegistry, ObjectMapper objectMapper) {
+		this.config = config;
+		this.rateLimiter = rateLimiter;
+		this.permissionService = permissionService;
+		this.meterRegistry = meterRegistry;
+		this.objectMapper = objectMapper;
+	}
+
+	enum Route {
+		RECORD_WRITE("record-write"),
+		RECORD_READ("record-read"),
+		STATISTICS("statistics");
+
+		private final String tag;
+
+		Route(String tag) {
+			this.tag = tag;
+		}
+	}
+
+	private record BucketKey(Route route, boolean family, long id) {
+	}
+
+	@Override
+	public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws IOException {
+		// 流式响应的异步再分派属于同一个请求，不重复计数
+		if (!config.isEnabled() || request.getDispatcherType() == DispatcherType.ASYNC
+				|| !(handler instanceof HandlerMethod handlerMethod)) {
+			return true;
+		}
+		Route route = route(handlerMethod.getBeanType(), request.getMethod());
+		Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+		if (route == null || authentication == null || authentication.getName() == null) {
+			return true;
+		}
+		RateLimitConfig.Budget budget = budget(route);
+		long userId = Long.parseLong(authentication.getName());
+		long wait = rateLimiter.tryAcquire(new BucketKey(route, false, userId),
+				budget.getUserCapacity(), budget.getUserPerSecond());
+		if (wait > 0) {
+			return reject(response, route, "user", wait);
+		}
+		// 只有家庭成员的请求计入家庭额度，非成员不能耗尽别人家庭的额度，其请求交给控制器的权限校验拒绝
+		Long familyId = familyId(request);
+		if (familyId != null && permissionService.hasAccessToFamily(userId, familyId)) {
+			wait = rateLimiter.tryAcquire(new BucketKey(route, true, familyId),
+					budget.getFamilyCapacity(), budget.getFamilyPerSecond());
+			if (wait > 0) {
+				return reject(response, route, "family", wait);
+			}
+		}
+		return true;
+	}
+
+	private static Route route(Class<?> controller, String method) {
+		if (controller == StatisticsController.class) {
+			return Route.STATISTICS;
+		}
+		if (controller == BabyRecordController.class || controller == RecordController.class) {
+			return HttpMethod.GET.matches(method) ? Route.RECORD_READ : Route.RECORD_WRITE;
+		}
+		return null;
+	}
+
+	private RateLimitConfig.Budget budget(Route route) {
+		return switch (route) {
+			case RECORD_WRITE -> config.getRecordWrite();
+			case RECORD_READ -> config.getRecordRead();
+			case STATISTICS -> config.getStatistics();
+		};
+	}
+
+	@SuppressWarnings("unchecked")
+	private Long familyId(HttpServletRequest request) {
+		Map<String, String> variables = (Map<String, String>) request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+		if (variables == null) {
+			return null;
+		}
+		try {
+			if (variables.containsKey("familyId")) {
+				return Long.valueOf(variables.get("familyId"));
+			}
+			if (variables.containsKey("babyId")) {
+				return permissionService.getBabyFamilyId(Long.valueOf(variables.get("babyId")));
+			}
+		} catch (NumberFormatException e) {
+			// 路径参数格式错误交给控制器处理
+		}
+		return null;
+	}
+
+	private boolean reject(HttpServletResponse response, Route route, String scope, long waitNanos) throws IOException {
+		meterRegistry.counter(THROTTLED_METRIC, "route", route.tag, "scope", scope).increment();
+		long retryAfterSeconds = Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+		response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+		response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+		response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+		response.setCharacterEncoding("UTF-8");
+		objectMapper.writeValue(response.getOutputStream(), Map.of("message", "请求过于频繁，请稍后重试"));
+		return false;
+	}
+}
@@ -1,8 +1,12 @@
 package com.yuyingbao.app.config;
 
+import com.yuyingbao.app.dto.RecordPage;
+import com.yuyingbao.app.service.IdempotencyService;
 import com.yuyingbao.app.service.JwtService;
+import jakarta.servlet.DispatcherType;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
@@ -32,6 +36,8 @@ public class SecurityConfig {
 				.csrf(csrf -> csrf.disable())
 				.sessionManagement(sm -> sm.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
 				.authorizeHttpRequests(auth -> auth
+						// 流式响应（如记录导出）在异步线程写完后会再次分派，原请求已经通过鉴权
+						.dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
 						.requestMatchers("/auth/**", "/actuator/**", "/api/actuator/**").permitAll()
 						.anyRequest().authenticated()
 				)
@@ -46,8 +52,9 @@ public class SecurityConfig {
 		configuration.setAllowedOrigins(List.of("*"));
 		configuration.setAllowedMethods(List.of("GET", "POST", "PUT", "DELETE", "OPTIONS"));
 		configuration.setAllowedHeaders(List.of("*"));
+		configuration.setExposedHeaders(List.of(RecordPage.NEXT_CURSOR_HEADER, IdempotencyService.REPLAYED_HEADER, HttpHeaders.RETRY_AFTER));
 		UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
 		source.registerCorsConfiguration("/**", configuration);
 		return source;
 	}
-}
\ No newline at end of file
+}
\ No newline at end of file
@@ -11,4 +11,15 @@ public class SecurityUtils {
 		}
 		return Long.parseLong(authentication.getName());
 	}
+
+	/**
+	 * 当前 JWT 认证的请求详情，未认证或不是 JWT 认证时返回 null
+	 */
+	public static JwtAuthenticationDetails getCurrentJwtDetails() {
+		Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+		if (authentication != null && authentication.getDetails() instanceof JwtAuthenticationDetails details) {
+			return details;
+		}
+		return null;
+	}
 }
@@ -0,0 +1,48 @@
+package com.yuyingbao.app.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 微信接口配置
+ * enabled 为 false 时不调用微信，登录使用 "mock-" + code 作为 openId，便于开发与测试
+ */
+@Configuration
+@ConfigurationProperties(prefix = "app.wechat")
+public class WeChatConfig {
+	private boolean enabled;
+	private String appId;
+	private String appSecret;
+	private String baseUrl = "https://api.weixin.qq.com";
+	private int connectTimeoutMs = 1000;
+	// 从发出请求到收到响应的最长时间
+	private int readTimeoutMs = 3000;
+	// 同时进行中的请求上限，超出时直接拒绝而不是排队
+	private int maxConcurrentRequests = 64;
+	// 连续失败达到该次数后熔断，熔断期间的请求直接拒绝
+	private int failureThreshold = 5;
+	private int openDurationMs = 10000;
+	// access_token 在过期前多久开始后台刷新
+	private int accessTokenRefreshAheadSeconds = 300;
+
+	public boolean isEnabled() { return enabled; }
+	public void setEnabled(boolean enabled) { this.enabled = enabled; }
+	public String getAppId() { return appId; }
+	public void setAppId(String appId) { this.appId = appId; }
+	public String getAppSecret() { return appSecret; }
+	public void setAppSecret(String appSecret) { this.appSecret = appSecret; }
+	public String getBaseUrl() { return baseUrl; }
+	public void setBaseUrl(String baseUrl) { this.baseUrl = baseUrl; }
+	public int getConnectTimeoutMs() { return connectTimeoutMs; }
+	public void setConnectTimeoutMs(int connectTimeoutMs) { this.connectTimeoutMs = connectTimeoutMs; }
+	public int getReadTimeoutMs() { return readTimeoutMs; }
+	public void setReadTimeoutMs(int readTimeoutMs) { this.readTimeoutMs = readTimeoutMs; }
+	public int getMaxConcurrentRequests() { return maxConcurrentRequests; }
+	public void setMaxConcurrentRequests(int maxConcurrentRequests) { this.maxConcurrentRequests = maxConcurrentRequests; }
+	public int getFailureThreshold() { return failureThreshold; }
+	public void setFailureThreshold(int failureThreshold) { this.failureThreshold = failureThreshold; }
+	public int getOpenDurationMs() { return openDurationMs; }
+	public void setOpenDurationMs(int openDurationMs) { this.openDurationMs = openDurationMs; }
+	public int getAccessTokenRefreshAheadSeconds() { return accessTokenRefreshAheadSeconds; }
+	public void setAccessTokenRefreshAheadSeconds(int accessTokenRefreshAheadSeconds) { this.accessTokenRefreshAheadSeconds = accessTokenRefreshAheadSeconds; }
+}
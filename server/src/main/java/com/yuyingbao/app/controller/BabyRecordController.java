@@ -2,19 +2,38 @@ package com.yuyingbao.app.controller;
 
 import com.yuyingbao.app.config.SecurityUtils;
 import com.yuyingbao.app.dto.CreateRecordRequest;
+import com.yuyingbao.app.dto.RecordChanges;
+import com.yuyingbao.app.dto.RecordImportResult;
+import com.yuyingbao.app.dto.RecordPage;
 import com.yuyingbao.app.dto.UpdateRecordRequest;
 import com.yuyingbao.app.model.entity.Record;
 import com.yuyingbao.app.model.enums.RecordType;
 import com.yuyingbao.app.service.BabyService;
+import com.yuyingbao.app.service.IdempotencyService;
 import com.yuyingbao.app.service.PermissionService;
+import com.yuyingbao.app.service.RecordExportService;
+import com.yuyingbao.app.service.RecordFileFormat;
+import com.yuyingbao.app.service.RecordImportService;
 import com.yuyingbao.app.service.RecordService;
+import jakarta.validation.Valid;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.OffsetDateTime;
+import java.util.HexFormat;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/babies/{babyId}/records")
@@ -22,53 +41,120 @@ public class BabyRecordController {
 	private final RecordService recordService;
 	private final BabyService babyService;
 	private final PermissionService permissionService;
+	private final IdempotencyService idempotencyService;
+	private final RecordExportService recordExportService;
+	private final RecordImportService recordImportService;
 
-	public BabyRecordController(RecordService recordService, BabyService babyService, PermissionService permissionService) {
+	public BabyRecordController(RecordService recordService, BabyService babyService, PermissionService permissionService,
+								IdempotencyService idempotencyService, RecordExportService recordExportService,
+								RecordImportService recordImportService) {
 		this.recordService = recordService;
 		this.babyService = babyService;
 		this.permissionService = permissionService;
+		this.idempotencyService = idempotencyService;
+		this.recordExportService = recordExportService;
+		this.recordImportService = recordImportService;
 	}
 
 	/**
 	 * 为指定宝宝创建记录
+	 * 携带 Idempotency-Key 时，重试会直接返回首次创建的结果
 	 * @param babyId 宝宝ID
+	 * @param idempotencyKey 幂等键（可选）
 	 * @param req 记录创建请求
 	 * @return 创建的记录
 	 */
 	@PostMapping
 	public ResponseEntity<Record> create(
 			@PathVariable("babyId") Long babyId,
+			@RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
 			@Validated @RequestBody CreateRecordRequest req
 	) {
 		Long userId = SecurityUtils.getCurrentUserIdOrThrow();
 		
-		// 验证权限：用户是否有访问该宝宝的权限
-		permissionService.validateBabyAccess(userId, babyId);
+		return idempotencyService.execute(userId, idempotencyKey, "POST", "/babies/" + babyId + "/records", req, Record.class, () -> {
+			// 验证权限并取得宝宝所属的家庭（来自权限缓存，不再加载宝宝）
+			Long familyId = permissionService.validateBabyAccessAndGetFamilyId(userId, babyId);
+			
+			// 确保设置babyId到请求中（覆盖任何现有值）
+			req.setBabyId(babyId);
+			
+			return ResponseEntity.ok(recordService.createRecord(familyId, userId, req));
+		});
+	}
+
+	/**
+	 * 为指定宝宝批量创建记录（离线补录等场景）
+	 * 只做一次权限校验，所有记录在同一事务内写入
+	 * @param babyId 宝宝ID
+	 * @param requests 记录创建请求列表
+	 * @return 创建的记录列表
+	 */
+	@PostMapping("/batch")
+	public ResponseEntity<List<Record>> createBatch(
+			@PathVariable("babyId") Long babyId,
+			@RequestBody List<@Valid CreateRecordRequest> requests
+	) {
+		Long userId = SecurityUtils.getCurrentUserIdOrThrow();
 		
-		// 验证宝宝存在并获取其家庭信息
-		var baby = babyService.getBabyById(babyId);
+		// 验证权限并取得宝宝所属的家庭（来自权限缓存，不再加载宝宝）
+		Long familyId = permissionService.validateBabyAccessAndGetFamilyId(userId, babyId);
 		
-		// 确保设置babyId到请求中（覆盖任何现有值）
-		req.setBabyId(babyId);
+		return ResponseEntity.ok(recordService.createRecords(familyId, userId, babyId, requests));
+	}
+
+	/**
+	 * 从其他应用或本应用导出的文件批量导入记录
+	 * 请求体按行流式解析，校验失败的行被跳过并在结果中返回行号与原因
+	 * @param babyId 宝宝ID
+	 * @param format 文件格式：csv 或 ndjson
+	 * @param body 文件内容
+	 * @return 导入条数与失败行明细
+	 */
+	@PostMapping("/import")
+	public ResponseEntity<RecordImportResult> importRecords(
+			@PathVariable("babyId") Long babyId,
+			@RequestParam(value = "format", defaultValue = "csv") String format,
+			InputStream body
+	) throws IOException {
+		Long userId = SecurityUtils.getCurrentUserIdOrThrow();
+		
+		// 验证权限并取得宝宝所属的家庭（来自权限缓存，不再加载宝宝）
+		Long familyId = permissionService.validateBabyAccessAndGetFamilyId(userId, babyId);
 		
-		return ResponseEntity.ok(recordService.createRecord(baby.getFamilyId(), userId, req));
+		return ResponseEntity.ok(recordImportService.importRecords(familyId, userId, babyId,
+				RecordFileFormat.of(format), body));
 	}
 
 	/**
 	 * 获取指定宝宝的记录列表
+	 * 传入 cursor 或 limit 时按游标分页，下一页游标通过 X-Next-Cursor 响应头返回；
+	 * 响应带 ETag，客户端携带 If-None-Match 且数据未变化时返回 304
 	 * @param babyId 宝宝ID
+	 * @param cursor 分页游标
+	 * @param limit 每页条数
 	 * @return 记录列表
 	 */
 	@GetMapping
-	public ResponseEntity<List<Record>> list(@PathVariable("babyId") Long babyId) {
+	public ResponseEntity<List<Record>> list(
+			@PathVariable("babyId") Long babyId,
+			@RequestParam(value = "cursor", required = false) String cursor,
+			@RequestParam(value = "limit", required = false) Integer limit,
+			WebRequest request
+	) {
 		Long userId = SecurityUtils.getCurrentUserIdOrThrow();
 		
 		// 验证权限：用户是否有访问该宝宝的权限
 		permissionService.validateBabyAccess(userId, babyId);
 		
-		// 验证宝宝存在
-		babyService.getBabyById(babyId);
+		// 读取数据版本（同时验证宝宝存在），未变化时不再查询记录
+		if (request.checkNotModified(etag(babyId, "list", cursor, limit))) {
+			return null;
+		}
 		
+		if (cursor != null || limit != null) {
+			return pageResponse(recordService.pageRecordsByBabyId(babyId, null, null, null, cursor, limit));
+		}
 		return ResponseEntity.ok(recordService.listRecordsByBabyId(babyId, null, null, null));
 	}
 
@@ -78,30 +164,114 @@ public class BabyRecordController {
 	 * @param start 开始时间
 	 * @param end 结束时间
 	 * @param type 记录类型
+	 * @param cursor 分页游标
+	 * @param limit 每页条数
+	 * @param fields 只返回的字段（逗号分隔），slim 表示按记录类型返回精简视图；为空时返回完整记录
 	 * @return 筛选后的记录列表
 	 */
 	@GetMapping("/filter")
-	public ResponseEntity<List<Record>> listWithFilter(
+	public ResponseEntity<? extends List<?>> listWithFilter(
 			@PathVariable("babyId") Long babyId,
 			@RequestParam(value = "start", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime start,
 			@RequestParam(value = "end", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime end,
-			@RequestParam(value = "type", required = false) RecordType type
+			@RequestParam(value = "type", required = false) RecordType type,
+			@RequestParam(value = "cursor", required = false) String cursor,
+			@RequestParam(value = "limit", required = false) Integer limit,
+			@RequestParam(value = "fields", required = false) String fields,
+			WebRequest request
 	) {
 		Long userId = SecurityUtils.getCurrentUserIdOrThrow();
 		
 		// 验证权限：用户是否有访问该宝宝的权限
 		permissionService.validateBabyAccess(userId, babyId);
 		
-		// 验证宝宝存在
-		babyService.getBabyById(babyId);
+		// 读取数据版本（同时验证宝宝存在），未变化时不再查询记录
+		if (request.checkNotModified(etag(babyId, "filter", start, end, type != null ? type.name() : null, cursor, limit, fields))) {
+			return null;
+		}
 		
+		if (fields != null) {
+			if (cursor != null || limit != null) {
+				return pageResponse(recordService.pageRecordViewsByBabyId(babyId, start, end, type, cursor, limit, fields));
+			}
+			return ResponseEntity.ok(recordService.listRecordViewsByBabyId(babyId, start, end, type, fields));
+		}
+		if (cursor != null || limit != null) {
+			return pageResponse(recordService.pageRecordsByBabyId(babyId, start, end, type, cursor, limit));
+		}
 		return ResponseEntity.ok(recordService.listRecordsByBabyId(babyId, start, end, type));
 	}
 
+	/**
+	 * 获取指定宝宝每种类型的最新一条记录
+	 * 用于首页和个人页展示"上次喂奶/换尿布/测量"，不需要拉取历史记录
+	 * @param babyId 宝宝ID
+	 * @return 记录类型到最新记录的映射，没有记录的类型不出现
+	 */
+	@GetMapping("/latest")
+	public ResponseEntity<Map<RecordType, Record>> latest(@PathVariable("babyId") Long babyId) {
+		Long userId = SecurityUtils.getCurrentUserIdOrThrow();
+		
+		// 验证权限：用户是否有访问该宝宝的权限
+		permissionService.validateBabyAccess(userId, babyId);
+		
+		return ResponseEntity.ok(recordService.getLatestRecords(babyId));
+	}
+
+	/**
+	 * 导出指定宝宝的全部记录
+	 * 响应体在异步线程中边查询边写出，不在内存中保留完整结果
+	 * @param babyId 宝宝ID
+	 * @param format 导出格式：csv 或 ndjson
+	 * @return 作为附件下载的记录文件
+	 */
+	@GetMapping("/export")
+	public ResponseEntity<StreamingResponseBody> export(
+			@PathVariable("babyId") Long babyId,
+			@RequestParam(value = "format", defaultValue = "csv") String format
+	) {
+		Long userId = SecurityUtils.getCurrentUserIdOrThrow();
+		
+		// 验证权限：用户是否有访问该宝宝的权限
+		permissionService.validateBabyAccess(userId, babyId);
+		
+		// 开始写出之前校验格式，不支持的格式仍然返回400
+		RecordFileFormat exportFormat = RecordFileFormat.of(format);
+		ContentDisposition disposition = ContentDisposition.attachment()
+				.filename("baby-" + babyId + "-records." + exportFormat.getExtension())
+				.build();
+		return ResponseEntity.ok()
+				.contentType(exportFormat.getMediaType())
+				.header(HttpHeaders.CONTENT_DISPOSITION, disposition.toString())
+				.body(out -> recordExportService.export(babyId, exportFormat, out));
+	}
+
+	/**
+	 * 获取指定宝宝自上次同步以来的记录变更
+	 * @param babyId 宝宝ID
+	 * @param since 上次同步返回的令牌，为空时返回全部记录
+	 * @param limit 单次最多返回的变更数
+	 * @return 新增/修改的记录、删除的记录ID与新的同步令牌
+	 */
+	@GetMapping("/changes")
+	public ResponseEntity<RecordChanges> changes(
+			@PathVariable("babyId") Long babyId,
+			@RequestParam(value = "since", required = false) String since,
+			@RequestParam(value = "limit", required = false) Integer limit
+	) {
+		Long userId = SecurityUtils.getCurrentUserIdOrThrow();
+		
+		// 验证权限：用户是否有访问该宝宝的权限
+		permissionService.validateBabyAccess(userId, babyId);
+		
+		return ResponseEntity.ok(recordService.getChanges(babyId, since, limit));
+	}
+
 	/**
 	 * 更新指定宝宝的记录
 	 * @param babyId 宝宝ID
 	 * @param recordId 记录ID
+	 * @param idempotencyKey 幂等键（可选）
 	 * @param req 更新请求
 	 * @return 更新后的记录
 	 */
@@ -109,52 +279,71 @@ public class BabyRecordController {
 	public ResponseEntity<Record> update(
 			@PathVariable("babyId") Long babyId,
 			@PathVariable("recordId") Long recordId,
+			@RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
 			@Validated @RequestBody UpdateRecordRequest req
 	) {
 		Long userId = SecurityUtils.getCurrentUserIdOrThrow();
 		
-		// 验证权限：用户是否有访问该宝宝的权限
-		permissionService.validateBabyAccess(userId, babyId);
-		
-		// 验证宝宝存在并获取其家庭信息
-		var baby = babyService.getBabyById(babyId);
-		
-		// 验证记录属于该宝宝
-		Record existingRecord = recordService.getRecordById(recordId);
-		if (!existingRecord.getBabyId().equals(babyId)) {
-			throw new RuntimeException("Record does not belong to the specified baby");
-		}
-		
-		Record updatedRecord = recordService.updateRecord(baby.getFamilyId(), recordId, userId, req);
-		return ResponseEntity.ok(updatedRecord);
+		return idempotencyService.execute(userId, idempotencyKey, "PUT", "/babies/" + babyId + "/records/" + recordId, req, Record.class, () -> {
+			// 验证权限：用户是否有访问该宝宝的权限
+			permissionService.validateBabyAccess(userId, babyId);
+			
+			// 记录在服务的事务内只加载一次，并校验属于该宝宝
+			Record updatedRecord = recordService.updateBabyRecord(babyId, recordId, userId, req);
+			return ResponseEntity.ok(updatedRecord);
+		});
 	}
 
 	/**
 	 * 删除指定宝宝的记录
 	 * @param babyId 宝宝ID
 	 * @param recordId 记录ID
+	 * @param idempotencyKey 幂等键（可选），重试已成功的删除时仍返回204
 	 * @return 无内容响应
 	 */
 	@DeleteMapping("/{recordId}")
 	public ResponseEntity<Void> delete(
 			@PathVariable("babyId") Long babyId,
-			@PathVariable("recordId") Long recordId
+			@PathVariable("recordId") Long recordId,
+			@RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey
 	) {
 		Long userId = SecurityUtils.getCurrentUserIdOrThrow();
 		
-		// 验证权限：用户是否有访问该宝宝的权限
-		permissionService.validateBabyAccess(userId, babyId);
-		
-		// 验证宝宝存在并获取其家庭信息
-		var baby = babyService.getBabyById(babyId);
-		
-		// 验证记录属于该宝宝
-		Record existingRecord = recordService.getRecordById(recordId);
-		if (!existingRecord.getBabyId().equals(babyId)) {
-			throw new RuntimeException("Record does not belong to the specified baby");
+		return idempotencyService.execute(userId, idempotencyKey, "DELETE", "/babies/" + babyId + "/records/" + recordId, null, Void.class, () -> {
+			// 验证权限：用户是否有访问该宝宝的权限
+			permissionService.validateBabyAccess(userId, babyId);
+			
+			// 记录在服务的事务内只加载一次，并校验属于该宝宝
+			recordService.deleteBabyRecord(babyId, recordId, userId);
+			return ResponseEntity.noContent().<Void>build();
+		});
+	}
+
+	private <T> ResponseEntity<List<T>> pageResponse(RecordPage<T> page) {
+		ResponseEntity.BodyBuilder builder = ResponseEntity.ok();
+		if (page.getNext() != null) {
+			builder.header(RecordPage.NEXT_CURSOR_HEADER, page.getNext());
+		}
+		return builder.body(page.getItems());
+	}
+
+	/**
+	 * 由宝宝的数据版本和查询参数生成强 ETag，任何记录写入都会使其变化
+	 * 查询参数按顺序拼成规范字符串后取 SHA-256，不同的参数组合不会得到相同的 ETag
+	 */
+	private String etag(Long babyId, Object... params) {
+		long version = babyService.getDataVersion(babyId);
+		StringBuilder canonical = new StringBuilder();
+		for (Object param : params) {
+			// 带长度前缀，null 与字符串 "null"、参数边界都不会混淆
+			String value = param != null ? param.toString() : null;
+			canonical.append(value != null ? value.length() + ":" + value : "-").append('\n');
+		}
+		try {
+			byte[] digest = MessageDigest.getInstance("SHA-256").digest(canonical.toString().getBytes(StandardCharsets.UTF_8));
+			return "\"" + babyId + "-" + version + "-" + HexFormat.of().formatHex(digest) + "\"";
+		} catch (NoSuchAlgorithmException e) {
+			throw new RuntimeException("无法计算 ETag", e);
 		}
-		
-		recordService.deleteRecord(baby.getFamilyId(), recordId, userId);
-		return ResponseEntity.noContent().build();
 	}
-}
\ No newline at end of file
+}
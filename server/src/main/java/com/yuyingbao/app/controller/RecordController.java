@@ -2,6 +2,7 @@ package com.yuyingbao.app.controller;
 
 import com.yuyingbao.app.config.SecurityUtils;
 import com.yuyingbao.app.dto.CreateRecordRequest;
+import com.yuyingbao.app.dto.RecordPage;
 import com.yuyingbao.app.dto.UpdateRecordRequest;
 import com.yuyingbao.app.model.entity.Record;
 import com.yuyingbao.app.model.enums.RecordType;
@@ -32,18 +33,45 @@ public class RecordController {
 		return ResponseEntity.ok(recordService.createRecord(familyId, userId, req));
 	}
 
+	/**
+	 * 获取家庭记录列表
+	 * 传入 cursor 或 limit 时按游标分页，下一页游标通过 X-Next-Cursor 响应头返回
+	 */
 	@GetMapping
-	public ResponseEntity<List<Record>> list(@PathVariable("familyId") Long familyId) {
+	public ResponseEntity<List<Record>> list(
+			@PathVariable("familyId") Long familyId,
+			@RequestParam(value = "cursor", required = false) String cursor,
+			@RequestParam(value = "limit", required = false) Integer limit
+	) {
+		if (cursor != null || limit != null) {
+			return pageResponse(recordService.pageRecords(familyId, null, null, null, cursor, limit));
+		}
 		return ResponseEntity.ok(recordService.listRecords(familyId, null, null, null));
 	}
 
+	/**
+	 * 按条件筛选家庭记录
+	 * 传入 fields 时只读取并返回选中的字段（逗号分隔），slim 表示按记录类型返回精简视图
+	 */
 	@GetMapping("/filter")
-	public ResponseEntity<List<Record>> listWithFilter(
+	public ResponseEntity<? extends List<?>> listWithFilter(
 			@PathVariable("familyId") Long familyId,
 			@RequestParam(value = "start", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime start,
 			@RequestParam(value = "end", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime end,
-			@RequestParam(value = "type", required = false) RecordType type
+			@RequestParam(value = "type", required = false) RecordType type,
+			@RequestParam(value = "cursor", required = false) String cursor,
+			@RequestParam(value = "limit", required = false) Integer limit,
+			@RequestParam(value = "fields", required = false) String fields
 	) {
+		if (fields != null) {
+			if (cursor != null || limit != null) {
+				return pageResponse(recordService.pageRecordViews(familyId, start, end, type, cursor, limit, fields));
+			}
+			return ResponseEntity.ok(recordService.listRecordViews(familyId, start, end, type, fields));
+		}
+		if (cursor != null || limit != null) {
+			return pageResponse(recordService.pageRecords(familyId, start, end, type, cursor, limit));
+		}
 		return ResponseEntity.ok(recordService.listRecords(familyId, start, end, type));
 	}
 
@@ -85,4 +113,12 @@ public class RecordController {
 		recordService.deleteRecord(familyId, recordId, userId);
 		return ResponseEntity.noContent().build();
 	}
+
+	private <T> ResponseEntity<List<T>> pageResponse(RecordPage<T> page) {
+		ResponseEntity.BodyBuilder builder = ResponseEntity.ok();
+		if (page.getNext() != null) {
+			builder.header(RecordPage.NEXT_CURSOR_HEADER, page.getNext());
+		}
+		return builder.body(page.getItems());
+	}
 }
@@ -1,13 +1,23 @@
 package com.yuyingbao.app.controller;
 
+import com.yuyingbao.app.dto.BabyStatistics;
+import com.yuyingbao.app.dto.GrowthTrend;
+import com.yuyingbao.app.dto.StatisticsSummary;
+import com.yuyingbao.app.model.enums.RecordType;
+import com.yuyingbao.app.model.enums.StatisticsGranularity;
+import com.yuyingbao.app.service.BabyDailyStatsService;
+import com.yuyingbao.app.service.BabyService;
 import com.yuyingbao.app.service.PermissionService;
 import com.yuyingbao.app.service.StatisticsService;
 import com.yuyingbao.app.config.SecurityUtils;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.time.LocalDate;
 import java.time.OffsetDateTime;
+import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -16,25 +26,33 @@ public class StatisticsController {
 
     private final StatisticsService statisticsService;
     private final PermissionService permissionService;
+    private final BabyService babyService;
 
-    public StatisticsController(StatisticsService statisticsService, PermissionService permissionService) {
+    public StatisticsController(StatisticsService statisticsService, PermissionService permissionService,
+                                BabyService babyService) {
         this.statisticsService = statisticsService;
         this.permissionService = permissionService;
+        this.babyService = babyService;
     }
 
     /**
      * 获取宝宝今日统计数据
+     * 响应带 ETag，客户端携带 If-None-Match 且数据未变化时返回 304
      * @param babyId 宝宝ID
      * @return 统计数据
      */
     @GetMapping("/babies/{babyId}/today")
-    public ResponseEntity<Map<String, Object>> getBabyTodayStatistics(@PathVariable Long babyId) {
+    public ResponseEntity<StatisticsSummary> getBabyTodayStatistics(@PathVariable Long babyId, WebRequest request) {
         Long userId = SecurityUtils.getCurrentUserIdOrThrow();
         
         // 验证用户是否有访问该宝宝数据的权限
         permissionService.validateBabyAccess(userId, babyId);
         
-        Map<String, Object> statistics = statisticsService.getTodayStatistics(babyId);
+        if (request.checkNotModified(todayEtag(babyId))) {
+            return null;
+        }
+        
+        StatisticsSummary statistics = statisticsService.getTodayStatistics(babyId);
         return ResponseEntity.ok(statistics);
     }
 
@@ -46,7 +64,7 @@ public class StatisticsController {
      * @return 统计数据
      */
     @GetMapping("/babies/{babyId}")
-    public ResponseEntity<Map<String, Object>> getBabyStatistics(
+    public ResponseEntity<StatisticsSummary> getBabyStatistics(
             @PathVariable Long babyId,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime startDate,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime endDate) {
@@ -55,42 +73,105 @@ public class StatisticsController {
         // 验证用户是否有访问该宝宝数据的权限
         permissionService.validateBabyAccess(userId, babyId);
         
-        Map<String, Object> statistics = statisticsService.getStatistics(babyId, startDate, endDate);
+        StatisticsSummary statistics = statisticsService.getStatistics(babyId, startDate, endDate);
         return ResponseEntity.ok(statistics);
     }
 
+    /**
+     * 获取宝宝按天/周/月分段的统计序列
+     * @param babyId 宝宝ID
+     * @param granularity 分段粒度：day、week、month
+     * @param from 开始日期（可选）
+     * @param to 结束日期（可选，默认今天）
+     * @param types 记录类型，逗号分隔（可选，默认全部）
+     * @return 各时间段的统计序列
+     */
+    @GetMapping("/babies/{babyId}/series")
+    public ResponseEntity<Map<String, Object>> getBabyStatisticsSeries(
+            @PathVariable Long babyId,
+            @RequestParam(defaultValue = "day") String granularity,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) List<RecordType> types) {
+        Long userId = SecurityUtils.getCurrentUserIdOrThrow();
+
+        // 验证用户是否有访问该宝宝数据的权限
+        permissionService.validateBabyAccess(userId, babyId);
+
+        Map<String, Object> series = statisticsService.getSeries(babyId, parseGranularity(granularity), from, to, types);
+        return ResponseEntity.ok(series);
+    }
+
     /**
      * 获取家庭今日统计数据
      * @param familyId 家庭ID
      * @return 统计数据
      */
     @GetMapping("/families/{familyId}/today")
-    public ResponseEntity<Map<String, Object>> getFamilyTodayStatistics(@PathVariable Long familyId) {
+    public ResponseEntity<StatisticsSummary> getFamilyTodayStatistics(@PathVariable Long familyId) {
         Long userId = SecurityUtils.getCurrentUserIdOrThrow();
         
         // 验证用户是否属于该家庭
         permissionService.validateFamilyAccess(userId, familyId);
         
-        Map<String, Object> statistics = statisticsService.getFamilyTodayStatistics(familyId);
+        StatisticsSummary statistics = statisticsService.getFamilyTodayStatistics(familyId);
         return ResponseEntity.ok(statistics);
     }
 
     /**
-     * 获取宝宝成长趋势数据
+     * 家庭看板：获取家庭内每个宝宝的今日统计
+     * 只做一次家庭权限校验，所有宝宝的统计来自同一次分组查询
+     * @param familyId 家庭ID
+     * @return 每个宝宝的统计
+     */
+    @GetMapping("/families/{familyId}/babies/today")
+    public ResponseEntity<List<BabyStatistics>> getFamilyBabiesTodayStatistics(@PathVariable Long familyId) {
+        Long userId = SecurityUtils.getCurrentUserIdOrThrow();
+
+        // 验证用户是否属于该家庭，家庭成员可以查看家庭内所有宝宝
+        permissionService.validateFamilyAccess(userId, familyId);
+
+        return ResponseEntity.ok(statisticsService.getFamilyBabiesTodayStatistics(familyId));
+    }
+
+    /**
+     * 家庭看板：获取家庭内每个宝宝指定时间范围的统计
+     * @param familyId 家庭ID
+     * @param startDate 开始时间
+     * @param endDate 结束时间
+     * @return 每个宝宝的统计
+     */
+    @GetMapping("/families/{familyId}/babies")
+    public ResponseEntity<List<BabyStatistics>> getFamilyBabiesStatistics(
+            @PathVariable Long familyId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime endDate) {
+        Long userId = SecurityUtils.getCurrentUserIdOrThrow();
+
+        // 验证用户是否属于该家庭，家庭成员可以查看家庭内所有宝宝
+        permissionService.validateFamilyAccess(userId, familyId);
+
+        return ResponseEntity.ok(statisticsService.getFamilyBabiesStatistics(familyId, startDate, endDate));
+    }
+
+    /**
+     * 获取宝宝成长曲线
      * @param babyId 宝宝ID
      * @param days 天数，默认30天
-     * @return 趋势数据
+     * @param points 体重、身高各自最多返回的点数，默认200，超出时降采样
+     * @return 按列返回的成长曲线与 WHO 百分位曲线
      */
     @GetMapping("/babies/{babyId}/growth-trend")
-    public ResponseEntity<Map<String, Object>> getBabyGrowthTrend(
+    public ResponseEntity<GrowthTrend> getBabyGrowthTrend(
             @PathVariable Long babyId,
-            @RequestParam(defaultValue = "30") int days) {
+            @RequestParam(defaultValue = "30") int days,
+            @RequestParam(defaultValue = "" + StatisticsService.DEFAULT_TREND_POINTS) int points) {
         Long userId = SecurityUtils.getCurrentUserIdOrThrow();
         
         // 验证用户是否有访问该宝宝数据的权限
         permissionService.validateBabyAccess(userId, babyId);
         
-        Map<String, Object> trend = statisticsService.getGrowthTrend(babyId, days);
+        GrowthTrend trend = statisticsService.getGrowthTrend(babyId, days, points);
         return ResponseEntity.ok(trend);
     }
 
@@ -100,14 +181,18 @@ public class StatisticsController {
      * @return 统计数据
      */
     @GetMapping("/today")
-    public ResponseEntity<Map<String, Object>> getTodayStatistics(@RequestParam(required = false) Long babyId) {
+    public ResponseEntity<?> getTodayStatistics(@RequestParam(required = false) Long babyId, WebRequest request) {
         if (babyId != null) {
             Long userId = SecurityUtils.getCurrentUserIdOrThrow();
             
             // 验证用户是否有访问该宝宝数据的权限
             permissionService.validateBabyAccess(userId, babyId);
             
-            Map<String, Object> statistics = statisticsService.getTodayStatistics(babyId);
+            if (request.checkNotModified(todayEtag(babyId))) {
+                return null;
+            }
+            
+            StatisticsSummary statistics = statisticsService.getTodayStatistics(babyId);
             return ResponseEntity.ok(statistics);
         } else {
             // 如果没有指定babyId，返回错误
@@ -123,7 +208,7 @@ public class StatisticsController {
      * @return 趋势数据
      */
     @GetMapping("/trend")
-    public ResponseEntity<Map<String, Object>> getTrend(
+    public ResponseEntity<?> getTrend(
             @RequestParam(required = false) Long babyId,
             @RequestParam String type,
             @RequestParam(defaultValue = "30") int days) {
@@ -137,10 +222,26 @@ public class StatisticsController {
         permissionService.validateBabyAccess(userId, babyId);
         
         if ("weight".equals(type) || "height".equals(type)) {
-            Map<String, Object> trend = statisticsService.getGrowthTrend(babyId, days);
+            GrowthTrend trend = statisticsService.getGrowthTrend(babyId, days, StatisticsService.DEFAULT_TREND_POINTS);
             return ResponseEntity.ok(trend);
         } else {
             return ResponseEntity.badRequest().body(Map.of("error", "Unsupported trend type"));
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * 今日统计的 ETag：宝宝的数据版本加上日期，跨天后自动失效
+     */
+    private String todayEtag(Long babyId) {
+        long version = babyService.getDataVersion(babyId);
+        return "\"" + babyId + "-" + version + "-" + LocalDate.now(BabyDailyStatsService.ZONE) + "\"";
+    }
+
+    private StatisticsGranularity parseGranularity(String granularity) {
+        try {
+            return StatisticsGranularity.valueOf(granularity.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("不支持的统计粒度: " + granularity);
+        }
+    }
+}
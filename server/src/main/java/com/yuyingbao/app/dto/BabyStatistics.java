@@ -0,0 +1,7 @@
+package com.yuyingbao.app.dto;
+
+/**
+ * 家庭看板中单个宝宝的统计
+ */
+public record BabyStatistics(Long babyId, String babyName, StatisticsSummary statistics) {
+}
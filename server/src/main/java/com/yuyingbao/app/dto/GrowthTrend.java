@@ -0,0 +1,25 @@
+package com.yuyingbao.app.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * 宝宝成长曲线，按列返回
+ * t 为测量时间（毫秒时间戳），weightKg、heightCm 与 t 一一对应，该次没有测量的项为 null；
+ * total 为降采样前的测量次数。who 为同一时间范围内的 WHO 百分位曲线，宝宝性别未知或超出标准的月龄范围时不返回
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record GrowthTrend(Long babyId, int days, int total, long[] t, Double[] weightKg, Double[] heightCm,
+						  WhoCurves who) {
+
+	/**
+	 * WHO 百分位曲线，t 为曲线的采样时间（毫秒时间戳）
+	 */
+	public record WhoCurves(long[] t, Percentiles weightKg, Percentiles heightCm) {
+	}
+
+	/**
+	 * 各百分位的值，与所属曲线的 t 一一对应
+	 */
+	public record Percentiles(double[] p3, double[] p15, double[] p50, double[] p85, double[] p97) {
+	}
+}
@@ -0,0 +1,23 @@
+package com.yuyingbao.app.dto;
+
+import com.yuyingbao.app.model.entity.Record;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 某个同步令牌之后的记录变更
+ */
+@Data
+@AllArgsConstructor
+public class RecordChanges {
+	// 新增或修改的记录
+	private List<Record> upserts;
+	// 已删除的记录ID
+	private List<Long> deletes;
+	// 下次同步时传回的令牌
+	private String token;
+	// 为 true 时还有更多变更，客户端应立即用新令牌继续拉取
+	private boolean hasMore;
+}
@@ -0,0 +1,65 @@
+package com.yuyingbao.app.dto;
+
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Base64;
+
+/**
+ * 记录时间线的分页游标
+ * 以 (happenedAt, id) 作为排序键，对客户端表现为不透明的字符串
+ */
+@Getter
+public class RecordCursor {
+	/**
+	 * 首页使用的哨兵游标：比任何真实记录都“新”
+	 */
+	public static final RecordCursor FIRST = new RecordCursor(
+			OffsetDateTime.of(9999, 12, 31, 0, 0, 0, 0, ZoneOffset.UTC), Long.MAX_VALUE);
+
+	private final OffsetDateTime happenedAt;
+	private final Long id;
+
+	public RecordCursor(OffsetDateTime happenedAt, Long id) {
+		this.happenedAt = happenedAt;
+		this.id = id;
+	}
+
+	/**
+	 * 编码为 URL 安全的游标字符串
+	 * @return 游标字符串
+	 */
+	public String encode() {
+		Instant instant = happenedAt.toInstant();
+		String raw = instant.getEpochSecond() + "." + instant.getNano() + "." + id;
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * 解析客户端传回的游标字符串
+	 * @param token 游标字符串，为空时返回首页游标
+	 * @return 游标
+	 * @throws IllegalArgumentException 如果游标格式无效
+	 */
+	public static RecordCursor decode(String token) {
+		if (token == null || token.isBlank()) {
+			return FIRST;
+		}
+		try {
+			String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+			String[] parts = raw.split("\\.");
+			if (parts.length != 3) {
+				throw new IllegalArgumentException("无效的分页游标");
+			}
+			Instant instant = Instant.ofEpochSecond(Long.parseLong(parts[0]), Long.parseLong(parts[1]));
+			return new RecordCursor(instant.atOffset(ZoneOffset.UTC), Long.parseLong(parts[2]));
+		} catch (IllegalArgumentException | DateTimeException | ArithmeticException e) {
+			// 秒与纳秒相加溢出时 Instant.ofEpochSecond 抛出 ArithmeticException
+			throw new IllegalArgumentException("无效的分页游标");
+		}
+	}
+}
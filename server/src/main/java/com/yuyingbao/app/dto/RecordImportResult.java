@@ -0,0 +1,33 @@
+package com.yuyingbao.app.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 记录导入结果
+ */
+@Data
+@AllArgsConstructor
+public class RecordImportResult {
+	// 读取的数据行数（不含表头和空行）
+	private int total;
+	// 成功导入的条数
+	private int imported;
+	// 校验失败被跳过的条数
+	private int failed;
+	// 失败行的明细，最多返回前若干条
+	private List<RowError> errors;
+
+	/**
+	 * 校验失败的行
+	 */
+	@Data
+	@AllArgsConstructor
+	public static class RowError {
+		// 行号，CSV 从1开始计表头，NDJSON 从1开始
+		private int line;
+		private String message;
+	}
+}
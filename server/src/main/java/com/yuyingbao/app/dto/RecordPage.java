@@ -0,0 +1,21 @@
+package com.yuyingbao.app.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 记录时间线的一页数据
+ * @param <T> 记录实体或精简视图
+ */
+@Data
+@AllArgsConstructor
+public class RecordPage<T> {
+	// 下一页游标通过响应头返回，响应体保持记录数组不变
+	public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+	private List<T> items;
+	// 下一页游标，没有更多数据时为 null
+	private String next;
+}
@@ -0,0 +1,49 @@
+package com.yuyingbao.app.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.yuyingbao.app.model.enums.DiaperColor;
+import com.yuyingbao.app.model.enums.DiaperTexture;
+import com.yuyingbao.app.model.enums.RecordType;
+import com.yuyingbao.app.model.enums.SolidType;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.OffsetDateTime;
+
+/**
+ * 记录的精简视图
+ * 字段与 Record 实体同名，只填充查询时选中的列，未选中或为空的字段不输出
+ */
+@Data
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class RecordView {
+	private Long id;
+	private Long familyId;
+	private Long userId;
+	private Long babyId;
+	private RecordType type;
+
+	@JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd'T'HH:mm:ss.SSSXXX")
+	private OffsetDateTime happenedAt;
+
+	private String note;
+	private Double amountMl;
+	private Integer durationMin;
+	private String breastfeedingSide;
+	private SolidType solidType;
+	private String solidIngredients;
+	private String solidBrand;
+	private String solidOrigin;
+	private DiaperTexture diaperTexture;
+	private DiaperColor diaperColor;
+	private Boolean hasUrine;
+	private Double heightCm;
+	private Double weightKg;
+	private String nutritionTypes;
+	private Long version;
+
+	@JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd'T'HH:mm:ss.SSSXXX")
+	private OffsetDateTime updatedAt;
+}
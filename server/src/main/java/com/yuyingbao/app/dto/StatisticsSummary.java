@@ -0,0 +1,29 @@
+package com.yuyingbao.app.dto;
+
+import java.util.List;
+
+/**
+ * 统计结果（今日统计、家庭统计、指定时间范围统计）
+ * 不可变，可以直接放入缓存；JSON 结构与原先的 Map 形式一致
+ */
+public record StatisticsSummary(Feeding feeding, Count diaper, Count growth, List<String> suggestions) {
+
+	/**
+	 * 喂养统计，total 中母乳按10ml/分钟估算
+	 */
+	public record Feeding(DurationTotal breastfeeding, AmountTotal bottle, AmountTotal formula, Count solid,
+						  AmountTotal water, FeedingTotal total) {
+	}
+
+	public record Count(int count) {
+	}
+
+	public record AmountTotal(int count, double totalAmount) {
+	}
+
+	public record DurationTotal(int count, long totalDuration) {
+	}
+
+	public record FeedingTotal(int count, double amount) {
+	}
+}
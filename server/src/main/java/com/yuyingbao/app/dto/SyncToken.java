@@ -0,0 +1,64 @@
+package com.yuyingbao.app.dto;
+
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * 增量同步令牌
+ * 以 (version, id) 表示客户端已同步到的位置，并带上签发时宝宝已清理的最大墓碑版本，
+ * 用于判断此后的墓碑清理是否删掉了客户端还没有同步的删除；对客户端表现为不透明的字符串
+ */
+@Getter
+public class SyncToken {
+	/**
+	 * 首次同步使用的令牌：早于任何写入
+	 */
+	public static final SyncToken START = new SyncToken(-1L, 0L, 0L);
+
+	private final Long version;
+	private final Long id;
+	private final Long purgedVersion;
+
+	public SyncToken(Long version, Long id, Long purgedVersion) {
+		this.version = version;
+		this.id = id;
+		this.purgedVersion = purgedVersion;
+	}
+
+	public boolean isStart() {
+		return version < 0;
+	}
+
+	/**
+	 * 编码为 URL 安全的令牌字符串
+	 * @return 令牌字符串
+	 */
+	public String encode() {
+		String raw = version + "." + id + "." + purgedVersion;
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * 解析客户端传回的令牌字符串
+	 * @param token 令牌字符串，为空时返回首次同步令牌
+	 * @return 令牌
+	 * @throws IllegalArgumentException 如果令牌格式无效
+	 */
+	public static SyncToken decode(String token) {
+		if (token == null || token.isBlank()) {
+			return START;
+		}
+		try {
+			String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+			String[] parts = raw.split("\\.");
+			if (parts.length != 3) {
+				throw new IllegalArgumentException("无效的同步令牌");
+			}
+			return new SyncToken(Long.parseLong(parts[0]), Long.parseLong(parts[1]), Long.parseLong(parts[2]));
+		} catch (IllegalArgumentException e) {
+			throw new IllegalArgumentException("无效的同步令牌");
+		}
+	}
+}
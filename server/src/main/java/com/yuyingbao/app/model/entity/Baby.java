@@ -1,8 +1,10 @@
 package com.yuyingbao.app.model.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.yuyingbao.app.model.enums.Gender;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 import java.time.LocalDate;
 import java.time.OffsetDateTime;
 
@@ -42,4 +44,16 @@ public class Baby {
 
 	@Column(nullable = false)
 	private OffsetDateTime createdAt;
+
+	// 记录数据版本，只由 BabyRepository.incrementDataVersion 在数据库内递增
+	@JsonIgnore
+	@ColumnDefault("0")
+	@Column(nullable = false, insertable = false, updatable = false)
+	private Long dataVersion;
+
+	// 已清理的删除墓碑中最大的版本号，签发后该值增大且超过令牌位置的同步令牌需要重新全量同步
+	@JsonIgnore
+	@ColumnDefault("0")
+	@Column(nullable = false, insertable = false, updatable = false)
+	private Long tombstonesPurgedVersion;
 }
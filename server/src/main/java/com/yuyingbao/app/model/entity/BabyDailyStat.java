@@ -0,0 +1,56 @@
+package com.yuyingbao.app.model.entity;
+
+import com.yuyingbao.app.model.enums.RecordType;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * 宝宝每日统计汇总（按记录类型）
+ */
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "baby_daily_stats")
+@IdClass(BabyDailyStat.Key.class)
+public class BabyDailyStat {
+	@Id
+	private Long babyId;
+
+	@Id
+	private LocalDate statDate;
+
+	@Id
+	@Enumerated(EnumType.STRING)
+	@Column(length = 32)
+	private RecordType type;
+
+	@Id
+	private Long familyId;
+
+	@Column(nullable = false)
+	private int recordCount;
+
+	@Column(nullable = false)
+	private double totalAmount; // amountMl 合计
+
+	@Column(nullable = false)
+	private long totalDuration; // durationMin 合计
+
+	@Getter
+	@Setter
+	@NoArgsConstructor
+	@AllArgsConstructor
+	@EqualsAndHashCode
+	public static class Key implements Serializable {
+		private Long babyId;
+		private LocalDate statDate;
+		private RecordType type;
+		private Long familyId;
+	}
+}
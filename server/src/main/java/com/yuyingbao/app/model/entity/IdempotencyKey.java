@@ -0,0 +1,50 @@
+package com.yuyingbao.app.model.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.time.OffsetDateTime;
+
+/**
+ * 幂等键及其首次请求的响应
+ */
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "idempotency_keys")
+@IdClass(IdempotencyKey.Key.class)
+public class IdempotencyKey {
+	@Id
+	private Long userId;
+
+	@Id
+	@Column(length = 128)
+	private String idempotencyKey;
+
+	// 方法、路径与请求体的 SHA-256，用于发现同一个键被用于不同请求
+	@Column(nullable = false, length = 64)
+	private String fingerprint;
+
+	@Column(nullable = false)
+	private int statusCode;
+
+	@Column(columnDefinition = "TEXT")
+	private String responseBody;
+
+	@Column(nullable = false)
+	private OffsetDateTime createdAt;
+
+	@Getter
+	@Setter
+	@NoArgsConstructor
+	@AllArgsConstructor
+	@EqualsAndHashCode
+	public static class Key implements Serializable {
+		private Long userId;
+		private String idempotencyKey;
+	}
+}
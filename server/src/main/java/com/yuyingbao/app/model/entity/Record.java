@@ -14,8 +14,10 @@ import java.time.OffsetDateTime;
 @Entity
 @Table(name = "records")
 public class Record {
+	// 使用 pooled 序列预分配ID，IDENTITY 会让 Hibernate 关闭插入批处理
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "records_id_seq")
+	@SequenceGenerator(name = "records_id_seq", sequenceName = "records_id_seq", allocationSize = 50)
 	private Long id;
 
 	@Column(nullable = false)
@@ -85,4 +87,21 @@ public class Record {
 	// Nutrition fields (营养素字段)
 	@Column(length = 1000)
 	private String nutritionTypes; // 营养素类型，用逗号分隔，如："AD,D3,CALCIUM,DHA"
+
+	// Sync fields (增量同步)
+	@Column(nullable = false)
+	private Long version; // 最后一次写入时宝宝的数据版本
+
+	@Column(nullable = false)
+	@JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd'T'HH:mm:ss.SSSXXX")
+	private OffsetDateTime updatedAt;
+
+	@PrePersist
+	@PreUpdate
+	void touch() {
+		if (version == null) {
+			version = 0L;
+		}
+		updatedAt = OffsetDateTime.now();
+	}
 }
\ No newline at end of file
@@ -0,0 +1,33 @@
+package com.yuyingbao.app.model.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.OffsetDateTime;
+
+/**
+ * 已删除记录的墓碑，供增量同步下发删除
+ */
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "record_tombstones")
+public class RecordTombstone {
+	@Id
+	private Long recordId;
+
+	@Column(nullable = false)
+	private Long babyId;
+
+	@Column(nullable = false)
+	private Long familyId;
+
+	@Column(nullable = false)
+	private Long version; // 删除时宝宝的数据版本
+
+	@Column(nullable = false)
+	private OffsetDateTime deletedAt;
+}
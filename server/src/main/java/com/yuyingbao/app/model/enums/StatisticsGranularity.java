@@ -0,0 +1,7 @@
+package com.yuyingbao.app.model.enums;
+
+public enum StatisticsGranularity {
+	DAY,
+	WEEK,
+	MONTH
+}
@@ -0,0 +1,57 @@
+package com.yuyingbao.app.repository;
+
+import com.yuyingbao.app.model.entity.BabyDailyStat;
+import com.yuyingbao.app.model.enums.RecordType;
+import com.yuyingbao.app.repository.projection.BabyTypeAggregate;
+import com.yuyingbao.app.repository.projection.DailyTypeAggregate;
+import com.yuyingbao.app.repository.projection.RecordTypeAggregate;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface BabyDailyStatRepository extends JpaRepository<BabyDailyStat, BabyDailyStat.Key> {
+	List<BabyDailyStat> findByBabyId(Long babyId);
+
+	// 单条 upsert 在数据库内原子累加：汇总行不存在时插入，并发插入同一行时由冲突分支累加，不会因主键冲突回滚事务
+	// PostgreSQL 上生成 INSERT ... ON CONFLICT ... DO UPDATE；不清空持久化上下文，批量应用增量时不影响已加载的实体
+	@Modifying(flushAutomatically = true)
+	@Query("INSERT INTO BabyDailyStat (babyId, statDate, type, familyId, recordCount, totalAmount, totalDuration) " +
+			"VALUES (:babyId, :statDate, :type, :familyId, :count, :amount, :duration) " +
+			"ON CONFLICT (babyId, statDate, type, familyId) DO UPDATE SET recordCount = recordCount + excluded.recordCount, " +
+			"totalAmount = totalAmount + excluded.totalAmount, totalDuration = totalDuration + excluded.totalDuration")
+	int addDelta(@Param("babyId") Long babyId, @Param("statDate") LocalDate statDate, @Param("type") RecordType type, @Param("familyId") Long familyId,
+				 @Param("count") int count, @Param("amount") double amount, @Param("duration") long duration);
+
+	// 扣减只更新已有的汇总行
+	@Modifying(flushAutomatically = true)
+	@Query(value = "UPDATE app.baby_daily_stats SET record_count = record_count + :count, total_amount = total_amount + :amount, total_duration = total_duration + :duration " +
+			"WHERE baby_id = :babyId AND stat_date = :statDate AND type = :type AND family_id = :familyId", nativeQuery = true)
+	int subtractDelta(@Param("babyId") Long babyId, @Param("statDate") LocalDate statDate, @Param("type") String type, @Param("familyId") Long familyId,
+					  @Param("count") int count, @Param("amount") double amount, @Param("duration") long duration);
+
+	@Modifying
+	@Query("DELETE FROM BabyDailyStat s WHERE s.babyId = :babyId")
+	int deleteByBabyId(@Param("babyId") Long babyId);
+
+	@Query("SELECT s.type AS type, SUM(s.recordCount) AS count, SUM(s.totalAmount) AS totalAmount, SUM(s.totalDuration) AS totalDuration FROM BabyDailyStat s " +
+			"WHERE s.babyId = :babyId AND s.statDate BETWEEN :from AND :to GROUP BY s.type")
+	List<RecordTypeAggregate> aggregateByBabyIdAndStatDateBetween(@Param("babyId") Long babyId, @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+	@Query("SELECT s.type AS type, SUM(s.recordCount) AS count, SUM(s.totalAmount) AS totalAmount, SUM(s.totalDuration) AS totalDuration FROM BabyDailyStat s " +
+			"WHERE s.familyId = :familyId AND s.statDate BETWEEN :from AND :to GROUP BY s.type")
+	List<RecordTypeAggregate> aggregateByFamilyIdAndStatDateBetween(@Param("familyId") Long familyId, @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+	// 家庭看板：一次分组查询得到家庭内每个宝宝的统计
+	@Query("SELECT s.babyId AS babyId, s.type AS type, SUM(s.recordCount) AS count, SUM(s.totalAmount) AS totalAmount, SUM(s.totalDuration) AS totalDuration FROM BabyDailyStat s " +
+			"WHERE s.familyId = :familyId AND s.statDate BETWEEN :from AND :to GROUP BY s.babyId, s.type")
+	List<BabyTypeAggregate> aggregateBabiesByFamilyIdAndStatDateBetween(@Param("familyId") Long familyId, @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+	@Query("SELECT s.statDate AS statDate, s.type AS type, SUM(s.recordCount) AS count, SUM(s.totalAmount) AS totalAmount, SUM(s.totalDuration) AS totalDuration FROM BabyDailyStat s " +
+			"WHERE s.babyId = :babyId AND s.statDate BETWEEN :from AND :to AND s.type IN :types GROUP BY s.statDate, s.type")
+	List<DailyTypeAggregate> aggregateDailyByBabyIdAndStatDateBetween(@Param("babyId") Long babyId, @Param("from") LocalDate from, @Param("to") LocalDate to,
+																	   @Param("types") List<RecordType> types);
+}
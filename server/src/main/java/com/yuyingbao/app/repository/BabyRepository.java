@@ -2,7 +2,11 @@ package com.yuyingbao.app.repository;
 
 import com.yuyingbao.app.model.entity.Baby;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.OffsetDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -11,4 +15,24 @@ public interface BabyRepository extends JpaRepository<Baby, Long> {
 	Optional<Baby> findByIdAndFamilyId(Long id, Long familyId);
 	List<Baby> findByIdIn(List<Long> ids);
 	List<Baby> findByFamilyIdIn(List<Long> familyIds);
+
+	// 递增会锁住宝宝行直到事务提交，同一宝宝的写入因此按版本号顺序提交
+	@Modifying
+	@Query("UPDATE Baby b SET b.dataVersion = b.dataVersion + 1 WHERE b.id = :babyId")
+	int incrementDataVersion(@Param("babyId") Long babyId);
+
+	@Query("SELECT b.dataVersion FROM Baby b WHERE b.id = :babyId")
+	Long findDataVersionById(@Param("babyId") Long babyId);
+
+	@Query("SELECT b.tombstonesPurgedVersion FROM Baby b WHERE b.id = :babyId")
+	Long findTombstonesPurgedVersionById(@Param("babyId") Long babyId);
+
+	// 清理墓碑前记录每个宝宝将被清理的最大墓碑版本；版本号单调递增，新值不会小于旧值
+	@Modifying
+	@Query("UPDATE Baby b SET b.tombstonesPurgedVersion = (SELECT MAX(t.version) FROM RecordTombstone t WHERE t.babyId = b.id AND t.deletedAt < :before) " +
+			"WHERE EXISTS (SELECT t.recordId FROM RecordTombstone t WHERE t.babyId = b.id AND t.deletedAt < :before)")
+	int raiseTombstonesPurgedVersion(@Param("before") OffsetDateTime before);
+
+	@Query("SELECT b.familyId FROM Baby b WHERE b.id = :babyId")
+	Long findFamilyIdById(@Param("babyId") Long babyId);
 }
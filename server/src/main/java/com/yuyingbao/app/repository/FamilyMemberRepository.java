@@ -2,6 +2,8 @@ package com.yuyingbao.app.repository;
 
 import com.yuyingbao.app.model.entity.FamilyMember;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 import java.util.Optional;
@@ -11,4 +13,7 @@ public interface FamilyMemberRepository extends JpaRepository<FamilyMember, Long
 	Optional<FamilyMember> findByFamilyIdAndUserId(Long familyId, Long userId);
 	Optional<FamilyMember> findByIdAndFamilyId(Long id, Long familyId);
 	List<FamilyMember> findByUserId(Long userId);
+
+	@Query("SELECT fm.familyId FROM FamilyMember fm WHERE fm.userId = :userId")
+	List<Long> findFamilyIdsByUserId(@Param("userId") Long userId);
 }
\ No newline at end of file
@@ -0,0 +1,27 @@
+package com.yuyingbao.app.repository;
+
+import com.yuyingbao.app.model.entity.IdempotencyKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.OffsetDateTime;
+
+public interface IdempotencyKeyRepository extends JpaRepository<IdempotencyKey, IdempotencyKey.Key> {
+	// 直接插入而不是 save：键已存在时必须主键冲突，而不是被 merge 覆盖
+	@Modifying
+	@Query(value = "INSERT INTO app.idempotency_keys (user_id, idempotency_key, fingerprint, status_code, response_body, created_at) " +
+			"VALUES (:userId, :idempotencyKey, :fingerprint, :statusCode, :responseBody, :createdAt)", nativeQuery = true)
+	int insert(@Param("userId") Long userId, @Param("idempotencyKey") String idempotencyKey, @Param("fingerprint") String fingerprint,
+			   @Param("statusCode") int statusCode, @Param("responseBody") String responseBody, @Param("createdAt") OffsetDateTime createdAt);
+
+	// 删除单个已过期的键，使同一个键过期后可以重新插入
+	@Modifying
+	@Query("DELETE FROM IdempotencyKey k WHERE k.userId = :userId AND k.idempotencyKey = :idempotencyKey AND k.createdAt < :before")
+	int deleteExpired(@Param("userId") Long userId, @Param("idempotencyKey") String idempotencyKey, @Param("before") OffsetDateTime before);
+
+	@Modifying
+	@Query("DELETE FROM IdempotencyKey k WHERE k.createdAt < :before")
+	int deleteByCreatedAtBefore(@Param("before") OffsetDateTime before);
+}
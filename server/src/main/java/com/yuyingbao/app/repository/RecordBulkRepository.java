@@ -0,0 +1,19 @@
+package com.yuyingbao.app.repository;
+
+import com.yuyingbao.app.model.entity.Record;
+
+import java.util.List;
+
+/**
+ * 大批量写入记录，用于导入
+ * 不经过持久化上下文：ID 仍由实体的序列生成器分配，与 JPA 写入的记录共用同一个号段，
+ * 插入语句以 JDBC batch 发送（PostgreSQL 驱动会改写为多行 INSERT）
+ */
+public interface RecordBulkRepository {
+	/**
+	 * 插入一批新记录，分配的ID与写入时间会回填到传入的对象上
+	 * 调用方负责在同一事务内更新每日汇总、数据版本与缓存
+	 * @param records 新记录
+	 */
+	void insertAll(List<Record> records);
+}
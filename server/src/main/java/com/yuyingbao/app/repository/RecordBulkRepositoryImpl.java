@@ -0,0 +1,83 @@
+package com.yuyingbao.app.repository;
+
+import com.yuyingbao.app.model.entity.Record;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.StatementCreatorUtils;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.OffsetDateTime;
+import java.util.List;
+
+/**
+ * RecordBulkRepository 的实现：按实体的ID生成器分配ID，再用 JdbcTemplate 批量插入
+ */
+class RecordBulkRepositoryImpl implements RecordBulkRepository {
+	private static final String INSERT_SQL = "INSERT INTO app.records (id, family_id, user_id, baby_id, type, happened_at, note, "
+			+ "amount_ml, duration_min, breastfeeding_side, solid_type, solid_ingredients, solid_brand, solid_origin, "
+			+ "diaper_texture, diaper_color, has_urine, height_cm, weight_kg, nutrition_types, version, updated_at) "
+			+ "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	private final JdbcTemplate jdbcTemplate;
+
+	RecordBulkRepositoryImpl(JdbcTemplate jdbcTemplate) {
+		this.jdbcTemplate = jdbcTemplate;
+	}
+
+	@Override
+	public void insertAll(List<Record> records) {
+		if (records.isEmpty()) {
+			return;
+		}
+		SharedSessionContractImplementor session = entityManager.unwrap(SharedSessionContractImplementor.class);
+		IdentifierGenerator generator = (IdentifierGenerator) session.getFactory().getMappingMetamodel()
+				.getEntityDescriptor(Record.class).getGenerator();
+		OffsetDateTime now = OffsetDateTime.now();
+		for (Record record : records) {
+			record.setId((Long) generator.generate(session, record));
+			if (record.getVersion() == null) {
+				record.setVersion(0L);
+			}
+			record.setUpdatedAt(now);
+		}
+		jdbcTemplate.batchUpdate(INSERT_SQL, records, records.size(), RecordBulkRepositoryImpl::bind);
+	}
+
+	private static void bind(PreparedStatement ps, Record record) throws SQLException {
+		int i = 1;
+		set(ps, i++, Types.BIGINT, record.getId());
+		set(ps, i++, Types.BIGINT, record.getFamilyId());
+		set(ps, i++, Types.BIGINT, record.getUserId());
+		set(ps, i++, Types.BIGINT, record.getBabyId());
+		set(ps, i++, Types.VARCHAR, record.getType().name());
+		set(ps, i++, Types.TIMESTAMP_WITH_TIMEZONE, record.getHappenedAt());
+		set(ps, i++, Types.VARCHAR, record.getNote());
+		set(ps, i++, Types.DOUBLE, record.getAmountMl());
+		set(ps, i++, Types.INTEGER, record.getDurationMin());
+		set(ps, i++, Types.VARCHAR, record.getBreastfeedingSide());
+		set(ps, i++, Types.VARCHAR, record.getSolidType() != null ? record.getSolidType().name() : null);
+		set(ps, i++, Types.VARCHAR, record.getSolidIngredients());
+		set(ps, i++, Types.VARCHAR, record.getSolidBrand());
+		set(ps, i++, Types.VARCHAR, record.getSolidOrigin());
+		set(ps, i++, Types.VARCHAR, record.getDiaperTexture() != null ? record.getDiaperTexture().name() : null);
+		set(ps, i++, Types.VARCHAR, record.getDiaperColor() != null ? record.getDiaperColor().name() : null);
+		set(ps, i++, Types.BOOLEAN, record.getHasUrine());
+		set(ps, i++, Types.DOUBLE, record.getHeightCm());
+		set(ps, i++, Types.DOUBLE, record.getWeightKg());
+		set(ps, i++, Types.VARCHAR, record.getNutritionTypes());
+		set(ps, i++, Types.BIGINT, record.getVersion());
+		set(ps, i, Types.TIMESTAMP_WITH_TIMEZONE, record.getUpdatedAt());
+	}
+
+	private static void set(PreparedStatement ps, int index, int sqlType, Object value) throws SQLException {
+		StatementCreatorUtils.setParameterValue(ps, index, sqlType, value);
+	}
+}
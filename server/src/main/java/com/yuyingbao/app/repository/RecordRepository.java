@@ -2,14 +2,18 @@ package com.yuyingbao.app.repository;
 
 import com.yuyingbao.app.model.entity.Record;
 import com.yuyingbao.app.model.enums.RecordType;
+import com.yuyingbao.app.repository.projection.BabyTypeAggregate;
+import com.yuyingbao.app.repository.projection.RecordTypeAggregate;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.time.OffsetDateTime;
 import java.util.List;
 
-public interface RecordRepository extends JpaRepository<Record, Long> {
+public interface RecordRepository extends JpaRepository<Record, Long>, RecordViewRepository, RecordBulkRepository {
 	// 原有的基于familyId的查询方法（保留兼容性）
 	List<Record> findByFamilyIdAndHappenedAtBetween(Long familyId, OffsetDateTime start, OffsetDateTime end);
 	List<Record> findByFamilyIdAndTypeAndHappenedAtBetween(Long familyId, RecordType type, OffsetDateTime start, OffsetDateTime end);
@@ -39,6 +43,61 @@ public interface RecordRepository extends JpaRepository<Record, Long> {
 	// 新增：用于统计的查询方法
 	List<Record> findByBabyIdAndHappenedAtBetween(Long babyId, OffsetDateTime start, OffsetDateTime end);
 	
-	@Query("SELECT r FROM Record r WHERE r.babyId = :babyId AND r.type = :type AND r.happenedAt BETWEEN :start AND :end ORDER BY r.happenedAt ASC")
-	List<Record> findByBabyIdAndTypeAndHappenedAtBetweenOrderByHappenedAtAsc(@Param("babyId") Long babyId, @Param("type") RecordType type, @Param("start") OffsetDateTime start, @Param("end") OffsetDateTime end);
+	// 新增：成长曲线只读取时间、体重和身高三列，沿 (baby_id, type, happened_at) 索引做一次范围扫描
+	@Query("SELECT r.happenedAt, r.weightKg, r.heightCm FROM Record r WHERE r.babyId = :babyId AND r.type = com.yuyingbao.app.model.enums.RecordType.GROWTH AND r.happenedAt BETWEEN :start AND :end ORDER BY r.happenedAt ASC")
+	List<Object[]> findGrowthColumnsByBabyIdAndHappenedAtBetween(@Param("babyId") Long babyId, @Param("start") OffsetDateTime start, @Param("end") OffsetDateTime end);
+	
+	// 新增：基于 (happenedAt, id) 的游标分页查询，按时间倒序返回游标之后的记录
+	@Query("SELECT r FROM Record r WHERE r.babyId = :babyId AND (r.happenedAt < :cursorAt OR (r.happenedAt = :cursorAt AND r.id < :cursorId)) ORDER BY r.happenedAt DESC, r.id DESC")
+	List<Record> findPageByBabyId(@Param("babyId") Long babyId, @Param("cursorAt") OffsetDateTime cursorAt, @Param("cursorId") Long cursorId, Limit limit);
+	
+	@Query("SELECT r FROM Record r WHERE r.babyId = :babyId AND r.happenedAt BETWEEN :start AND :end AND (r.happenedAt < :cursorAt OR (r.happenedAt = :cursorAt AND r.id < :cursorId)) ORDER BY r.happenedAt DESC, r.id DESC")
+	List<Record> findPageByBabyIdAndHappenedAtBetween(@Param("babyId") Long babyId, @Param("start") OffsetDateTime start, @Param("end") OffsetDateTime end, @Param("cursorAt") OffsetDateTime cursorAt, @Param("cursorId") Long cursorId, Limit limit);
+	
+	@Query("SELECT r FROM Record r WHERE r.babyId = :babyId AND r.type = :type AND r.happenedAt BETWEEN :start AND :end AND (r.happenedAt < :cursorAt OR (r.happenedAt = :cursorAt AND r.id < :cursorId)) ORDER BY r.happenedAt DESC, r.id DESC")
+	List<Record> findPageByBabyIdAndTypeAndHappenedAtBetween(@Param("babyId") Long babyId, @Param("type") RecordType type, @Param("start") OffsetDateTime start, @Param("end") OffsetDateTime end, @Param("cursorAt") OffsetDateTime cursorAt, @Param("cursorId") Long cursorId, Limit limit);
+	
+	@Query("SELECT r FROM Record r WHERE r.familyId = :familyId AND (r.happenedAt < :cursorAt OR (r.happenedAt = :cursorAt AND r.id < :cursorId)) ORDER BY r.happenedAt DESC, r.id DESC")
+	List<Record> findPageByFamilyId(@Param("familyId") Long familyId, @Param("cursorAt") OffsetDateTime cursorAt, @Param("cursorId") Long cursorId, Limit limit);
+	
+	@Query("SELECT r FROM Record r WHERE r.familyId = :familyId AND r.happenedAt BETWEEN :start AND :end AND (r.happenedAt < :cursorAt OR (r.happenedAt = :cursorAt AND r.id < :cursorId)) ORDER BY r.happenedAt DESC, r.id DESC")
+	List<Record> findPageByFamilyIdAndHappenedAtBetween(@Param("familyId") Long familyId, @Param("start") OffsetDateTime start, @Param("end") OffsetDateTime end, @Param("cursorAt") OffsetDateTime cursorAt, @Param("cursorId") Long cursorId, Limit limit);
+	
+	@Query("SELECT r FROM Record r WHERE r.familyId = :familyId AND r.type = :type AND r.happenedAt BETWEEN :start AND :end AND (r.happenedAt < :cursorAt OR (r.happenedAt = :cursorAt AND r.id < :cursorId)) ORDER BY r.happenedAt DESC, r.id DESC")
+	List<Record> findPageByFamilyIdAndTypeAndHappenedAtBetween(@Param("familyId") Long familyId, @Param("type") RecordType type, @Param("start") OffsetDateTime start, @Param("end") OffsetDateTime end, @Param("cursorAt") OffsetDateTime cursorAt, @Param("cursorId") Long cursorId, Limit limit);
+	
+	// 新增：统计用的分组聚合查询，只返回每种类型的条数与合计
+	@Query("SELECT r.type AS type, COUNT(r) AS count, SUM(r.amountMl) AS totalAmount, SUM(r.durationMin) AS totalDuration FROM Record r WHERE r.babyId = :babyId AND r.happenedAt BETWEEN :start AND :end GROUP BY r.type")
+	List<RecordTypeAggregate> aggregateByBabyIdAndHappenedAtBetween(@Param("babyId") Long babyId, @Param("start") OffsetDateTime start, @Param("end") OffsetDateTime end);
+	
+	@Query("SELECT r.type AS type, COUNT(r) AS count, SUM(r.amountMl) AS totalAmount, SUM(r.durationMin) AS totalDuration FROM Record r WHERE r.familyId = :familyId AND r.happenedAt BETWEEN :start AND :end GROUP BY r.type")
+	List<RecordTypeAggregate> aggregateByFamilyIdAndHappenedAtBetween(@Param("familyId") Long familyId, @Param("start") OffsetDateTime start, @Param("end") OffsetDateTime end);
+	
+	// 新增：左闭右开区间的分组聚合，用于与每日汇总拼接时的首尾不完整日期
+	@Query("SELECT r.type AS type, COUNT(r) AS count, SUM(r.amountMl) AS totalAmount, SUM(r.durationMin) AS totalDuration FROM Record r WHERE r.babyId = :babyId AND r.happenedAt >= :start AND r.happenedAt < :end GROUP BY r.type")
+	List<RecordTypeAggregate> aggregateByBabyIdAndHappenedAtFrom(@Param("babyId") Long babyId, @Param("start") OffsetDateTime start, @Param("end") OffsetDateTime end);
+	
+	// 新增：家庭看板按宝宝分组的聚合，用于与每日汇总拼接时的首尾不完整日期
+	@Query("SELECT r.babyId AS babyId, r.type AS type, COUNT(r) AS count, SUM(r.amountMl) AS totalAmount, SUM(r.durationMin) AS totalDuration FROM Record r WHERE r.familyId = :familyId AND r.happenedAt BETWEEN :start AND :end GROUP BY r.babyId, r.type")
+	List<BabyTypeAggregate> aggregateBabiesByFamilyIdAndHappenedAtBetween(@Param("familyId") Long familyId, @Param("start") OffsetDateTime start, @Param("end") OffsetDateTime end);
+	
+	@Query("SELECT r.babyId AS babyId, r.type AS type, COUNT(r) AS count, SUM(r.amountMl) AS totalAmount, SUM(r.durationMin) AS totalDuration FROM Record r WHERE r.familyId = :familyId AND r.happenedAt >= :start AND r.happenedAt < :end GROUP BY r.babyId, r.type")
+	List<BabyTypeAggregate> aggregateBabiesByFamilyIdAndHappenedAtFrom(@Param("familyId") Long familyId, @Param("start") OffsetDateTime start, @Param("end") OffsetDateTime end);
+	
+	// 新增：每日汇总重建使用的轻量查询，只读取统计需要的列
+	@Query("SELECT r.familyId, r.type, r.happenedAt, r.amountMl, r.durationMin FROM Record r WHERE r.babyId = :babyId")
+	List<Object[]> findStatColumnsByBabyId(@Param("babyId") Long babyId);
+	
+	// 新增：每种类型的最新一条记录，沿 (baby_id, type, happened_at DESC, id DESC) 索引顺序取每组第一行
+	@Query(value = "SELECT DISTINCT ON (r.type) r.* FROM app.records r WHERE r.baby_id = :babyId ORDER BY r.type, r.happened_at DESC, r.id DESC", nativeQuery = true)
+	List<Record> findLatestPerTypeByBabyId(@Param("babyId") Long babyId);
+	
+	// 新增：增量同步，按 (version, id) 键集分页读取某个版本之后写入的记录
+	@Query("SELECT r FROM Record r WHERE r.babyId = :babyId AND (r.version > :version OR (r.version = :version AND r.id > :id)) ORDER BY r.version ASC, r.id ASC")
+	List<Record> findChangesByBabyId(@Param("babyId") Long babyId, @Param("version") Long version, @Param("id") Long id, Limit limit);
+	
+	// 新增：导入结束时把以占位版本插入的记录改为递增后的数据版本，沿 (baby_id, version, id) 索引定位
+	@Modifying
+	@Query(value = "UPDATE app.records SET version = :version WHERE baby_id = :babyId AND version = :from", nativeQuery = true)
+	int updateVersionByBabyId(@Param("babyId") Long babyId, @Param("from") Long from, @Param("version") Long version);
 }
@@ -0,0 +1,21 @@
+package com.yuyingbao.app.repository;
+
+import com.yuyingbao.app.model.entity.RecordTombstone;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+public interface RecordTombstoneRepository extends JpaRepository<RecordTombstone, Long> {
+	@Query("SELECT t FROM RecordTombstone t WHERE t.babyId = :babyId " +
+			"AND (t.version > :version OR (t.version = :version AND t.recordId > :recordId)) ORDER BY t.version ASC, t.recordId ASC")
+	List<RecordTombstone> findChangesByBabyId(@Param("babyId") Long babyId, @Param("version") Long version, @Param("recordId") Long recordId, Limit limit);
+
+	@Modifying
+	@Query("DELETE FROM RecordTombstone t WHERE t.deletedAt < :before")
+	int deleteByDeletedAtBefore(@Param("before") OffsetDateTime before);
+}
@@ -0,0 +1,39 @@
+package com.yuyingbao.app.repository;
+
+import com.yuyingbao.app.dto.RecordCursor;
+import com.yuyingbao.app.dto.RecordView;
+import com.yuyingbao.app.model.enums.RecordType;
+import com.yuyingbao.app.repository.projection.RecordProjection;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * 按列投影读取记录时间线，只查询调用方选中的列
+ * 筛选条件与 RecordRepository 的列表/分页查询一致：start 与 end 同时给出时才按时间和类型筛选
+ */
+public interface RecordViewRepository {
+	/**
+	 * @param cursor 分页游标，为空时不分页
+	 * @param limit 最多返回的条数，为空时不限制
+	 */
+	List<RecordView> findViewsByBabyId(Long babyId, OffsetDateTime start, OffsetDateTime end, RecordType type,
+									   RecordCursor cursor, Integer limit, RecordProjection projection);
+
+	/**
+	 * @param cursor 分页游标，为空时不分页
+	 * @param limit 最多返回的条数，为空时不限制
+	 */
+	List<RecordView> findViewsByFamilyId(Long familyId, OffsetDateTime start, OffsetDateTime end, RecordType type,
+										 RecordCursor cursor, Integer limit, RecordProjection projection);
+
+	/**
+	 * 按 (happenedAt, id) 正序逐行读取宝宝的全部记录，用于导出
+	 * 驱动按 fetchSize 分批从服务端游标取行，结果是标量列不进入持久化上下文，内存占用与记录总数无关；
+	 * 调用方必须在事务内消费并关闭返回的流
+	 * @param fetchSize 每批从数据库读取的行数
+	 * @return 按 projection 列顺序排列的行
+	 */
+	Stream<Object[]> streamRowsByBabyId(Long babyId, RecordProjection projection, int fetchSize);
+}
@@ -0,0 +1,81 @@
+package com.yuyingbao.app.repository;
+
+import com.yuyingbao.app.dto.RecordCursor;
+import com.yuyingbao.app.dto.RecordView;
+import com.yuyingbao.app.model.enums.RecordType;
+import com.yuyingbao.app.repository.projection.RecordProjection;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.jpa.AvailableHints;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * RecordViewRepository 的实现：按投影拼出 JPQL 选择列表，结果不经过实体加载
+ * 选择列只能来自 RecordField 白名单，其余条件全部使用绑定参数
+ */
+class RecordViewRepositoryImpl implements RecordViewRepository {
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	@Override
+	public List<RecordView> findViewsByBabyId(Long babyId, OffsetDateTime start, OffsetDateTime end, RecordType type,
+											  RecordCursor cursor, Integer limit, RecordProjection projection) {
+		return findViews("babyId", babyId, start, end, type, cursor, limit, projection);
+	}
+
+	@Override
+	public List<RecordView> findViewsByFamilyId(Long familyId, OffsetDateTime start, OffsetDateTime end, RecordType type,
+												RecordCursor cursor, Integer limit, RecordProjection projection) {
+		return findViews("familyId", familyId, start, end, type, cursor, limit, projection);
+	}
+
+	@Override
+	public Stream<Object[]> streamRowsByBabyId(Long babyId, RecordProjection projection, int fetchSize) {
+		String jpql = "SELECT " + projection.selectClause("r")
+				+ " FROM Record r WHERE r.babyId = :babyId ORDER BY r.happenedAt ASC, r.id ASC";
+		return entityManager.createQuery(jpql, Object[].class)
+				.setParameter("babyId", babyId)
+				.setHint(AvailableHints.HINT_FETCH_SIZE, fetchSize)
+				.getResultStream();
+	}
+
+	private List<RecordView> findViews(String owner, Long ownerId, OffsetDateTime start, OffsetDateTime end, RecordType type,
+									   RecordCursor cursor, Integer limit, RecordProjection projection) {
+		boolean range = start != null && end != null;
+		boolean byType = range && type != null;
+
+		StringBuilder jpql = new StringBuilder("SELECT ")
+				.append(projection.selectClause("r"))
+				.append(" FROM Record r WHERE r.").append(owner).append(" = :ownerId");
+		if (range) {
+			jpql.append(" AND r.happenedAt BETWEEN :start AND :end");
+		}
+		if (byType) {
+			jpql.append(" AND r.type = :type");
+		}
+		if (cursor != null) {
+			jpql.append(" AND (r.happenedAt < :cursorAt OR (r.happenedAt = :cursorAt AND r.id < :cursorId))");
+		}
+		jpql.append(" ORDER BY r.happenedAt DESC, r.id DESC");
+
+		TypedQuery<Object[]> query = entityManager.createQuery(jpql.toString(), Object[].class)
+				.setParameter("ownerId", ownerId);
+		if (range) {
+			query.setParameter("start", start).setParameter("end", end);
+		}
+		if (byType) {
+			query.setParameter("type", type);
+		}
+		if (cursor != null) {
+			query.setParameter("cursorAt", cursor.getHappenedAt()).setParameter("cursorId", cursor.getId());
+		}
+		if (limit != null) {
+			query.setMaxResults(limit);
+		}
+		return query.getResultList().stream().map(projection::toView).toList();
+	}
+}
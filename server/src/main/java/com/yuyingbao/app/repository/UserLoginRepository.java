@@ -0,0 +1,36 @@
+package com.yuyingbao.app.repository;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+/**
+ * 批量写入用户的登录信息，用于登录信息的延迟写入
+ * 不经过持久化上下文，以 JDBC batch 发送 UPDATE
+ */
+public interface UserLoginRepository {
+	/**
+	 * 更新一批用户的最后登录时间与设备信息，设备字段为 null 时保留原值
+	 * @param logins 每个用户最多一条
+	 */
+	void updateLoginInfo(List<LoginInfo> logins);
+
+	/**
+	 * 一个用户待写入的登录信息
+	 */
+	record LoginInfo(Long userId, OffsetDateTime lastLoginAt, String deviceId, String deviceBrand,
+					 String deviceModel, String systemVersion, String wechatVersion) {
+
+		/**
+		 * 合并同一用户更早的登录信息：登录时间取较晚的，设备字段优先使用本次的非空值
+		 */
+		public LoginInfo mergeOlder(LoginInfo older) {
+			return new LoginInfo(userId,
+					lastLoginAt.isAfter(older.lastLoginAt) ? lastLoginAt : older.lastLoginAt,
+					deviceId != null ? deviceId : older.deviceId,
+					deviceBrand != null ? deviceBrand : older.deviceBrand,
+					deviceModel != null ? deviceModel : older.deviceModel,
+					systemVersion != null ? systemVersion : older.systemVersion,
+					wechatVersion != null ? wechatVersion : older.wechatVersion);
+		}
+	}
+}
@@ -0,0 +1,48 @@
+package com.yuyingbao.app.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.StatementCreatorUtils;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.List;
+
+/**
+ * UserLoginRepository 的实现：用 JdbcTemplate 批量更新
+ */
+class UserLoginRepositoryImpl implements UserLoginRepository {
+	private static final String UPDATE_SQL = "UPDATE app.users SET last_login_at = ?, "
+			+ "device_id = COALESCE(?, device_id), device_brand = COALESCE(?, device_brand), "
+			+ "device_model = COALESCE(?, device_model), system_version = COALESCE(?, system_version), "
+			+ "wechat_version = COALESCE(?, wechat_version) WHERE id = ?";
+
+	private final JdbcTemplate jdbcTemplate;
+
+	UserLoginRepositoryImpl(JdbcTemplate jdbcTemplate) {
+		this.jdbcTemplate = jdbcTemplate;
+	}
+
+	@Override
+	public void updateLoginInfo(List<LoginInfo> logins) {
+		if (logins.isEmpty()) {
+			return;
+		}
+		jdbcTemplate.batchUpdate(UPDATE_SQL, logins, logins.size(), UserLoginRepositoryImpl::bind);
+	}
+
+	private static void bind(PreparedStatement ps, LoginInfo login) throws SQLException {
+		int i = 1;
+		set(ps, i++, Types.TIMESTAMP_WITH_TIMEZONE, login.lastLoginAt());
+		set(ps, i++, Types.VARCHAR, login.deviceId());
+		set(ps, i++, Types.VARCHAR, login.deviceBrand());
+		set(ps, i++, Types.VARCHAR, login.deviceModel());
+		set(ps, i++, Types.VARCHAR, login.systemVersion());
+		set(ps, i++, Types.VARCHAR, login.wechatVersion());
+		set(ps, i, Types.BIGINT, login.userId());
+	}
+
+	private static void set(PreparedStatement ps, int index, int sqlType, Object value) throws SQLException {
+		StatementCreatorUtils.setParameterValue(ps, index, sqlType, value);
+	}
+}
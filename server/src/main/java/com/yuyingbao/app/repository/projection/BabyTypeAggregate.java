@@ -0,0 +1,8 @@
+package com.yuyingbao.app.repository.projection;
+
+/**
+ * 按宝宝和记录类型分组的聚合结果，用于一次查询家庭内所有宝宝的统计
+ */
+public interface BabyTypeAggregate extends RecordTypeAggregate {
+	Long getBabyId();
+}
@@ -0,0 +1,10 @@
+package com.yuyingbao.app.repository.projection;
+
+import java.time.LocalDate;
+
+/**
+ * 按日期和记录类型分组的聚合结果
+ */
+public interface DailyTypeAggregate extends RecordTypeAggregate {
+	LocalDate getStatDate();
+}
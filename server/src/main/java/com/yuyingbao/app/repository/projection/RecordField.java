@@ -0,0 +1,142 @@
+package com.yuyingbao.app.repository.projection;
+
+import com.yuyingbao.app.dto.RecordView;
+import com.yuyingbao.app.model.enums.DiaperColor;
+import com.yuyingbao.app.model.enums.DiaperTexture;
+import com.yuyingbao.app.model.enums.RecordType;
+import com.yuyingbao.app.model.enums.SolidType;
+
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * 允许通过 fields 参数选择的记录字段
+ * 名称与 Record 实体属性一致，同时作为 JPQL 的选择列，客户端传入的字段名只能来自这里
+ */
+public enum RecordField {
+	ID("id", Long.class, (v, o) -> v.setId((Long) o)),
+	HAPPENED_AT("happenedAt", OffsetDateTime.class, (v, o) -> v.setHappenedAt((OffsetDateTime) o)),
+	TYPE("type", RecordType.class, (v, o) -> v.setType((RecordType) o)),
+	FAMILY_ID("familyId", Long.class, (v, o) -> v.setFamilyId((Long) o)),
+	USER_ID("userId", Long.class, (v, o) -> v.setUserId((Long) o)),
+	BABY_ID("babyId", Long.class, (v, o) -> v.setBabyId((Long) o)),
+	NOTE("note", String.class, (v, o) -> v.setNote((String) o)),
+	AMOUNT_ML("amountMl", Double.class, (v, o) -> v.setAmountMl((Double) o)),
+	DURATION_MIN("durationMin", Integer.class, (v, o) -> v.setDurationMin((Integer) o)),
+	BREASTFEEDING_SIDE("breastfeedingSide", String.class, (v, o) -> v.setBreastfeedingSide((String) o)),
+	SOLID_TYPE("solidType", SolidType.class, (v, o) -> v.setSolidType((SolidType) o)),
+	SOLID_INGREDIENTS("solidIngredients", String.class, (v, o) -> v.setSolidIngredients((String) o)),
+	SOLID_BRAND("solidBrand", String.class, (v, o) -> v.setSolidBrand((String) o)),
+	SOLID_ORIGIN("solidOrigin", String.class, (v, o) -> v.setSolidOrigin((String) o)),
+	DIAPER_TEXTURE("diaperTexture", DiaperTexture.class, (v, o) -> v.setDiaperTexture((DiaperTexture) o)),
+	DIAPER_COLOR("diaperColor", DiaperColor.class, (v, o) -> v.setDiaperColor((DiaperColor) o)),
+	HAS_URINE("hasUrine", Boolean.class, (v, o) -> v.setHasUrine((Boolean) o)),
+	HEIGHT_CM("heightCm", Double.class, (v, o) -> v.setHeightCm((Double) o)),
+	WEIGHT_KG("weightKg", Double.class, (v, o) -> v.setWeightKg((Double) o)),
+	NUTRITION_TYPES("nutritionTypes", String.class, (v, o) -> v.setNutritionTypes((String) o)),
+	VERSION("version", Long.class, (v, o) -> v.setVersion((Long) o)),
+	UPDATED_AT("updatedAt", OffsetDateTime.class, (v, o) -> v.setUpdatedAt((OffsetDateTime) o));
+
+	// 精简视图中所有类型共有的字段
+	public static final Set<RecordField> COMMON = EnumSet.of(ID, HAPPENED_AT, TYPE, NOTE);
+
+	private final String property;
+	private final Class<?> javaType;
+	private final BiConsumer<RecordView, Object> setter;
+
+	RecordField(String property, Class<?> javaType, BiConsumer<RecordView, Object> setter) {
+		this.property = property;
+		this.javaType = javaType;
+		this.setter = setter;
+	}
+
+	public String getProperty() {
+		return property;
+	}
+
+	public void apply(RecordView view, Object value) {
+		setter.accept(view, value);
+	}
+
+	/**
+	 * 把文本解析为本字段的值，格式与导出时写出的一致
+	 * @param text 文本，为空时返回 null
+	 * @return 字段值
+	 * @throws IllegalArgumentException 如果文本不是合法的字段值
+	 */
+	public Object parse(String text) {
+		if (text == null || text.isBlank()) {
+			return null;
+		}
+		String value = text.trim();
+		try {
+			if (javaType == String.class) {
+				return text;
+			}
+			if (javaType == Long.class) {
+				return Long.valueOf(value);
+			}
+			if (javaType == Integer.class) {
+				return Integer.valueOf(value);
+			}
+			if (javaType == Double.class) {
+				return Double.valueOf(value);
+			}
+			if (javaType == Boolean.class) {
+				if (!"true".equalsIgnoreCase(value) && !"false".equalsIgnoreCase(value)) {
+					throw new IllegalArgumentException(property + " 必须为 true 或 false");
+				}
+				return Boolean.valueOf(value);
+			}
+			if (javaType == OffsetDateTime.class) {
+				return OffsetDateTime.parse(value);
+			}
+			return parseEnum(javaType.asSubclass(Enum.class), value);
+		} catch (NumberFormatException | DateTimeParseException e) {
+			throw new IllegalArgumentException(property + " 格式不正确: " + value);
+		}
+	}
+
+	private <E extends Enum<E>> E parseEnum(Class<E> type, String value) {
+		try {
+			return Enum.valueOf(type, value.toUpperCase(Locale.ROOT));
+		} catch (IllegalArgumentException e) {
+			throw new IllegalArgumentException(property + " 不支持的取值: " + value);
+		}
+	}
+
+	/**
+	 * 按属性名查找字段
+	 * @param property 属性名
+	 * @return 字段
+	 * @throws IllegalArgumentException 如果字段不存在
+	 */
+	public static RecordField of(String property) {
+		for (RecordField field : values()) {
+			if (field.property.equals(property)) {
+				return field;
+			}
+		}
+		throw new IllegalArgumentException("不支持的字段: " + property);
+	}
+
+	/**
+	 * 某种记录类型在精简视图中的专属字段
+	 * @param type 记录类型
+	 * @return 专属字段
+	 */
+	public static Set<RecordField> forType(RecordType type) {
+		return switch (type) {
+			case BREASTFEEDING -> EnumSet.of(DURATION_MIN, BREASTFEEDING_SIDE);
+			case BOTTLE, FORMULA, WATER -> EnumSet.of(AMOUNT_ML);
+			case SOLID -> EnumSet.of(SOLID_TYPE, SOLID_INGREDIENTS, SOLID_BRAND, SOLID_ORIGIN);
+			case DIAPER -> EnumSet.of(DIAPER_TEXTURE, DIAPER_COLOR, HAS_URINE);
+			case GROWTH -> EnumSet.of(HEIGHT_CM, WEIGHT_KG);
+			case NUTRITION -> EnumSet.of(NUTRITION_TYPES);
+		};
+	}
+}
@@ -0,0 +1,120 @@
+package com.yuyingbao.app.repository.projection;
+
+import com.yuyingbao.app.dto.RecordView;
+import com.yuyingbao.app.model.enums.RecordType;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * 记录列表的列投影
+ * 由 fields 参数解析得到：逗号分隔的属性名，或 slim 表示按记录类型选择字段的精简视图（两者可以混用）。
+ * id 与 happenedAt 始终返回，用于排序和生成分页游标
+ */
+public final class RecordProjection {
+	public static final String SLIM = "slim";
+
+	// 查询时选择的列，EnumSet 的迭代顺序就是 SELECT 子句中的列顺序
+	private final Set<RecordField> columns;
+	// 只对部分记录类型有意义的列，查询时用 CASE 按行类型取值，其余行返回 NULL
+	private final Set<RecordField> typeScoped;
+
+	private RecordProjection(Set<RecordField> columns, Set<RecordField> typeScoped) {
+		this.columns = columns;
+		this.typeScoped = typeScoped;
+	}
+
+	/**
+	 * 解析 fields 参数
+	 * @param fields 逗号分隔的字段名
+	 * @param type 类型筛选条件，slim 视图据此只读取该类型的字段；为空时所有类型的字段都由 CASE 按行类型读取
+	 * @return 列投影
+	 * @throws IllegalArgumentException 如果包含不支持的字段
+	 */
+	public static RecordProjection parse(String fields, RecordType type) {
+		Set<RecordField> requested = EnumSet.of(RecordField.ID, RecordField.HAPPENED_AT);
+		boolean slim = false;
+		for (String token : fields.split(",")) {
+			String name = token.trim();
+			if (name.isEmpty()) {
+				continue;
+			}
+			if (SLIM.equals(name)) {
+				slim = true;
+			} else {
+				requested.add(RecordField.of(name));
+			}
+		}
+
+		Set<RecordField> columns = EnumSet.copyOf(requested);
+		Set<RecordField> typeScoped = EnumSet.noneOf(RecordField.class);
+		if (slim) {
+			columns.addAll(RecordField.COMMON);
+			if (type != null) {
+				// 指定了类型时所有行的类型都相同，直接读取该类型的列
+				columns.addAll(RecordField.forType(type));
+			} else {
+				for (RecordType each : RecordType.values()) {
+					typeScoped.addAll(RecordField.forType(each));
+				}
+				typeScoped.removeAll(columns);
+				columns.addAll(typeScoped);
+			}
+		}
+		return new RecordProjection(columns, typeScoped);
+	}
+
+	/**
+	 * 读取全部字段的投影，用于导出
+	 * @return 列投影
+	 */
+	public static RecordProjection all() {
+		return new RecordProjection(EnumSet.allOf(RecordField.class), EnumSet.noneOf(RecordField.class));
+	}
+
+	/**
+	 * 查询时选择的列，顺序与 selectClause 一致
+	 * @return 只读的列集合
+	 */
+	public Set<RecordField> getColumns() {
+		return Collections.unmodifiableSet(columns);
+	}
+
+	/**
+	 * JPQL 选择列表，例如 "r.id, r.happenedAt"
+	 * 未指定类型的 slim 视图中，类型专属的列写成 "CASE WHEN r.type IN (...) THEN r.amountMl END"，
+	 * 由数据库只返回与本行类型相关的值
+	 * @param alias 实体别名
+	 * @return 选择列表
+	 */
+	public String selectClause(String alias) {
+		return columns.stream()
+				.map(field -> typeScoped.contains(field) ? typeScopedColumn(alias, field) : alias + "." + field.getProperty())
+				.collect(Collectors.joining(", "));
+	}
+
+	private static String typeScopedColumn(String alias, RecordField field) {
+		String types = Arrays.stream(RecordType.values())
+				.filter(type -> RecordField.forType(type).contains(field))
+				.map(type -> RecordType.class.getName() + "." + type.name())
+				.collect(Collectors.joining(", "));
+		return "CASE WHEN " + alias + ".type IN (" + types + ") THEN " + alias + "." + field.getProperty() + " END";
+	}
+
+	/**
+	 * 把一行查询结果转换为精简视图
+	 * @param row 按 selectClause 顺序排列的列值
+	 * @return 精简视图
+	 */
+	public RecordView toView(Object[] row) {
+		RecordView view = new RecordView();
+		int i = 0;
+		for (RecordField field : columns) {
+			field.apply(view, row[i++]);
+		}
+		return view;
+	}
+}
@@ -0,0 +1,20 @@
+package com.yuyingbao.app.repository.projection;
+
+import com.yuyingbao.app.model.enums.RecordType;
+
+/**
+ * 按记录类型分组的聚合结果
+ * 由数据库直接计算，避免为统计加载完整的 Record 实体
+ */
+public interface RecordTypeAggregate {
+	RecordType getType();
+
+	// 记录条数
+	long getCount();
+
+	// amountMl 合计，没有数据时为 null
+	Double getTotalAmount();
+
+	// durationMin 合计，没有数据时为 null
+	Long getTotalDuration();
+}
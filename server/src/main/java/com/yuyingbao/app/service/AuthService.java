@@ -1,7 +1,10 @@
 package com.yuyingbao.app.service;
 
+import com.yuyingbao.app.config.JwtConfig;
 import com.yuyingbao.app.dto.WeChatLoginRequest;
 import com.yuyingbao.app.model.entity.User;
+import com.yuyingbao.app.repository.FamilyMemberRepository;
+import com.yuyingbao.app.repository.UserLoginRepository.LoginInfo;
 import com.yuyingbao.app.repository.UserRepository;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
@@ -15,15 +18,26 @@ import java.util.Optional;
 public class AuthService {
 	private final UserRepository userRepository;
 	private final JwtService jwtService;
+	private final JwtConfig jwtConfig;
+	private final FamilyMemberRepository familyMemberRepository;
+	private final MembershipVersions membershipVersions;
+	private final LoginInfoBuffer loginInfoBuffer;
+	private final WeChatAuthClient weChatAuthClient;
 
-	public AuthService(UserRepository userRepository, JwtService jwtService) {
+	public AuthService(UserRepository userRepository, JwtService jwtService, JwtConfig jwtConfig,
+					   FamilyMemberRepository familyMemberRepository, MembershipVersions membershipVersions,
+					   LoginInfoBuffer loginInfoBuffer, WeChatAuthClient weChatAuthClient) {
 		this.userRepository = userRepository;
 		this.jwtService = jwtService;
+		this.jwtConfig = jwtConfig;
+		this.familyMemberRepository = familyMemberRepository;
+		this.membershipVersions = membershipVersions;
+		this.loginInfoBuffer = loginInfoBuffer;
+		this.weChatAuthClient = weChatAuthClient;
 	}
 
 	public String loginWithWeChat(String code, String nickname, String avatarUrl) {
-		// TODO: Exchange code with WeChat server to get openId, here we mock it
-		String openId = "mock-" + code;
+		String openId = resolveOpenId(code);
 		
 		User user = userRepository.findByOpenId(openId).orElseGet(() -> {
 			User u = User.builder()
@@ -50,18 +64,14 @@ public class AuthService {
 			user = userRepository.save(user);
 		}
 
-		Map<String, Object> claims = new HashMap<>();
-		claims.put("nickname", user.getNickname());
-		claims.put("openId", user.getOpenId());
-		return jwtService.generateToken(user.getId(), claims);
+		return jwtService.generateToken(user.getId(), tokenClaims(user));
 	}
 	
 	/**
 	 * 完整的微信登录处理
 	 */
 	public Map<String, Object> loginWithWeChatComplete(WeChatLoginRequest request) {
-		// TODO: 调用微信API获取openId和sessionKey
-		String openId = "mock-" + request.getCode();
+		String openId = resolveOpenId(request.getCode());
 		
 		// 查找或创建用户
 		User user = userRepository.findByOpenId(openId)
@@ -69,11 +79,7 @@ public class AuthService {
 				.orElseGet(() -> createNewUser(openId, request));
 		
 		// 生成JWT Token
-		Map<String, Object> claims = new HashMap<>();
-		claims.put("nickname", user.getNickname());
-		claims.put("openId", user.getOpenId());
-		
-		String token = jwtService.generateToken(user.getId(), claims);
+		String token = jwtService.generateToken(user.getId(), tokenClaims(user));
 		
 		// 返回登录结果
 		Map<String, Object> result = new HashMap<>();
@@ -89,6 +95,34 @@ public class AuthService {
 		return result;
 	}
 	
+	/**
+	 * 用 wx.login 的 code 换取 openId
+	 * 未开启微信登录时使用 "mock-" + code，便于开发与测试
+	 */
+	private String resolveOpenId(String code) {
+		if (!weChatAuthClient.isEnabled()) {
+			return "mock-" + code;
+		}
+		return weChatAuthClient.code2Session(code).openId();
+	}
+	
+	/**
+	 * 令牌声明
+	 * 开启令牌成员关系时附带所属家庭ID与成员关系版本；先读版本再查家庭，
+	 * 查询期间成员关系发生变化时版本已经递增，令牌中的家庭列表不会被采信
+	 */
+	private Map<String, Object> tokenClaims(User user) {
+		Map<String, Object> claims = new HashMap<>();
+		claims.put("nickname", user.getNickname());
+		claims.put("openId", user.getOpenId());
+		if (jwtConfig.isMembershipClaims()) {
+			long version = membershipVersions.current(user.getId());
+			claims.put(JwtService.FAMILY_IDS_CLAIM, familyMemberRepository.findFamilyIdsByUserId(user.getId()));
+			claims.put(JwtService.MEMBERSHIP_VERSION_CLAIM, version);
+		}
+		return claims;
+	}
+	
 	private User createNewUser(String openId, WeChatLoginRequest request) {
 		User user = User.builder()
 				.openId(openId)
@@ -105,6 +139,10 @@ public class AuthService {
 		return userRepository.save(user);
 	}
 	
+	/**
+	 * 更新已有用户的信息
+	 * 昵称、头像变化时立即保存；最后登录时间与设备信息交给 LoginInfoBuffer 延迟批量写入
+	 */
 	private User updateUserInfo(User user, WeChatLoginRequest request) {
 		boolean needUpdate = false;
 		
@@ -120,43 +158,23 @@ public class AuthService {
 			needUpdate = true;
 		}
 		
-		// 更新设备信息
-		if (StringUtils.hasText(request.getDeviceId()) && 
-			!request.getDeviceId().equals(user.getDeviceId())) {
-			user.setDeviceId(request.getDeviceId());
-			needUpdate = true;
-		}
-		
-		if (request.getDeviceInfo() != null) {
-			if (StringUtils.hasText(request.getDeviceInfo().getBrand()) && 
-				!request.getDeviceInfo().getBrand().equals(user.getDeviceBrand())) {
-				user.setDeviceBrand(request.getDeviceInfo().getBrand());
-				needUpdate = true;
-			}
-			
-			if (StringUtils.hasText(request.getDeviceInfo().getModel()) && 
-				!request.getDeviceInfo().getModel().equals(user.getDeviceModel())) {
-				user.setDeviceModel(request.getDeviceInfo().getModel());
-				needUpdate = true;
-			}
-			
-			if (StringUtils.hasText(request.getDeviceInfo().getSystem()) && 
-				!request.getDeviceInfo().getSystem().equals(user.getSystemVersion())) {
-				user.setSystemVersion(request.getDeviceInfo().getSystem());
-				needUpdate = true;
-			}
-			
-			if (StringUtils.hasText(request.getDeviceInfo().getVersion()) && 
-				!request.getDeviceInfo().getVersion().equals(user.getWechatVersion())) {
-				user.setWechatVersion(request.getDeviceInfo().getVersion());
-				needUpdate = true;
-			}
+		if (needUpdate) {
+			user = userRepository.save(user);
 		}
 		
-		// 更新最后登录时间
-		user.setLastLoginAt(OffsetDateTime.now());
-		needUpdate = true;
+		// 最后登录时间与设备信息，未提供的设备字段保留原值
+		WeChatLoginRequest.DeviceInfo deviceInfo = request.getDeviceInfo();
+		loginInfoBuffer.record(new LoginInfo(user.getId(), OffsetDateTime.now(),
+				textOrNull(request.getDeviceId()),
+				deviceInfo != null ? textOrNull(deviceInfo.getBrand()) : null,
+				deviceInfo != null ? textOrNull(deviceInfo.getModel()) : null,
+				deviceInfo != null ? textOrNull(deviceInfo.getSystem()) : null,
+				deviceInfo != null ? textOrNull(deviceInfo.getVersion()) : null));
 		
-		return needUpdate ? userRepository.save(user) : user;
+		return user;
+	}
+	
+	private static String textOrNull(String value) {
+		return StringUtils.hasText(value) ? value : null;
 	}
 }
@@ -0,0 +1,83 @@
+package com.yuyingbao.app.service;
+
+import com.yuyingbao.app.model.entity.Baby;
+import com.yuyingbao.app.repository.BabyDailyStatRepository;
+import com.yuyingbao.app.repository.BabyRepository;
+import com.yuyingbao.app.repository.RecordRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * 每日统计汇总的回填与一致性校验任务
+ * 启动时若汇总表为空而记录表有数据，则为所有宝宝回填汇总；
+ * 每天定时比对汇总与原始记录，发现不一致的宝宝会被重建
+ */
+@Component
+public class BabyDailyStatsJob implements ApplicationRunner {
+	private static final Logger log = LoggerFactory.getLogger(BabyDailyStatsJob.class);
+
+	private final BabyDailyStatsService babyDailyStatsService;
+	private final BabyDailyStatRepository babyDailyStatRepository;
+	private final RecordRepository recordRepository;
+	private final BabyRepository babyRepository;
+	private final StatisticsCache statisticsCache;
+
+	public BabyDailyStatsJob(BabyDailyStatsService babyDailyStatsService, BabyDailyStatRepository babyDailyStatRepository,
+							 RecordRepository recordRepository, BabyRepository babyRepository, StatisticsCache statisticsCache) {
+		this.babyDailyStatsService = babyDailyStatsService;
+		this.babyDailyStatRepository = babyDailyStatRepository;
+		this.recordRepository = recordRepository;
+		this.babyRepository = babyRepository;
+		this.statisticsCache = statisticsCache;
+	}
+
+	@Override
+	public void run(ApplicationArguments args) {
+		if (babyDailyStatRepository.count() == 0 && recordRepository.count() > 0) {
+			log.info("baby_daily_stats is empty, backfilling from records");
+			rebuildAll();
+		}
+	}
+
+	/**
+	 * 为所有宝宝重建汇总，每个宝宝单独一个事务
+	 * @return 重建的宝宝数量
+	 */
+	public int rebuildAll() {
+		List<Baby> babies = babyRepository.findAll();
+		int rows = 0;
+		for (Baby baby : babies) {
+			rows += babyDailyStatsService.rebuildBaby(baby.getId());
+		}
+		statisticsCache.clear();
+		log.info("Rebuilt baby_daily_stats for {} babies ({} rows)", babies.size(), rows);
+		return babies.size();
+	}
+
+	/**
+	 * 校验所有宝宝的汇总，不一致时重建
+	 * @return 被修复的宝宝数量
+	 */
+	@Scheduled(cron = "${app.statistics.rollup.verify-cron:0 30 3 * * *}")
+	public int verifyAndRepair() {
+		int repaired = 0;
+		for (Baby baby : babyRepository.findAll()) {
+			List<String> problems = babyDailyStatsService.findInconsistencies(baby.getId());
+			if (!problems.isEmpty()) {
+				log.warn("baby_daily_stats inconsistent for baby {}: {}", baby.getId(), problems);
+				babyDailyStatsService.rebuildBaby(baby.getId());
+				repaired++;
+			}
+		}
+		if (repaired > 0) {
+			statisticsCache.clear();
+		}
+		return repaired;
+	}
+}
@@ -0,0 +1,229 @@
+package com.yuyingbao.app.service;
+
+import com.yuyingbao.app.model.entity.BabyDailyStat;
+import com.yuyingbao.app.model.entity.Record;
+import com.yuyingbao.app.model.enums.RecordType;
+import com.yuyingbao.app.repository.BabyDailyStatRepository;
+import com.yuyingbao.app.repository.BabyRepository;
+import com.yuyingbao.app.repository.RecordRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * 宝宝每日统计汇总服务
+ * 记录增删改时在同一事务内增量维护 baby_daily_stats，并提供重建与一致性校验
+ */
+@Service
+public class BabyDailyStatsService {
+	// 汇总日期按服务器时区划分，与 StatisticsService 的“今日”保持一致
+	public static final ZoneId ZONE = ZoneId.systemDefault();
+
+	private final BabyDailyStatRepository babyDailyStatRepository;
+	private final RecordRepository recordRepository;
+	private final BabyRepository babyRepository;
+
+	public BabyDailyStatsService(BabyDailyStatRepository babyDailyStatRepository, RecordRepository recordRepository,
+								 BabyRepository babyRepository) {
+		this.babyDailyStatRepository = babyDailyStatRepository;
+		this.recordRepository = recordRepository;
+		this.babyRepository = babyRepository;
+	}
+
+	public static LocalDate toStatDate(OffsetDateTime happenedAt) {
+		return happenedAt.atZoneSameInstant(ZONE).toLocalDate();
+	}
+
+	/**
+	 * 记录新增后累加到汇总
+	 * @param record 已保存的记录
+	 */
+	@Transactional(propagation = Propagation.MANDATORY)
+	public void onRecordAdded(Record record) {
+		applyDelta(record, 1);
+	}
+
+	/**
+	 * 记录删除（或修改前的旧值）从汇总中扣减
+	 * @param record 被删除的记录
+	 */
+	@Transactional(propagation = Propagation.MANDATORY)
+	public void onRecordRemoved(Record record) {
+		applyDelta(record, -1);
+	}
+
+	/**
+	 * 批量新增的记录按 日期+类型 合并后累加到汇总，每个分组只更新一次
+	 * @param records 已保存的记录
+	 */
+	@Transactional(propagation = Propagation.MANDATORY)
+	public void onRecordsAdded(List<Record> records) {
+		Map<BabyDailyStat.Key, BabyDailyStat> deltas = new HashMap<>();
+		for (Record record : records) {
+			accumulate(deltas, record);
+		}
+		applyDeltas(deltas.values());
+	}
+
+	/**
+	 * 把一条新增记录累加到按 日期+类型 合并的增量中，增量个数只与天数和类型数有关
+	 * @param deltas 合并中的增量
+	 * @param record 已保存的记录
+	 */
+	public static void accumulate(Map<BabyDailyStat.Key, BabyDailyStat> deltas, Record record) {
+		BabyDailyStat.Key key = new BabyDailyStat.Key(record.getBabyId(), toStatDate(record.getHappenedAt()),
+				record.getType(), record.getFamilyId());
+		BabyDailyStat delta = deltas.computeIfAbsent(key, k -> BabyDailyStat.builder()
+				.babyId(k.getBabyId())
+				.statDate(k.getStatDate())
+				.type(k.getType())
+				.familyId(k.getFamilyId())
+				.build());
+		delta.setRecordCount(delta.getRecordCount() + 1);
+		if (record.getAmountMl() != null) {
+			delta.setTotalAmount(delta.getTotalAmount() + record.getAmountMl());
+		}
+		if (record.getDurationMin() != null) {
+			delta.setTotalDuration(delta.getTotalDuration() + record.getDurationMin());
+		}
+	}
+
+	/**
+	 * 把合并后的增量累加到汇总，每个分组只更新一次
+	 * @param deltas 由 accumulate 合并的增量
+	 */
+	@Transactional(propagation = Propagation.MANDATORY)
+	public void applyDeltas(Collection<BabyDailyStat> deltas) {
+		for (BabyDailyStat delta : deltas) {
+			applyDelta(delta);
+		}
+	}
+
+	private void applyDelta(Record record, int sign) {
+		applyDelta(BabyDailyStat.builder()
+				.babyId(record.getBabyId())
+				.statDate(toStatDate(record.getHappenedAt()))
+				.type(record.getType())
+				.familyId(record.getFamilyId())
+				.recordCount(sign)
+				.totalAmount(record.getAmountMl() != null ? sign * record.getAmountMl() : 0.0)
+				.totalDuration(record.getDurationMin() != null ? sign * record.getDurationMin() : 0L)
+				.build());
+	}
+
+	private void applyDelta(BabyDailyStat delta) {
+		if (delta.getRecordCount() > 0) {
+			babyDailyStatRepository.addDelta(delta.getBabyId(), delta.getStatDate(), delta.getType(), delta.getFamilyId(),
+					delta.getRecordCount(), delta.getTotalAmount(), delta.getTotalDuration());
+			return;
+		}
+		// 扣减时找不到汇总行说明汇总已经不一致，交由一致性校验修复
+		babyDailyStatRepository.subtractDelta(delta.getBabyId(), delta.getStatDate(), delta.getType().name(), delta.getFamilyId(),
+				delta.getRecordCount(), delta.getTotalAmount(), delta.getTotalDuration());
+	}
+
+	/**
+	 * 根据原始记录重建指定宝宝的全部汇总
+	 * @param babyId 宝宝ID
+	 * @return 重建后的汇总行数
+	 */
+	@Transactional
+	public int rebuildBaby(Long babyId) {
+		// 先递增数据版本锁住宝宝行，与记录写入路径保持"宝宝行 → 汇总行"的加锁顺序，避免互相等待形成死锁；
+		// 同时汇总被修正后统计结果可能变化，递增版本也使客户端的 ETag 失效
+		babyRepository.incrementDataVersion(babyId);
+		babyDailyStatRepository.deleteByBabyId(babyId);
+		List<BabyDailyStat> rows = new ArrayList<>(computeFromRecords(babyId).values());
+		babyDailyStatRepository.saveAll(rows);
+		return rows.size();
+	}
+
+	/**
+	 * 比较指定宝宝的汇总与原始记录
+	 * @param babyId 宝宝ID
+	 * @return 不一致项的描述，为空表示一致
+	 */
+	@Transactional(readOnly = true)
+	public List<String> findInconsistencies(Long babyId) {
+		Map<BabyDailyStat.Key, BabyDailyStat> expected = computeFromRecords(babyId);
+		Map<BabyDailyStat.Key, BabyDailyStat> actual = new HashMap<>();
+		for (BabyDailyStat stat : babyDailyStatRepository.findByBabyId(babyId)) {
+			// 计数为0的行等同于不存在
+			if (stat.getRecordCount() != 0 || stat.getTotalAmount() != 0 || stat.getTotalDuration() != 0) {
+				actual.put(keyOf(stat), stat);
+			}
+		}
+
+		List<String> problems = new ArrayList<>();
+		Set<BabyDailyStat.Key> keys = new HashSet<>(expected.keySet());
+		keys.addAll(actual.keySet());
+		for (BabyDailyStat.Key key : keys) {
+			BabyDailyStat want = expected.get(key);
+			BabyDailyStat got = actual.get(key);
+			if (!sameTotals(want, got)) {
+				problems.add(String.format("baby=%d family=%d date=%s type=%s expected=%s actual=%s",
+						key.getBabyId(), key.getFamilyId(), key.getStatDate(), key.getType(), describe(want), describe(got)));
+			}
+		}
+		return problems;
+	}
+
+	private Map<BabyDailyStat.Key, BabyDailyStat> computeFromRecords(Long babyId) {
+		Map<BabyDailyStat.Key, BabyDailyStat> result = new HashMap<>();
+		for (Object[] row : recordRepository.findStatColumnsByBabyId(babyId)) {
+			Long familyId = (Long) row[0];
+			RecordType type = (RecordType) row[1];
+			LocalDate statDate = toStatDate((OffsetDateTime) row[2]);
+			Double amount = (Double) row[3];
+			Integer duration = (Integer) row[4];
+
+			BabyDailyStat.Key key = new BabyDailyStat.Key(babyId, statDate, type, familyId);
+			BabyDailyStat stat = result.computeIfAbsent(key, k -> BabyDailyStat.builder()
+					.babyId(babyId)
+					.statDate(statDate)
+					.type(type)
+					.familyId(familyId)
+					.build());
+			stat.setRecordCount(stat.getRecordCount() + 1);
+			if (amount != null) {
+				stat.setTotalAmount(stat.getTotalAmount() + amount);
+			}
+			if (duration != null) {
+				stat.setTotalDuration(stat.getTotalDuration() + duration);
+			}
+		}
+		return result;
+	}
+
+	private static BabyDailyStat.Key keyOf(BabyDailyStat stat) {
+		return new BabyDailyStat.Key(stat.getBabyId(), stat.getStatDate(), stat.getType(), stat.getFamilyId());
+	}
+
+	private static boolean sameTotals(BabyDailyStat a, BabyDailyStat b) {
+		if (a == null || b == null) {
+			return Objects.equals(a, b);
+		}
+		return a.getRecordCount() == b.getRecordCount()
+				&& Math.abs(a.getTotalAmount() - b.getTotalAmount()) < 0.001
+				&& a.getTotalDuration() == b.getTotalDuration();
+	}
+
+	private static String describe(BabyDailyStat stat) {
+		if (stat == null) {
+			return "none";
+		}
+		return "(count=" + stat.getRecordCount() + ", amount=" + stat.getTotalAmount() + ", duration=" + stat.getTotalDuration() + ")";
+	}
+}
@@ -11,9 +11,11 @@ import java.util.List;
 @Service
 public class BabyService {
 	private final BabyRepository babyRepository;
+	private final PermissionCache permissionCache;
 
-	public BabyService(BabyRepository babyRepository) {
+	public BabyService(BabyRepository babyRepository, PermissionCache permissionCache) {
 		this.babyRepository = babyRepository;
+		this.permissionCache = permissionCache;
 	}
 
 	public Baby createBaby(Long familyId, UpsertBabyRequest req) {
@@ -27,7 +29,9 @@ public class BabyService {
 				.birthWeightKg(req.getBirthWeightKg())
 				.createdAt(OffsetDateTime.now())
 				.build();
-		return babyRepository.save(baby);
+		baby = babyRepository.save(baby);
+		permissionCache.evictBaby(baby.getId());
+		return baby;
 	}
 
 	public List<Baby> listBabies(Long familyId) {
@@ -49,6 +53,21 @@ public class BabyService {
 				.orElseThrow(() -> new RuntimeException("Baby not found with id: " + babyId));
 	}
 
+	/**
+	 * 获取宝宝当前的数据版本，记录的每次写入都会使其递增
+	 * 只查询一列，可用于生成 ETag 并同时确认宝宝存在
+	 * @param babyId 宝宝ID
+	 * @return 数据版本
+	 * @throws RuntimeException 如果宝宝不存在
+	 */
+	public long getDataVersion(Long babyId) {
+		Long version = babyRepository.findDataVersionById(babyId);
+		if (version == null) {
+			throw new RuntimeException("Baby not found with id: " + babyId);
+		}
+		return version;
+	}
+
 	public Baby updateBaby(Long familyId, Long babyId, UpsertBabyRequest req) {
 		Baby baby = babyRepository.findByIdAndFamilyId(babyId, familyId)
 				.orElseThrow(() -> new IllegalArgumentException("宝宝不存在"));
@@ -74,5 +93,6 @@ public class BabyService {
 				.orElseThrow(() -> new IllegalArgumentException("宝宝不存在或无权限删除"));
 		
 		babyRepository.delete(baby);
+		permissionCache.evictBaby(babyId);
 	}
 }
@@ -0,0 +1,56 @@
+package com.yuyingbao.app.service;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 按连续失败次数熔断
+ * 连续失败达到阈值后进入熔断，熔断期间拒绝所有请求；熔断时间过后只放行一个试探请求，
+ * 试探成功则恢复，失败则重新熔断
+ */
+final class CircuitBreaker {
+	private static final long CLOSED = 0;
+	private static final long HALF_OPEN = -1;
+
+	private final int failureThreshold;
+	private final long openDurationNanos;
+	private final AtomicInteger consecutiveFailures = new AtomicInteger();
+	// CLOSED、HALF_OPEN，或熔断结束的时刻（System.nanoTime）
+	private final AtomicLong state = new AtomicLong(CLOSED);
+
+	CircuitBreaker(int failureThreshold, long openDurationNanos) {
+		this.failureThreshold = failureThreshold;
+		this.openDurationNanos = openDurationNanos;
+	}
+
+	/**
+	 * 是否放行本次请求，放行后必须调用 onSuccess 或 onFailure
+	 */
+	boolean tryAcquire() {
+		long current = state.get();
+		if (current == CLOSED) {
+			return true;
+		}
+		if (current == HALF_OPEN || System.nanoTime() - current < 0) {
+			return false;
+		}
+		return state.compareAndSet(current, HALF_OPEN);
+	}
+
+	void onSuccess() {
+		consecutiveFailures.set(0);
+		state.set(CLOSED);
+	}
+
+	void onFailure() {
+		if (state.get() == HALF_OPEN || consecutiveFailures.incrementAndGet() >= failureThreshold) {
+			state.set(openUntil());
+		}
+	}
+
+	private long openUntil() {
+		long until = System.nanoTime() + openDurationNanos;
+		// 避开两个保留值
+		return until == CLOSED || until == HALF_OPEN ? until + 1 : until;
+	}
+}
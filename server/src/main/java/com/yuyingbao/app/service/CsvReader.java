@@ -0,0 +1,123 @@
+package com.yuyingbao.app.service;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 逐条读取 CSV（RFC 4180）
+ * 字段可以用双引号包裹，引号内允许逗号、换行和转义的双引号（""）；行尾可以是 \r\n 或 \n。
+ * 每次只在内存中保留当前一行
+ */
+final class CsvReader {
+	// UTF-8 BOM，导出的 CSV 以它开头
+	private static final int BOM = '\uFEFF';
+	// 单个字段的长度上限，超过时说明文件格式有误（例如引号没有闭合），不再继续读取
+	static final int MAX_FIELD_LENGTH = 10_000;
+
+	private final Reader reader;
+	private final StringBuilder field = new StringBuilder();
+	private int peeked = -2;
+	private int line = 1;
+	private int recordLine;
+
+	CsvReader(Reader reader) {
+		this.reader = reader;
+	}
+
+	/**
+	 * 读取下一条记录
+	 * @return 字段列表，到达末尾时返回 null
+	 * @throws IllegalArgumentException 如果引号没有闭合
+	 */
+	List<String> next() throws IOException {
+		int c = read();
+		if (recordLine == 0 && c == BOM) {
+			c = read();
+		}
+		// 跳过空行
+		while (c == '\r' || c == '\n') {
+			endLine(c);
+			c = read();
+		}
+		if (c == -1) {
+			return null;
+		}
+		recordLine = line;
+		List<String> fields = new ArrayList<>();
+		field.setLength(0);
+		boolean quoted = false;
+		while (true) {
+			if (quoted) {
+				if (c == -1) {
+					throw new IllegalArgumentException("第" + recordLine + "行的引号没有闭合");
+				}
+				if (c == '"') {
+					if (peek() == '"') {
+						read();
+						field.append('"');
+					} else {
+						quoted = false;
+					}
+				} else {
+					if (c == '\n') {
+						line++;
+					}
+					append(c);
+				}
+			} else if (c == '"' && field.isEmpty()) {
+				quoted = true;
+			} else if (c == ',') {
+				fields.add(field.toString());
+				field.setLength(0);
+			} else if (c == '\r' || c == '\n' || c == -1) {
+				fields.add(field.toString());
+				if (c != -1) {
+					endLine(c);
+				}
+				return fields;
+			} else {
+				append(c);
+			}
+			c = read();
+		}
+	}
+
+	/**
+	 * 最近一次 next() 返回的记录在文件中的起始行号（从1开始）
+	 */
+	int getLine() {
+		return recordLine;
+	}
+
+	private void append(int c) {
+		if (field.length() >= MAX_FIELD_LENGTH) {
+			throw new IllegalArgumentException("第" + recordLine + "行的字段超过" + MAX_FIELD_LENGTH + "个字符");
+		}
+		field.append((char) c);
+	}
+
+	private void endLine(int c) throws IOException {
+		if (c == '\r' && peek() == '\n') {
+			read();
+		}
+		line++;
+	}
+
+	private int read() throws IOException {
+		if (peeked != -2) {
+			int c = peeked;
+			peeked = -2;
+			return c;
+		}
+		return reader.read();
+	}
+
+	private int peek() throws IOException {
+		if (peeked == -2) {
+			peeked = reader.read();
+		}
+		return peeked;
+	}
+}
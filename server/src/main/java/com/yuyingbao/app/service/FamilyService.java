@@ -19,11 +19,16 @@ public class FamilyService {
 	private final FamilyRepository familyRepository;
 	private final FamilyMemberRepository familyMemberRepository;
 	private final UserRepository userRepository;
+	private final PermissionCache permissionCache;
+	private final MembershipVersions membershipVersions;
 
-	public FamilyService(FamilyRepository familyRepository, FamilyMemberRepository familyMemberRepository, UserRepository userRepository) {
+	public FamilyService(FamilyRepository familyRepository, FamilyMemberRepository familyMemberRepository, UserRepository userRepository,
+						 PermissionCache permissionCache, MembershipVersions membershipVersions) {
 		this.familyRepository = familyRepository;
 		this.familyMemberRepository = familyMemberRepository;
 		this.userRepository = userRepository;
+		this.permissionCache = permissionCache;
+		this.membershipVersions = membershipVersions;
 	}
 
 	public Family createFamily(Long creatorUserId) {
@@ -48,6 +53,7 @@ public class FamilyService {
 				.joinedAt(OffsetDateTime.now())
 				.build();
 		familyMemberRepository.save(fm);
+		onMembershipChanged(creatorUserId);
 		return family;
 	}
 
@@ -64,6 +70,7 @@ public class FamilyService {
 				.joinedAt(OffsetDateTime.now())
 				.build();
 		familyMemberRepository.save(fm);
+		onMembershipChanged(userId);
 		return family;
 	}
 
@@ -92,7 +99,17 @@ public class FamilyService {
 
 		// 更新成员角色
 		familyMember.setMemberRole(memberRole);
-		return familyMemberRepository.save(familyMember);
+		FamilyMember saved = familyMemberRepository.save(familyMember);
+		onMembershipChanged(saved.getUserId());
+		return saved;
+	}
+
+	/**
+	 * 成员关系变化后失效权限缓存，并使该用户之前签发的令牌中的家庭列表失效
+	 */
+	private void onMembershipChanged(Long userId) {
+		permissionCache.evictUser(userId);
+		membershipVersions.bump(userId);
 	}
 
 	/**
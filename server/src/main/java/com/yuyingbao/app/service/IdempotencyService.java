@@ -0,0 +1,203 @@
+package com.yuyingbao.app.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.yuyingbao.app.model.entity.IdempotencyKey;
+import com.yuyingbao.app.repository.IdempotencyKeyRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * 写接口幂等处理
+ * 客户端在重试时携带相同的 Idempotency-Key，首次成功的响应会被保存，之后的重试直接返回该响应而不再执行业务逻辑。
+ * 最近使用的键保存在有上限、会过期的本地缓存中，数据库表作为持久化与多实例共享的后备；
+ * 键与业务写入在同一事务内提交，并发的重复请求最多只有一个能写入成功
+ */
+@Service
+public class IdempotencyService {
+	public static final String HEADER = "Idempotency-Key";
+	public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+	public static final int MAX_KEY_LENGTH = 128;
+
+	private static final Logger log = LoggerFactory.getLogger(IdempotencyService.class);
+
+	private final IdempotencyKeyRepository idempotencyKeyRepository;
+	private final TransactionTemplate transactionTemplate;
+	private final ObjectMapper objectMapper;
+	private final Duration ttl;
+	private final Cache<IdempotencyKey.Key, IdempotencyKey> cache;
+	// 本实例内正在处理的键，用于拒绝同时到达的重复请求
+	private final Set<IdempotencyKey.Key> inFlight = ConcurrentHashMap.newKeySet();
+
+	public IdempotencyService(IdempotencyKeyRepository idempotencyKeyRepository, PlatformTransactionManager transactionManager,
+							  ObjectMapper objectMapper,
+							  @Value("${app.idempotency.ttl-hours:24}") long ttlHours,
+							  @Value("${app.idempotency.max-cached-keys:10000}") long maxCachedKeys) {
+		this.idempotencyKeyRepository = idempotencyKeyRepository;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.objectMapper = objectMapper;
+		this.ttl = Duration.ofHours(ttlHours);
+		this.cache = Caffeine.newBuilder()
+				.maximumSize(maxCachedKeys)
+				.expireAfterWrite(ttl)
+				.build();
+	}
+
+	/**
+	 * 以幂等方式执行写操作
+	 * @param userId 当前用户ID，幂等键按用户隔离
+	 * @param key 客户端提供的幂等键，为空时直接执行
+	 * @param method HTTP 方法
+	 * @param path 请求路径
+	 * @param requestBody 请求体，参与请求指纹计算，可以为空
+	 * @param bodyType 响应体类型，用于还原保存的响应
+	 * @param action 实际的写操作，会在一个事务内执行
+	 * @return 首次执行或重放的响应
+	 */
+	public <T> ResponseEntity<T> execute(Long userId, String key, String method, String path, Object requestBody,
+										 Class<T> bodyType, Supplier<ResponseEntity<T>> action) {
+		if (key == null || key.isBlank()) {
+			return action.get();
+		}
+		if (key.length() > MAX_KEY_LENGTH) {
+			throw new IllegalArgumentException("Idempotency-Key 长度不能超过" + MAX_KEY_LENGTH);
+		}
+
+		IdempotencyKey.Key id = new IdempotencyKey.Key(userId, key);
+		String fingerprint = fingerprint(method, path, requestBody);
+
+		IdempotencyKey stored = lookup(id);
+		if (stored != null) {
+			return replay(stored, fingerprint, bodyType);
+		}
+
+		if (!inFlight.add(id)) {
+			throw new ResponseStatusException(HttpStatus.CONFLICT, "相同 Idempotency-Key 的请求正在处理中");
+		}
+		try {
+			IdempotencyKey[] saved = new IdempotencyKey[1];
+			ResponseEntity<T> response = transactionTemplate.execute(status -> {
+				ResponseEntity<T> result = action.get();
+				// 只保存成功的响应，失败的请求允许客户端用同一个键重试
+				if (result.getStatusCode().is2xxSuccessful()) {
+					saved[0] = IdempotencyKey.builder()
+							.userId(userId)
+							.idempotencyKey(key)
+							.fingerprint(fingerprint)
+							.statusCode(result.getStatusCode().value())
+							.responseBody(result.getBody() != null ? toJson(result.getBody()) : null)
+							.createdAt(OffsetDateTime.now())
+							.build();
+					// 过期但尚未被定期清理的旧行会与新行主键冲突，先在本事务内删除
+					idempotencyKeyRepository.deleteExpired(userId, key, saved[0].getCreatedAt().minus(ttl));
+					idempotencyKeyRepository.insert(userId, key, fingerprint, saved[0].getStatusCode(),
+							saved[0].getResponseBody(), saved[0].getCreatedAt());
+				}
+				return result;
+			});
+			if (saved[0] != null) {
+				cache.put(id, saved[0]);
+			}
+			return response;
+		} catch (DataIntegrityViolationException e) {
+			// 其他实例已经用这个键提交了写入，本次事务已回滚，返回对方的结果
+			IdempotencyKey winner = findUnexpired(id).orElseThrow(() -> e);
+			cache.put(id, winner);
+			return replay(winner, fingerprint, bodyType);
+		} finally {
+			inFlight.remove(id);
+		}
+	}
+
+	/**
+	 * 定期清理过期的幂等键
+	 * @return 删除的行数
+	 */
+	@Scheduled(fixedDelayString = "${app.idempotency.purge-interval-ms:3600000}")
+	public int purgeExpired() {
+		OffsetDateTime before = OffsetDateTime.now().minus(ttl);
+		Integer deleted = transactionTemplate.execute(status -> idempotencyKeyRepository.deleteByCreatedAtBefore(before));
+		if (deleted != null && deleted > 0) {
+			log.info("Purged {} expired idempotency keys", deleted);
+		}
+		return deleted != null ? deleted : 0;
+	}
+
+	private IdempotencyKey lookup(IdempotencyKey.Key id) {
+		IdempotencyKey stored = cache.getIfPresent(id);
+		if (stored != null) {
+			return stored;
+		}
+		stored = findUnexpired(id).orElse(null);
+		if (stored != null) {
+			cache.put(id, stored);
+		}
+		return stored;
+	}
+
+	private Optional<IdempotencyKey> findUnexpired(IdempotencyKey.Key id) {
+		OffsetDateTime expiredBefore = OffsetDateTime.now().minus(ttl);
+		return idempotencyKeyRepository.findById(id)
+				.filter(k -> k.getCreatedAt().isAfter(expiredBefore));
+	}
+
+	private <T> ResponseEntity<T> replay(IdempotencyKey stored, String fingerprint, Class<T> bodyType) {
+		if (!stored.getFingerprint().equals(fingerprint)) {
+			throw new IllegalArgumentException("Idempotency-Key 已用于其他请求");
+		}
+		T body = null;
+		if (stored.getResponseBody() != null && bodyType != Void.class) {
+			try {
+				body = objectMapper.readValue(stored.getResponseBody(), bodyType);
+			} catch (JsonProcessingException e) {
+				throw new RuntimeException("无法还原幂等响应", e);
+			}
+		}
+		return ResponseEntity.status(stored.getStatusCode())
+				.header(REPLAYED_HEADER, "true")
+				.body(body);
+	}
+
+	private String fingerprint(String method, String path, Object requestBody) {
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			digest.update((method + " " + path + "\n").getBytes(StandardCharsets.UTF_8));
+			if (requestBody != null) {
+				digest.update(objectMapper.writeValueAsBytes(requestBody));
+			}
+			return HexFormat.of().formatHex(digest.digest());
+		} catch (NoSuchAlgorithmException | JsonProcessingException e) {
+			throw new RuntimeException("无法计算请求指纹", e);
+		}
+	}
+
+	private String toJson(Object body) {
+		try {
+			return objectMapper.writeValueAsString(body);
+		} catch (JsonProcessingException e) {
+			throw new RuntimeException("无法保存幂等响应", e);
+		}
+	}
+}
@@ -1,7 +1,11 @@
 package com.yuyingbao.app.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import com.yuyingbao.app.config.JwtConfig;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
@@ -11,15 +15,27 @@ import java.security.Key;
 import java.time.OffsetDateTime;
 import java.util.Date;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class JwtService {
+	// 开启令牌成员关系时携带的声明：所属家庭ID列表与成员关系版本
+	public static final String FAMILY_IDS_CLAIM = "fam";
+	public static final String MEMBERSHIP_VERSION_CLAIM = "mv";
+
 	private final JwtConfig jwtConfig;
 	private final Key key;
+	private final JwtParser parser;
+	// 已通过签名校验的令牌 -> 声明，条目在令牌过期时失效；未开启时为 null
+	private final Cache<String, Claims> verifiedTokens;
 
 	public JwtService(JwtConfig jwtConfig) {
 		this.jwtConfig = jwtConfig;
 		this.key = Keys.hmacShaKeyFor(jwtConfig.getSecret().getBytes());
+		this.parser = Jwts.parserBuilder().setSigningKey(key).build();
+		this.verifiedTokens = jwtConfig.getTokenCacheSize() > 0
+				? Caffeine.newBuilder().maximumSize(jwtConfig.getTokenCacheSize()).expireAfter(new UntilExpiration()).build()
+				: null;
 	}
 
 	public String generateToken(Long userId, Map<String, Object> claims) {
@@ -35,7 +51,43 @@ public class JwtService {
 				.compact();
 	}
 
+	/**
+	 * 校验并解析令牌，签名错误或已过期时抛出 JwtException
+	 * 同一个令牌校验通过后缓存到过期为止，之后的请求不再重复计算签名；返回的声明为共享实例，不应修改
+	 */
 	public Claims parseToken(String token) {
-		return Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token).getBody();
+		if (verifiedTokens == null) {
+			return parser.parseClaimsJws(token).getBody();
+		}
+		Claims claims = verifiedTokens.getIfPresent(token);
+		if (claims == null) {
+			claims = parser.parseClaimsJws(token).getBody();
+			// 没有过期时间的令牌不缓存
+			if (claims.getExpiration() != null) {
+				verifiedTokens.put(token, claims);
+			}
+		}
+		return claims;
+	}
+
+	/**
+	 * 缓存条目在令牌的 exp 时刻失效
+	 */
+	private static final class UntilExpiration implements Expiry<String, Claims> {
+		@Override
+		public long expireAfterCreate(String token, Claims claims, long currentTime) {
+			long remainingMillis = claims.getExpiration().getTime() - System.currentTimeMillis();
+			return TimeUnit.MILLISECONDS.toNanos(Math.max(remainingMillis, 0));
+		}
+
+		@Override
+		public long expireAfterUpdate(String token, Claims claims, long currentTime, long currentDuration) {
+			return expireAfterCreate(token, claims, currentTime);
+		}
+
+		@Override
+		public long expireAfterRead(String token, Claims claims, long currentTime, long currentDuration) {
+			return currentDuration;
+		}
 	}
 }
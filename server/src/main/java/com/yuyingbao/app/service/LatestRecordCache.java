@@ -0,0 +1,146 @@
+package com.yuyingbao.app.service;
+
+import com.yuyingbao.app.config.CacheConfig;
+import com.yuyingbao.app.model.entity.Record;
+import com.yuyingbao.app.model.enums.RecordType;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * 每种类型最新记录的缓存
+ * 按宝宝缓存不可变的 类型 -> 最新记录 映射；新增记录在事务提交后合并进已缓存的映射（写穿），
+ * 修改或删除的记录正好是某类型的最新记录时才失效，下次读取再查询数据库
+ */
+@Component
+public class LatestRecordCache {
+	private final Cache latestRecords;
+
+	public LatestRecordCache(CacheManager cacheManager) {
+		this.latestRecords = cacheManager.getCache(CacheConfig.LATEST_RECORDS);
+	}
+
+	public Map<RecordType, Record> get(Long babyId, Supplier<List<Record>> loader) {
+		return latestRecords.get(babyId, () -> merge(Collections.emptyMap(), loader.get()));
+	}
+
+	/**
+	 * 把新写入的记录合并进缓存
+	 * 事务提交前只失效，提交后才合并，缓存中不会出现未提交的记录；提交前并发读取写回的旧值会在提交后被合并覆盖，
+	 * 事务回滚时再失效一次，清掉本事务内读取时缓存的未提交记录。没有事务时直接合并
+	 * @param babyId 宝宝ID
+	 * @param records 新增或修改后的记录
+	 */
+	public void put(Long babyId, Collection<Record> records) {
+		ConcurrentMap<Object, Object> map = nativeMap();
+		Runnable merge = () -> {
+			if (map != null) {
+				map.computeIfPresent(babyId, (key, cached) -> merge(cast(cached), records));
+			} else {
+				latestRecords.evict(babyId);
+			}
+		};
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			merge.run();
+			return;
+		}
+		latestRecords.evict(babyId);
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCommit() {
+				merge.run();
+			}
+
+			@Override
+			public void afterCompletion(int status) {
+				if (status != STATUS_COMMITTED) {
+					latestRecords.evict(babyId);
+				}
+			}
+		});
+	}
+
+	/**
+	 * 移除修改前或已删除的记录
+	 * 只有它是所属类型当前的最新记录时才失效，立即失效一次，事务结束后再失效一次
+	 * @param record 修改前或已删除的记录
+	 */
+	public void remove(Record record) {
+		// 先取出键，记录对象之后可能被修改
+		Long babyId = record.getBabyId();
+		Long recordId = record.getId();
+		RecordType type = record.getType();
+
+		ConcurrentMap<Object, Object> map = nativeMap();
+		Runnable eviction = () -> {
+			if (map != null) {
+				map.computeIfPresent(babyId, (key, cached) -> {
+					Record latest = cast(cached).get(type);
+					return latest != null && latest.getId().equals(recordId) ? null : cached;
+				});
+			} else {
+				latestRecords.evict(babyId);
+			}
+		};
+		eviction.run();
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCompletion(int status) {
+					eviction.run();
+				}
+			});
+		}
+	}
+
+	/**
+	 * 清空缓存，用于记录被整体重建之后
+	 */
+	public void clear() {
+		latestRecords.clear();
+	}
+
+	/**
+	 * Caffeine 的原生映射，用于按键原子地合并；其他缓存实现返回 null，退化为直接失效
+	 */
+	private ConcurrentMap<Object, Object> nativeMap() {
+		if (latestRecords.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> cache) {
+			@SuppressWarnings("unchecked")
+			ConcurrentMap<Object, Object> map = (ConcurrentMap<Object, Object>) cache.asMap();
+			return map;
+		}
+		return null;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Map<RecordType, Record> cast(Object cached) {
+		return (Map<RecordType, Record>) cached;
+	}
+
+	/**
+	 * 按 (happenedAt, id) 取较新的记录，返回新的不可变映射，已缓存的映射不会被修改
+	 */
+	private static Map<RecordType, Record> merge(Map<RecordType, Record> cached, Collection<Record> records) {
+		EnumMap<RecordType, Record> latest = new EnumMap<>(RecordType.class);
+		latest.putAll(cached);
+		for (Record record : records) {
+			latest.merge(record.getType(), record, (current, candidate) -> isNewer(candidate, current) ? candidate : current);
+		}
+		return Collections.unmodifiableMap(latest);
+	}
+
+	private static boolean isNewer(Record candidate, Record current) {
+		int result = candidate.getHappenedAt().compareTo(current.getHappenedAt());
+		return result != 0 ? result > 0 : candidate.getId() > current.getId();
+	}
+}
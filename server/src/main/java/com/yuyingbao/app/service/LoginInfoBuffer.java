@@ -0,0 +1,100 @@
+package com.yuyingbao.app.service;
+
+import com.yuyingbao.app.repository.UserLoginRepository.LoginInfo;
+import com.yuyingbao.app.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 登录信息的延迟写入
+ * 登录时只在内存中记录最后登录时间与设备信息，同一用户在两次写入之间的多次登录合并为一条；
+ * 定期以批量 UPDATE 写入数据库，应用关闭时写入剩余部分。
+ * 数据库中的 last_login_at 与设备信息因此最多滞后一个写入周期，进程异常退出时会丢失未写入的部分
+ */
+@Component
+public class LoginInfoBuffer {
+	private static final Logger log = LoggerFactory.getLogger(LoginInfoBuffer.class);
+
+	private final UserRepository userRepository;
+	private final TransactionTemplate transactionTemplate;
+	private final int batchSize;
+	private final ConcurrentMap<Long, LoginInfo> pending = new ConcurrentHashMap<>();
+
+	public LoginInfoBuffer(UserRepository userRepository, PlatformTransactionManager transactionManager,
+						   @Value("${app.login.flush-batch-size:500}") int batchSize) {
+		this.userRepository = userRepository;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.batchSize = batchSize;
+	}
+
+	/**
+	 * 记录一次登录，与该用户尚未写入的登录信息合并
+	 */
+	public void record(LoginInfo login) {
+		pending.merge(login.userId(), login, (older, newer) -> newer.mergeOlder(older));
+	}
+
+	/**
+	 * 尚未写入数据库的用户数
+	 */
+	public int pendingCount() {
+		return pending.size();
+	}
+
+	/**
+	 * 写入所有待写入的登录信息，每批一个事务
+	 * 写入失败的批次放回缓冲区，与期间新到的登录信息合并后在下一周期重试
+	 * @return 写入的用户数
+	 */
+	@Scheduled(fixedDelayString = "${app.login.flush-interval-ms:5000}")
+	public int flush() {
+		int flushed = 0;
+		List<LoginInfo> batch = new ArrayList<>(Math.min(batchSize, pending.size()));
+		for (Long userId : pending.keySet()) {
+			LoginInfo login = pending.remove(userId);
+			if (login == null) {
+				continue;
+			}
+			batch.add(login);
+			if (batch.size() == batchSize) {
+				flushed += write(batch);
+				batch = new ArrayList<>(batchSize);
+			}
+		}
+		flushed += write(batch);
+		return flushed;
+	}
+
+	@PreDestroy
+	public void flushOnShutdown() {
+		int flushed = flush();
+		if (flushed > 0) {
+			log.info("Flushed login info for {} users on shutdown", flushed);
+		}
+	}
+
+	private int write(List<LoginInfo> batch) {
+		if (batch.isEmpty()) {
+			return 0;
+		}
+		try {
+			transactionTemplate.executeWithoutResult(status -> userRepository.updateLoginInfo(batch));
+			return batch.size();
+		} catch (RuntimeException e) {
+			log.warn("Failed to write login info for {} users, will retry: {}", batch.size(), e.getMessage());
+			batch.forEach(login -> pending.merge(login.userId(), login, (newer, failed) -> newer.mergeOlder(failed)));
+			return 0;
+		}
+	}
+}
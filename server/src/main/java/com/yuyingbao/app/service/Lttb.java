@@ -0,0 +1,67 @@
+package com.yuyingbao.app.service;
+
+/**
+ * Largest-Triangle-Three-Buckets 降采样
+ * 保留首尾两点，其余点平均分桶，每个桶选出与上一个选中点、下一个桶平均点构成的三角形面积最大的点，
+ * 在点数大幅减少时仍保留曲线的形状和拐点
+ */
+final class Lttb {
+
+	private Lttb() {
+	}
+
+	/**
+	 * 选出保留的点
+	 * @param x 横坐标，升序
+	 * @param y 纵坐标
+	 * @param count 有效点数，只使用两个数组的前 count 个元素
+	 * @param threshold 最多保留的点数，至少为3
+	 * @return 保留点的下标，升序；点数不超过 threshold 时返回全部下标
+	 */
+	static int[] select(long[] x, double[] y, int count, int threshold) {
+		if (count <= threshold) {
+			int[] all = new int[count];
+			for (int i = 0; i < count; i++) {
+				all[i] = i;
+			}
+			return all;
+		}
+		int[] selected = new int[threshold];
+		// 以第一个点为原点，避免时间戳的绝对值参与面积计算损失精度
+		long origin = x[0];
+		double every = (double) (count - 2) / (threshold - 2);
+		int a = 0;
+		for (int i = 0; i < threshold - 2; i++) {
+			// 下一个桶的平均点
+			int avgStart = (int) ((i + 1) * every) + 1;
+			int avgEnd = Math.min((int) ((i + 2) * every) + 1, count);
+			double avgX = 0;
+			double avgY = 0;
+			for (int j = avgStart; j < avgEnd; j++) {
+				avgX += x[j] - origin;
+				avgY += y[j];
+			}
+			avgX /= avgEnd - avgStart;
+			avgY /= avgEnd - avgStart;
+
+			// 当前桶中面积最大的点
+			int rangeStart = (int) (i * every) + 1;
+			int rangeEnd = (int) ((i + 1) * every) + 1;
+			double ax = x[a] - origin;
+			double ay = y[a];
+			double maxArea = -1;
+			int next = rangeStart;
+			for (int j = rangeStart; j < rangeEnd; j++) {
+				double area = Math.abs((ax - avgX) * (y[j] - ay) - (ax - (x[j] - origin)) * (avgY - ay));
+				if (area > maxArea) {
+					maxArea = area;
+					next = j;
+				}
+			}
+			selected[i + 1] = next;
+			a = next;
+		}
+		selected[threshold - 1] = count - 1;
+		return selected;
+	}
+}
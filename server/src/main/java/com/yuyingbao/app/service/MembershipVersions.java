@@ -0,0 +1,55 @@
+package com.yuyingbao.app.service;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 每个用户的成员关系版本
+ * 令牌中携带签发时的版本，与当前版本一致时令牌里的家庭列表才可信；用户加入家庭或成员信息变化时递增。
+ * 版本只保存在本进程内存中，以启动时间为基准，重启前签发的令牌都不会匹配，回退到数据库检查；
+ * 多实例部署时各实例的版本互不可见，不应开启令牌成员关系
+ */
+@Component
+public class MembershipVersions {
+	// 启动时的基准版本，放大后留出递增的空间，避免与下次启动的基准重叠
+	private final long epoch = System.currentTimeMillis() * 1000;
+	private final ConcurrentMap<Long, Long> versions = new ConcurrentHashMap<>();
+
+	/**
+	 * 用户当前的成员关系版本，签发令牌时写入
+	 */
+	public long current(Long userId) {
+		return versions.getOrDefault(userId, epoch);
+	}
+
+	/**
+	 * 令牌中的版本是否仍是当前版本
+	 */
+	public boolean isCurrent(Long userId, long version) {
+		return current(userId) == version;
+	}
+
+	/**
+	 * 递增用户的成员关系版本，使之前签发的令牌中的家庭列表失效
+	 * 立即递增一次，事务结束后再递增一次，提交前签发的令牌可能读到了旧的成员关系
+	 */
+	public void bump(Long userId) {
+		increment(userId);
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCompletion(int status) {
+					increment(userId);
+				}
+			});
+		}
+	}
+
+	private void increment(Long userId) {
+		versions.merge(userId, epoch + 1, (current, ignored) -> current + 1);
+	}
+}
@@ -0,0 +1,80 @@
+package com.yuyingbao.app.service;
+
+import com.yuyingbao.app.config.CacheConfig;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * 权限检查使用的成员关系缓存
+ * 缓存 用户 -> 所属家庭ID集合 与 宝宝 -> 所属家庭ID，容量与过期时间由 app.permission.cache-spec 配置；
+ * 同一个键的并发未命中只会触发一次加载，其余请求等待同一个结果。
+ * 成员关系或宝宝发生变化时失效对应条目
+ */
+@Component
+public class PermissionCache {
+	private final Cache userFamilies;
+	private final Cache babyFamily;
+
+	public PermissionCache(CacheManager cacheManager) {
+		this.userFamilies = cacheManager.getCache(CacheConfig.USER_FAMILIES);
+		this.babyFamily = cacheManager.getCache(CacheConfig.BABY_FAMILY);
+	}
+
+	/**
+	 * 用户所属的家庭ID集合
+	 * @return 不可变集合，用户没有加入任何家庭时为空集合
+	 */
+	public Set<Long> familyIds(Long userId, Supplier<? extends Collection<Long>> loader) {
+		return userFamilies.get(userId, () -> Set.copyOf(loader.get()));
+	}
+
+	/**
+	 * 宝宝所属的家庭ID
+	 * @return 家庭ID，宝宝不存在时为 null（同样会被缓存）
+	 */
+	public Long familyId(Long babyId, Supplier<Long> loader) {
+		return babyFamily.get(babyId, loader::get);
+	}
+
+	/**
+	 * 用户加入、离开家庭或成员信息变化后调用
+	 * 立即失效一次，事务结束后再失效一次，避免提交前的并发读取把旧值重新写回缓存
+	 */
+	public void evictUser(Long userId) {
+		evict(userFamilies, userId);
+	}
+
+	/**
+	 * 宝宝新建或删除后调用，新建时清除之前按不存在缓存的结果
+	 */
+	public void evictBaby(Long babyId) {
+		evict(babyFamily, babyId);
+	}
+
+	/**
+	 * 清空缓存
+	 */
+	public void clear() {
+		userFamilies.clear();
+		babyFamily.clear();
+	}
+
+	private static void evict(Cache cache, Long key) {
+		cache.evict(key);
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCompletion(int status) {
+					cache.evict(key);
+				}
+			});
+		}
+	}
+}
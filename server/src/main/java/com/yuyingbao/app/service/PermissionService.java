@@ -1,26 +1,34 @@
 package com.yuyingbao.app.service;
 
+import com.yuyingbao.app.config.JwtAuthenticationDetails;
+import com.yuyingbao.app.config.SecurityUtils;
 import com.yuyingbao.app.model.entity.Baby;
-import com.yuyingbao.app.model.entity.FamilyMember;
 import com.yuyingbao.app.repository.BabyRepository;
 import com.yuyingbao.app.repository.FamilyMemberRepository;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.Set;
 
 /**
  * 权限检查服务
- * 确保用户只能访问其有权限的数据
+ * 确保用户只能访问其有权限的数据；用户所属家庭与宝宝所属家庭经 PermissionCache 缓存，
+ * 命中时权限检查不访问数据库。令牌携带成员关系且版本仍是最新时，直接使用令牌中的家庭列表
  */
 @Service
 public class PermissionService {
 
     private final FamilyMemberRepository familyMemberRepository;
     private final BabyRepository babyRepository;
+    private final PermissionCache permissionCache;
+    private final MembershipVersions membershipVersions;
 
-    public PermissionService(FamilyMemberRepository familyMemberRepository, BabyRepository babyRepository) {
+    public PermissionService(FamilyMemberRepository familyMemberRepository, BabyRepository babyRepository,
+                             PermissionCache permissionCache, MembershipVersions membershipVersions) {
         this.familyMemberRepository = familyMemberRepository;
         this.babyRepository = babyRepository;
+        this.permissionCache = permissionCache;
+        this.membershipVersions = membershipVersions;
     }
 
     /**
@@ -30,7 +38,7 @@ public class PermissionService {
      * @return 是否有权限
      */
     public boolean hasAccessToFamily(Long userId, Long familyId) {
-        return familyMemberRepository.findByFamilyIdAndUserId(familyId, userId).isPresent();
+        return familyIds(userId).contains(familyId);
     }
 
     /**
@@ -40,11 +48,11 @@ public class PermissionService {
      * @return 是否有权限
      */
     public boolean hasAccessToBaby(Long userId, Long babyId) {
-        Baby baby = babyRepository.findById(babyId).orElse(null);
-        if (baby == null) {
+        Long familyId = getBabyFamilyId(babyId);
+        if (familyId == null) {
             return false;
         }
-        return hasAccessToFamily(userId, baby.getFamilyId());
+        return hasAccessToFamily(userId, familyId);
     }
 
     /**
@@ -53,10 +61,7 @@ public class PermissionService {
      * @return 家庭ID列表
      */
     public List<Long> getUserAccessibleFamilyIds(Long userId) {
-        List<FamilyMember> familyMembers = familyMemberRepository.findByUserId(userId);
-        return familyMembers.stream()
-                .map(FamilyMember::getFamilyId)
-                .toList();
+        return List.copyOf(familyIds(userId));
     }
 
     /**
@@ -76,6 +81,33 @@ public class PermissionService {
                 .toList();
     }
 
+    /**
+     * 宝宝所属的家庭ID，经 PermissionCache 缓存；不做权限检查
+     * @return 家庭ID，宝宝不存在时为 null
+     */
+    public Long getBabyFamilyId(Long babyId) {
+        return permissionCache.familyId(babyId, () -> babyRepository.findFamilyIdById(babyId));
+    }
+
+    private Set<Long> familyIds(Long userId) {
+        Set<Long> tokenFamilyIds = tokenFamilyIds(userId);
+        if (tokenFamilyIds != null) {
+            return tokenFamilyIds;
+        }
+        return permissionCache.familyIds(userId, () -> familyMemberRepository.findFamilyIdsByUserId(userId));
+    }
+
+    /**
+     * 令牌中携带的当前用户所属家庭，成员关系版本仍是最新时才采信，否则返回 null
+     */
+    private Set<Long> tokenFamilyIds(Long userId) {
+        JwtAuthenticationDetails details = SecurityUtils.getCurrentJwtDetails();
+        if (details == null || !details.hasMembership() || !userId.equals(SecurityUtils.getCurrentUserIdOrThrow())) {
+            return null;
+        }
+        return membershipVersions.isCurrent(userId, details.getMembershipVersion()) ? details.getFamilyIds() : null;
+    }
+
     /**
      * 验证并抛出异常（如果无权限）
      * @param userId 用户ID
@@ -99,4 +131,20 @@ public class PermissionService {
             throw new SecurityException("用户无权限访问指定宝宝");
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * 验证用户有权访问宝宝，并返回宝宝所属的家庭ID
+     * 家庭ID来自权限检查已经缓存的结果，写入记录时不需要再加载宝宝
+     * @param userId 用户ID
+     * @param babyId 宝宝ID
+     * @return 宝宝所属的家庭ID
+     * @throws SecurityException 如果无权限或宝宝不存在
+     */
+    public Long validateBabyAccessAndGetFamilyId(Long userId, Long babyId) {
+        Long familyId = getBabyFamilyId(babyId);
+        if (familyId == null || !hasAccessToFamily(userId, familyId)) {
+            throw new SecurityException("用户无权限访问指定宝宝");
+        }
+        return familyId;
+    }
+}
@@ -0,0 +1,69 @@
+package com.yuyingbao.app.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.yuyingbao.app.config.RateLimitConfig;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 无锁令牌桶
+ * 每个桶只保存一个"理论到达时间"（GCRA 算法，与令牌桶等价），取令牌是一次 CAS；
+ * 桶保存在有上限的 Caffeine 缓存中，按键分散到不同的哈希槽，不同用户、家庭之间没有竞争。
+ * 桶空闲到补满所需的时间后被淘汰，之后再访问时新建的满桶与原来的状态相同
+ */
+@Component
+public class RateLimiter {
+	private final Cache<Object, AtomicLong> buckets;
+
+	public RateLimiter(RateLimitConfig config) {
+		this.buckets = Caffeine.newBuilder()
+				.maximumSize(config.getMaxBuckets())
+				.expireAfterAccess(Duration.ofNanos(longestRefillNanos(config)))
+				.build();
+	}
+
+	/**
+	 * 从键对应的桶中取一个令牌
+	 * @param key 桶的键，需要实现 equals/hashCode
+	 * @param capacity 桶容量，即允许的突发请求数
+	 * @param perSecond 每秒补充的令牌数
+	 * @return 0 表示取到令牌；否则为需要等待的纳秒数，本次不消耗令牌
+	 */
+	public long tryAcquire(Object key, int capacity, double perSecond) {
+		long now = System.nanoTime();
+		long interval = intervalNanos(perSecond);
+		long tolerance = interval * (Math.max(capacity, 1) - 1);
+		AtomicLong bucket = buckets.get(key, k -> new AtomicLong(now));
+		while (true) {
+			long arrival = bucket.get();
+			long base = arrival - now > 0 ? arrival : now;
+			long wait = base - tolerance - now;
+			if (wait > 0) {
+				return wait;
+			}
+			if (bucket.compareAndSet(arrival, base + interval)) {
+				return 0;
+			}
+		}
+	}
+
+	private static long intervalNanos(double perSecond) {
+		if (!(perSecond > 0)) {
+			throw new IllegalArgumentException("限流的每秒补充令牌数必须大于0");
+		}
+		return (long) (TimeUnit.SECONDS.toNanos(1) / perSecond);
+	}
+
+	private static long longestRefillNanos(RateLimitConfig config) {
+		long longest = TimeUnit.SECONDS.toNanos(1);
+		for (RateLimitConfig.Budget budget : new RateLimitConfig.Budget[]{config.getRecordWrite(), config.getRecordRead(), config.getStatistics()}) {
+			longest = Math.max(longest, intervalNanos(budget.getUserPerSecond()) * budget.getUserCapacity());
+			longest = Math.max(longest, intervalNanos(budget.getFamilyPerSecond()) * budget.getFamilyCapacity());
+		}
+		return longest;
+	}
+}
@@ -0,0 +1,136 @@
+package com.yuyingbao.app.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.yuyingbao.app.dto.RecordView;
+import com.yuyingbao.app.repository.RecordRepository;
+import com.yuyingbao.app.repository.projection.RecordField;
+import com.yuyingbao.app.repository.projection.RecordProjection;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * 记录导出
+ * 按时间正序从服务端游标逐行读取宝宝的全部记录，边读边写入响应流，内存占用与历史记录条数无关
+ */
+@Service
+public class RecordExportService {
+	// 每批从数据库读取的行数
+	public static final int FETCH_SIZE = 1000;
+
+	// 与接口返回的 JSON 时间格式一致
+	private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSSXXX");
+	// UTF-8 BOM，Excel 打开 CSV 时据此识别中文
+	private static final char BOM = '\uFEFF';
+
+	private final RecordRepository recordRepository;
+	private final ObjectWriter jsonWriter;
+
+	public RecordExportService(RecordRepository recordRepository, ObjectMapper objectMapper) {
+		this.recordRepository = recordRepository;
+		// 逐行写入同一个输出流，由缓冲区决定何时真正写出
+		this.jsonWriter = objectMapper.writerFor(RecordView.class)
+				.without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+	}
+
+	/**
+	 * 把宝宝的全部记录写入输出流
+	 * 在只读事务内消费游标，调用方负责关闭输出流
+	 * @param babyId 宝宝ID
+	 * @param format 导出格式
+	 * @param out 输出流
+	 */
+	@Transactional(readOnly = true)
+	public void export(Long babyId, RecordFileFormat format, OutputStream out) throws IOException {
+		RecordProjection projection = RecordProjection.all();
+		try (Stream<Object[]> rows = recordRepository.streamRowsByBabyId(babyId, projection, FETCH_SIZE)) {
+			if (format == RecordFileFormat.CSV) {
+				writeCsv(rows.iterator(), projection, out);
+			} else {
+				writeNdjson(rows.iterator(), projection, out);
+			}
+		}
+	}
+
+	private void writeCsv(Iterator<Object[]> rows, RecordProjection projection, OutputStream out) throws IOException {
+		Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+		writer.write(BOM);
+		boolean first = true;
+		for (RecordField field : projection.getColumns()) {
+			if (!first) {
+				writer.write(',');
+			}
+			writer.write(field.getProperty());
+			first = false;
+		}
+		writer.write("\r\n");
+		while (rows.hasNext()) {
+			Object[] row = rows.next();
+			for (int i = 0; i < row.length; i++) {
+				if (i > 0) {
+					writer.write(',');
+				}
+				writeCsvValue(writer, row[i]);
+			}
+			writer.write("\r\n");
+		}
+		writer.flush();
+	}
+
+	private void writeCsvValue(Writer writer, Object value) throws IOException {
+		if (value == null) {
+			return;
+		}
+		if (value instanceof OffsetDateTime time) {
+			writer.write(TIME_FORMAT.format(time));
+			return;
+		}
+		if (value instanceof Enum<?> constant) {
+			writer.write(constant.name());
+			return;
+		}
+		String text = value.toString();
+		if (value instanceof String && needsQuoting(text)) {
+			writer.write('"');
+			writer.write(text.replace("\"", "\"\""));
+			writer.write('"');
+		} else {
+			writer.write(text);
+		}
+	}
+
+	private static boolean needsQuoting(String text) {
+		for (int i = 0; i < text.length(); i++) {
+			char c = text.charAt(i);
+			if (c == ',' || c == '"' || c == '\r' || c == '\n') {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private void writeNdjson(Iterator<Object[]> rows, RecordProjection projection, OutputStream out) throws IOException {
+		JsonGenerator generator = jsonWriter.getFactory().createGenerator(out);
+		// 每行一个 JSON 对象，换行由这里写出，不使用默认的空格分隔符；输出流由调用方关闭
+		generator.setRootValueSeparator(null);
+		generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+		while (rows.hasNext()) {
+			jsonWriter.writeValue(generator, projection.toView(rows.next()));
+			generator.writeRaw('\n');
+		}
+		generator.close();
+	}
+}
@@ -0,0 +1,45 @@
+package com.yuyingbao.app.service;
+
+import org.springframework.http.MediaType;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 记录导出/导入的文件格式
+ * CSV 第一行为表头，列名与 Record 属性名一致；NDJSON 每行一个 JSON 对象
+ */
+public enum RecordFileFormat {
+	CSV("csv", new MediaType("text", "csv", StandardCharsets.UTF_8)),
+	NDJSON("ndjson", MediaType.parseMediaType("application/x-ndjson"));
+
+	private final String extension;
+	private final MediaType mediaType;
+
+	RecordFileFormat(String extension, MediaType mediaType) {
+		this.extension = extension;
+		this.mediaType = mediaType;
+	}
+
+	public String getExtension() {
+		return extension;
+	}
+
+	public MediaType getMediaType() {
+		return mediaType;
+	}
+
+	/**
+	 * 按名称查找文件格式，不区分大小写
+	 * @param name 格式名称
+	 * @return 文件格式
+	 * @throws IllegalArgumentException 如果格式不支持
+	 */
+	public static RecordFileFormat of(String name) {
+		for (RecordFileFormat format : values()) {
+			if (format.extension.equalsIgnoreCase(name)) {
+				return format;
+			}
+		}
+		throw new IllegalArgumentException("不支持的文件格式: " + name);
+	}
+}
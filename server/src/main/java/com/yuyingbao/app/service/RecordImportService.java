@@ -0,0 +1,369 @@
+package com.yuyingbao.app.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yuyingbao.app.dto.RecordImportResult;
+import com.yuyingbao.app.dto.RecordView;
+import com.yuyingbao.app.model.entity.BabyDailyStat;
+import com.yuyingbao.app.model.entity.Record;
+import com.yuyingbao.app.model.enums.RecordType;
+import com.yuyingbao.app.repository.BabyRepository;
+import com.yuyingbao.app.repository.RecordRepository;
+import com.yuyingbao.app.repository.projection.RecordField;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 记录批量导入
+ * 流式解析 CSV/NDJSON，逐行按记录类型校验，合法的行按块批量插入（不经过逐条 save），
+ * 校验失败的行跳过并记录原因；每日汇总、数据版本与缓存在导入结束时只更新一次。
+ * 请求体先写入临时文件，上传期间不占用数据库连接；文件大小与行数有上限，超出时返回413。
+ * 文件格式与导出一致，CSV 的表头为 Record 属性名，id、familyId 等由服务端决定的列会被忽略
+ */
+@Service
+public class RecordImportService {
+	// 每批插入的条数
+	public static final int CHUNK_SIZE = 1000;
+	// 结果中最多返回的失败行明细
+	public static final int MAX_REPORTED_ERRORS = 100;
+	// 每导入多少行输出一次进度日志
+	private static final int PROGRESS_INTERVAL = 10_000;
+	// 导入中的记录先以该版本插入，提交前统一改为递增后的数据版本；未提交的行对其他事务不可见
+	private static final long IMPORTING_VERSION = -1L;
+
+	// 由服务端决定的字段，文件中即使提供也不使用
+	private static final Set<RecordField> IGNORED = Set.of(RecordField.ID, RecordField.FAMILY_ID, RecordField.USER_ID,
+			RecordField.BABY_ID, RecordField.VERSION, RecordField.UPDATED_AT);
+	private static final Set<String> BREASTFEEDING_SIDES = Set.of("LEFT", "RIGHT", "BOTH");
+
+	private static final Logger log = LoggerFactory.getLogger(RecordImportService.class);
+
+	private final RecordRepository recordRepository;
+	private final BabyRepository babyRepository;
+	private final BabyDailyStatsService babyDailyStatsService;
+	private final StatisticsCache statisticsCache;
+	private final LatestRecordCache latestRecordCache;
+	private final ObjectMapper objectMapper;
+	private final TransactionTemplate transactionTemplate;
+	private final long maxBytes;
+	private final int maxRows;
+
+	public RecordImportService(RecordRepository recordRepository, BabyRepository babyRepository,
+							   BabyDailyStatsService babyDailyStatsService, StatisticsCache statisticsCache,
+							   LatestRecordCache latestRecordCache, ObjectMapper objectMapper,
+							   PlatformTransactionManager transactionManager,
+							   @Value("${app.import.max-bytes:52428800}") long maxBytes,
+							   @Value("${app.import.max-rows:100000}") int maxRows) {
+		this.recordRepository = recordRepository;
+		this.babyRepository = babyRepository;
+		this.babyDailyStatsService = babyDailyStatsService;
+		this.statisticsCache = statisticsCache;
+		this.latestRecordCache = latestRecordCache;
+		this.objectMapper = objectMapper;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.maxBytes = maxBytes;
+		this.maxRows = maxRows;
+	}
+
+	/**
+	 * 导入宝宝的记录
+	 * 请求体读完后才开启事务；解析与分块插入在一个事务内完成，数据版本在最后递增，
+	 * 宝宝行只在提交前短暂锁住，整批记录共享同一个数据版本
+	 * @param familyId 家庭ID
+	 * @param userId 当前用户ID
+	 * @param babyId 宝宝ID
+	 * @param format 文件格式
+	 * @param in 文件内容
+	 * @return 导入条数与失败行明细
+	 * @throws IllegalArgumentException 如果文件整体无法解析（表头不合法、引号没有闭合等）
+	 * @throws ResponseStatusException 413，如果文件超过大小或行数上限
+	 */
+	public RecordImportResult importRecords(Long familyId, Long userId, Long babyId, RecordFileFormat format,
+											InputStream in) throws IOException {
+		Path file = spool(in);
+		try {
+			return transactionTemplate.execute(status -> {
+				Importer importer = new Importer(familyId, userId, babyId);
+				try (BufferedReader reader = new BufferedReader(new InputStreamReader(Files.newInputStream(file), StandardCharsets.UTF_8))) {
+					if (format == RecordFileFormat.CSV) {
+						readCsv(reader, importer);
+					} else {
+						readNdjson(reader, importer);
+					}
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+				return importer.finish();
+			});
+		} finally {
+			Files.deleteIfExists(file);
+		}
+	}
+
+	/**
+	 * 把请求体写入临时文件
+	 * @throws ResponseStatusException 413，如果请求体超过大小上限
+	 */
+	private Path spool(InputStream in) throws IOException {
+		Path file = Files.createTempFile("record-import-", ".tmp");
+		try (OutputStream out = Files.newOutputStream(file)) {
+			byte[] buffer = new byte[8192];
+			long size = 0;
+			int n;
+			while ((n = in.read(buffer)) != -1) {
+				size += n;
+				if (size > maxBytes) {
+					throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE, "导入文件不能超过" + maxBytes + "字节");
+				}
+				out.write(buffer, 0, n);
+			}
+		} catch (IOException | RuntimeException e) {
+			Files.deleteIfExists(file);
+			throw e;
+		}
+		return file;
+	}
+
+	private void readCsv(BufferedReader reader, Importer importer) throws IOException {
+		CsvReader csv = new CsvReader(reader);
+		List<String> header = csv.next();
+		if (header == null) {
+			throw new IllegalArgumentException("导入文件为空");
+		}
+		List<RecordField> columns = new ArrayList<>(header.size());
+		for (String name : header) {
+			columns.add(RecordField.of(name.trim()));
+		}
+		List<String> values;
+		while ((values = csv.next()) != null) {
+			if (values.size() != columns.size()) {
+				importer.reject(csv.getLine(), "列数为" + values.size() + "，与表头的" + columns.size() + "列不一致");
+				continue;
+			}
+			RecordView view = new RecordView();
+			try {
+				for (int i = 0; i < columns.size(); i++) {
+					RecordField field = columns.get(i);
+					if (!IGNORED.contains(field)) {
+						field.apply(view, field.parse(values.get(i)));
+					}
+				}
+			} catch (IllegalArgumentException e) {
+				importer.reject(csv.getLine(), e.getMessage());
+				continue;
+			}
+			importer.accept(csv.getLine(), view);
+		}
+	}
+
+	private void readNdjson(BufferedReader reader, Importer importer) throws IOException {
+		String text;
+		int line = 0;
+		while ((text = reader.readLine()) != null) {
+			line++;
+			if (text.isBlank()) {
+				continue;
+			}
+			RecordView view = new RecordView();
+			try {
+				JsonNode node = objectMapper.readTree(text);
+				if (!node.isObject()) {
+					throw new IllegalArgumentException("每行必须是一个 JSON 对象");
+				}
+				// 与 CSV 使用同一套字段解析，未知的属性忽略
+				for (RecordField field : RecordField.values()) {
+					JsonNode value = node.get(field.getProperty());
+					if (!IGNORED.contains(field) && value != null && !value.isNull()) {
+						if (value.isContainerNode()) {
+							throw new IllegalArgumentException(field.getProperty() + " 不能是对象或数组");
+						}
+						field.apply(view, field.parse(value.asText()));
+					}
+				}
+			} catch (JsonProcessingException e) {
+				importer.reject(line, "JSON 格式不正确: " + e.getOriginalMessage());
+				continue;
+			} catch (IllegalArgumentException e) {
+				importer.reject(line, e.getMessage());
+				continue;
+			}
+			importer.accept(line, view);
+		}
+	}
+
+	/**
+	 * 按记录类型校验并转换为实体，只保留该类型用到的字段
+	 * @throws IllegalArgumentException 如果校验失败
+	 */
+	private static Record toRecord(RecordView view) {
+		RecordType type = view.getType();
+		if (type == null) {
+			throw new IllegalArgumentException("缺少 type");
+		}
+		if (view.getHappenedAt() == null) {
+			throw new IllegalArgumentException("缺少 happenedAt");
+		}
+		Record.RecordBuilder builder = Record.builder()
+				.type(type)
+				.happenedAt(view.getHappenedAt())
+				.note(maxLength("note", view.getNote(), 255));
+		switch (type) {
+			case BREASTFEEDING -> {
+				require(view.getDurationMin() != null && view.getDurationMin() > 0, "母乳喂养记录的 durationMin 必须大于0");
+				String side = view.getBreastfeedingSide() != null ? view.getBreastfeedingSide().trim().toUpperCase(Locale.ROOT) : null;
+				require(side == null || BREASTFEEDING_SIDES.contains(side), "breastfeedingSide 只能是 LEFT、RIGHT 或 BOTH");
+				builder.durationMin(view.getDurationMin()).breastfeedingSide(side);
+			}
+			case BOTTLE, FORMULA, WATER -> {
+				require(view.getAmountMl() != null && view.getAmountMl() > 0, type + " 记录的 amountMl 必须大于0");
+				builder.amountMl(view.getAmountMl());
+			}
+			case SOLID -> {
+				require(view.getSolidType() != null, "辅食记录缺少 solidType");
+				builder.solidType(view.getSolidType())
+						.solidIngredients(maxLength("solidIngredients", view.getSolidIngredients(), 1000))
+						.solidBrand(maxLength("solidBrand", view.getSolidBrand(), 100))
+						.solidOrigin(maxLength("solidOrigin", view.getSolidOrigin(), 100));
+			}
+			case DIAPER -> builder.diaperTexture(view.getDiaperTexture())
+					.diaperColor(view.getDiaperColor())
+					.hasUrine(view.getHasUrine());
+			case GROWTH -> {
+				require(view.getHeightCm() != null || view.getWeightKg() != null, "成长记录至少需要 heightCm 或 weightKg");
+				require(view.getHeightCm() == null || view.getHeightCm() > 0, "heightCm 必须大于0");
+				require(view.getWeightKg() == null || view.getWeightKg() > 0, "weightKg 必须大于0");
+				builder.heightCm(view.getHeightCm()).weightKg(view.getWeightKg());
+			}
+			case NUTRITION -> {
+				require(view.getNutritionTypes() != null && !view.getNutritionTypes().isBlank(), "营养素记录缺少 nutritionTypes");
+				builder.nutritionTypes(maxLength("nutritionTypes", view.getNutritionTypes(), 1000));
+			}
+		}
+		return builder.build();
+	}
+
+	private static void require(boolean condition, String message) {
+		if (!condition) {
+			throw new IllegalArgumentException(message);
+		}
+	}
+
+	private static String maxLength(String property, String value, int max) {
+		require(value == null || value.length() <= max, property + " 不能超过" + max + "个字符");
+		return value;
+	}
+
+	/**
+	 * 一次导入的状态：待插入的块、汇总增量、各类型最新记录与失败明细，占用的内存与文件大小无关
+	 */
+	private final class Importer {
+		private final Long familyId;
+		private final Long userId;
+		private final Long babyId;
+		private final List<Record> chunk = new ArrayList<>(CHUNK_SIZE);
+		private final Map<BabyDailyStat.Key, BabyDailyStat> deltas = new HashMap<>();
+		private final Map<RecordType, Record> latest = new EnumMap<>(RecordType.class);
+		private final List<RecordImportResult.RowError> errors = new ArrayList<>();
+		private int total;
+		private int imported;
+		private int failed;
+
+		Importer(Long familyId, Long userId, Long babyId) {
+			this.familyId = familyId;
+			this.userId = userId;
+			this.babyId = babyId;
+		}
+
+		void accept(int line, RecordView view) {
+			Record record;
+			try {
+				record = toRecord(view);
+			} catch (IllegalArgumentException e) {
+				reject(line, e.getMessage());
+				return;
+			}
+			count();
+			record.setFamilyId(familyId);
+			record.setUserId(userId);
+			record.setBabyId(babyId);
+			record.setVersion(IMPORTING_VERSION);
+			chunk.add(record);
+			if (chunk.size() == CHUNK_SIZE) {
+				flush();
+			}
+		}
+
+		void reject(int line, String message) {
+			count();
+			failed++;
+			if (errors.size() < MAX_REPORTED_ERRORS) {
+				errors.add(new RecordImportResult.RowError(line, message));
+			}
+		}
+
+		RecordImportResult finish() {
+			flush();
+			if (imported > 0) {
+				if (babyRepository.incrementDataVersion(babyId) == 0) {
+					throw new RuntimeException("Baby not found with id: " + babyId);
+				}
+				Long version = babyRepository.findDataVersionById(babyId);
+				recordRepository.updateVersionByBabyId(babyId, IMPORTING_VERSION, version);
+				latest.values().forEach(record -> record.setVersion(version));
+				babyDailyStatsService.applyDeltas(deltas.values());
+				statisticsCache.evictBaby(babyId, familyId);
+				latestRecordCache.put(babyId, latest.values());
+			}
+			log.info("Imported {} records for baby {} ({} rows failed)", imported, babyId, failed);
+			return new RecordImportResult(total, imported, failed, errors);
+		}
+
+		private void count() {
+			if (++total > maxRows) {
+				throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE, "导入文件不能超过" + maxRows + "行");
+			}
+		}
+
+		private void flush() {
+			if (chunk.isEmpty()) {
+				return;
+			}
+			recordRepository.insertAll(chunk);
+			for (Record record : chunk) {
+				BabyDailyStatsService.accumulate(deltas, record);
+				latest.merge(record.getType(), record, (current, candidate) ->
+						candidate.getHappenedAt().isBefore(current.getHappenedAt()) ? current : candidate);
+			}
+			int before = imported;
+			imported += chunk.size();
+			chunk.clear();
+			if (imported / PROGRESS_INTERVAL > before / PROGRESS_INTERVAL) {
+				log.info("Importing records for baby {}: {} imported, {} rows failed", babyId, imported, failed);
+			}
+		}
+	}
+}
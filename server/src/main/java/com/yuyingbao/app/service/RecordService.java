@@ -1,27 +1,124 @@
 package com.yuyingbao.app.service;
 
 import com.yuyingbao.app.dto.CreateRecordRequest;
+import com.yuyingbao.app.dto.RecordChanges;
+import com.yuyingbao.app.dto.RecordCursor;
+import com.yuyingbao.app.dto.RecordPage;
+import com.yuyingbao.app.dto.RecordView;
+import com.yuyingbao.app.dto.SyncToken;
 import com.yuyingbao.app.dto.UpdateRecordRequest;
 import com.yuyingbao.app.model.entity.Record;
+import com.yuyingbao.app.model.entity.RecordTombstone;
 import com.yuyingbao.app.model.enums.RecordType;
+import com.yuyingbao.app.repository.BabyRepository;
 import com.yuyingbao.app.repository.RecordRepository;
+import com.yuyingbao.app.repository.RecordTombstoneRepository;
+import com.yuyingbao.app.repository.projection.RecordProjection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.time.Duration;
 import java.time.OffsetDateTime;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.function.Function;
 
 @Service
 public class RecordService {
+	// 分页默认条数与单页上限
+	public static final int DEFAULT_PAGE_SIZE = 50;
+	public static final int MAX_PAGE_SIZE = 200;
+	// 单次批量创建的记录上限
+	public static final int MAX_BATCH_SIZE = 500;
+	// 增量同步默认条数与单次上限
+	public static final int DEFAULT_CHANGES_SIZE = 500;
+	public static final int MAX_CHANGES_SIZE = 1000;
+
+	private static final Logger log = LoggerFactory.getLogger(RecordService.class);
+
 	private final RecordRepository recordRepository;
+	private final RecordTombstoneRepository recordTombstoneRepository;
+	private final BabyRepository babyRepository;
+	private final BabyDailyStatsService babyDailyStatsService;
+	private final StatisticsCache statisticsCache;
+	private final LatestRecordCache latestRecordCache;
+	private final TransactionTemplate transactionTemplate;
+	private final Duration tombstoneRetention;
 
-	public RecordService(RecordRepository recordRepository) {
+	public RecordService(RecordRepository recordRepository, RecordTombstoneRepository recordTombstoneRepository,
+						 BabyRepository babyRepository, BabyDailyStatsService babyDailyStatsService,
+						 StatisticsCache statisticsCache, LatestRecordCache latestRecordCache,
+						 PlatformTransactionManager transactionManager,
+						 @Value("${app.sync.tombstone-retention-days:30}") long tombstoneRetentionDays) {
 		this.recordRepository = recordRepository;
+		this.recordTombstoneRepository = recordTombstoneRepository;
+		this.babyRepository = babyRepository;
+		this.babyDailyStatsService = babyDailyStatsService;
+		this.statisticsCache = statisticsCache;
+		this.latestRecordCache = latestRecordCache;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.tombstoneRetention = Duration.ofDays(tombstoneRetentionDays);
 	}
 
+	@Transactional
 	public Record createRecord(Long familyId, Long userId, CreateRecordRequest req) {
-		Record record = Record.builder()
+		Record record = toRecord(familyId, userId, req);
+		record.setVersion(nextVersion(req.getBabyId()));
+		record = recordRepository.save(record);
+		babyDailyStatsService.onRecordAdded(record);
+		statisticsCache.evict(record);
+		latestRecordCache.put(record.getBabyId(), List.of(record));
+		return record;
+	}
+
+	/**
+	 * 批量创建同一宝宝的记录
+	 * 在一个事务内写入，ID 由序列预分配，插入语句按 JDBC batch 发送；每日汇总按 日期+类型 合并后更新
+	 * @param familyId 家庭ID
+	 * @param userId 当前用户ID
+	 * @param babyId 宝宝ID
+	 * @param requests 记录创建请求列表
+	 * @return 创建的记录，顺序与请求一致
+	 */
+	@Transactional
+	public List<Record> createRecords(Long familyId, Long userId, Long babyId, List<CreateRecordRequest> requests) {
+		if (requests == null || requests.isEmpty()) {
+			throw new IllegalArgumentException("批量创建的记录不能为空");
+		}
+		if (requests.size() > MAX_BATCH_SIZE) {
+			throw new IllegalArgumentException("单次最多批量创建" + MAX_BATCH_SIZE + "条记录");
+		}
+		// 整批记录共享同一个数据版本
+		Long version = nextVersion(babyId);
+		List<Record> records = new ArrayList<>(requests.size());
+		for (CreateRecordRequest req : requests) {
+			req.setBabyId(babyId);
+			Record record = toRecord(familyId, userId, req);
+			record.setVersion(version);
+			records.add(record);
+		}
+		records = recordRepository.saveAll(records);
+		babyDailyStatsService.onRecordsAdded(records);
+		for (Record record : records) {
+			statisticsCache.evict(record);
+		}
+		latestRecordCache.put(babyId, records);
+		return records;
+	}
+
+	private Record toRecord(Long familyId, Long userId, CreateRecordRequest req) {
+		return Record.builder()
 				.familyId(familyId)
 				.userId(userId)
 				.babyId(req.getBabyId())
@@ -43,7 +140,6 @@ public class RecordService {
 				.weightKg(req.getWeightKg())
 				.nutritionTypes(req.getNutritionTypes())
 				.build();
-		return recordRepository.save(record);
 	}
 
 	public List<Record> listRecords(Long familyId, OffsetDateTime start, OffsetDateTime end, RecordType type) {
@@ -86,6 +182,239 @@ public class RecordService {
 		}
 	}
 
+	/**
+	 * 按游标分页查询家庭记录（按 happenedAt、id 倒序）
+	 * @param familyId 家庭ID
+	 * @param start 开始时间
+	 * @param end 结束时间
+	 * @param type 记录类型
+	 * @param cursor 上一页返回的游标，首页传 null
+	 * @param limit 每页条数，为空时使用默认值
+	 * @return 当前页记录与下一页游标
+	 */
+	public RecordPage<Record> pageRecords(Long familyId, OffsetDateTime start, OffsetDateTime end, RecordType type, String cursor, Integer limit) {
+		RecordCursor position = RecordCursor.decode(cursor);
+		int size = normalizePageSize(limit);
+		// 多取一条用于判断是否还有下一页
+		Limit fetch = Limit.of(size + 1);
+		List<Record> rows;
+		if (start != null && end != null && type != null) {
+			rows = recordRepository.findPageByFamilyIdAndTypeAndHappenedAtBetween(familyId, type, start, end, position.getHappenedAt(), position.getId(), fetch);
+		} else if (start != null && end != null) {
+			rows = recordRepository.findPageByFamilyIdAndHappenedAtBetween(familyId, start, end, position.getHappenedAt(), position.getId(), fetch);
+		} else {
+			rows = recordRepository.findPageByFamilyId(familyId, position.getHappenedAt(), position.getId(), fetch);
+		}
+		return toPage(rows, size, Record::getHappenedAt, Record::getId);
+	}
+
+	/**
+	 * 按游标分页查询宝宝记录（按 happenedAt、id 倒序）
+	 * @param babyId 宝宝ID
+	 * @param start 开始时间
+	 * @param end 结束时间
+	 * @param type 记录类型
+	 * @param cursor 上一页返回的游标，首页传 null
+	 * @param limit 每页条数，为空时使用默认值
+	 * @return 当前页记录与下一页游标
+	 */
+	public RecordPage<Record> pageRecordsByBabyId(Long babyId, OffsetDateTime start, OffsetDateTime end, RecordType type, String cursor, Integer limit) {
+		RecordCursor position = RecordCursor.decode(cursor);
+		int size = normalizePageSize(limit);
+		// 多取一条用于判断是否还有下一页
+		Limit fetch = Limit.of(size + 1);
+		List<Record> rows;
+		if (start != null && end != null && type != null) {
+			rows = recordRepository.findPageByBabyIdAndTypeAndHappenedAtBetween(babyId, type, start, end, position.getHappenedAt(), position.getId(), fetch);
+		} else if (start != null && end != null) {
+			rows = recordRepository.findPageByBabyIdAndHappenedAtBetween(babyId, start, end, position.getHappenedAt(), position.getId(), fetch);
+		} else {
+			rows = recordRepository.findPageByBabyId(babyId, position.getHappenedAt(), position.getId(), fetch);
+		}
+		return toPage(rows, size, Record::getHappenedAt, Record::getId);
+	}
+
+	/**
+	 * 按 fields 参数只读取选中的列查询家庭记录
+	 * @param familyId 家庭ID
+	 * @param start 开始时间
+	 * @param end 结束时间
+	 * @param type 记录类型
+	 * @param fields 逗号分隔的字段名，或 slim 表示按记录类型选择字段
+	 * @return 记录的精简视图列表
+	 */
+	@Transactional(readOnly = true)
+	public List<RecordView> listRecordViews(Long familyId, OffsetDateTime start, OffsetDateTime end, RecordType type, String fields) {
+		return recordRepository.findViewsByFamilyId(familyId, start, end, type, null, null, projection(start, end, type, fields));
+	}
+
+	/**
+	 * 按 fields 参数只读取选中的列查询宝宝记录
+	 * @param babyId 宝宝ID
+	 * @param start 开始时间
+	 * @param end 结束时间
+	 * @param type 记录类型
+	 * @param fields 逗号分隔的字段名，或 slim 表示按记录类型选择字段
+	 * @return 记录的精简视图列表
+	 */
+	@Transactional(readOnly = true)
+	public List<RecordView> listRecordViewsByBabyId(Long babyId, OffsetDateTime start, OffsetDateTime end, RecordType type, String fields) {
+		return recordRepository.findViewsByBabyId(babyId, start, end, type, null, null, projection(start, end, type, fields));
+	}
+
+	/**
+	 * 按游标分页查询家庭记录的精简视图
+	 * @see #pageRecords
+	 * @see #listRecordViews
+	 */
+	@Transactional(readOnly = true)
+	public RecordPage<RecordView> pageRecordViews(Long familyId, OffsetDateTime start, OffsetDateTime end, RecordType type,
+												  String cursor, Integer limit, String fields) {
+		int size = normalizePageSize(limit);
+		List<RecordView> rows = recordRepository.findViewsByFamilyId(familyId, start, end, type,
+				RecordCursor.decode(cursor), size + 1, projection(start, end, type, fields));
+		return toPage(rows, size, RecordView::getHappenedAt, RecordView::getId);
+	}
+
+	/**
+	 * 按游标分页查询宝宝记录的精简视图
+	 * @see #pageRecordsByBabyId
+	 * @see #listRecordViewsByBabyId
+	 */
+	@Transactional(readOnly = true)
+	public RecordPage<RecordView> pageRecordViewsByBabyId(Long babyId, OffsetDateTime start, OffsetDateTime end, RecordType type,
+														  String cursor, Integer limit, String fields) {
+		int size = normalizePageSize(limit);
+		List<RecordView> rows = recordRepository.findViewsByBabyId(babyId, start, end, type,
+				RecordCursor.decode(cursor), size + 1, projection(start, end, type, fields));
+		return toPage(rows, size, RecordView::getHappenedAt, RecordView::getId);
+	}
+
+	private static RecordProjection projection(OffsetDateTime start, OffsetDateTime end, RecordType type, String fields) {
+		// 与列表查询一致，只有同时给出 start 和 end 时类型筛选才生效
+		return RecordProjection.parse(fields, start != null && end != null ? type : null);
+	}
+
+	/**
+	 * 获取宝宝每种类型的最新一条记录
+	 * 结果按宝宝缓存，记录写入时由本服务同步更新缓存，命中时不访问数据库
+	 * @param babyId 宝宝ID
+	 * @return 记录类型到最新记录的映射，没有记录的类型不出现
+	 */
+	public Map<RecordType, Record> getLatestRecords(Long babyId) {
+		return latestRecordCache.get(babyId, () -> recordRepository.findLatestPerTypeByBabyId(babyId));
+	}
+
+	/**
+	 * 获取某个同步令牌之后的记录变更
+	 * 新增/修改与删除按 (version, id) 合并排序，超过单次上限时 hasMore 为 true
+	 * @param babyId 宝宝ID
+	 * @param since 上次同步返回的令牌，为空时返回全部记录
+	 * @param limit 单次最多返回的变更数
+	 * @return 变更与新的同步令牌
+	 * @throws ResponseStatusException 410，如果令牌签发后清理掉的墓碑中有令牌位置之后的删除，客户端需要不带令牌重新全量同步
+	 */
+	// 可重复读：清理版本与墓碑在同一个快照中读取，查询之间提交的清理不会被漏判
+	@Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+	public RecordChanges getChanges(Long babyId, String since, Integer limit) {
+		SyncToken from = SyncToken.decode(since);
+		Long purged = babyRepository.findTombstonesPurgedVersionById(babyId);
+		long purgedVersion = purged != null ? purged : 0L;
+		// 签发后没有新的清理，或新清理的墓碑都不晚于令牌位置时，客户端没有漏掉删除
+		if (!from.isStart() && purgedVersion > Math.max(from.getVersion(), from.getPurgedVersion())) {
+			throw new ResponseStatusException(HttpStatus.GONE, "同步令牌已过期，请重新全量同步");
+		}
+		int size = limit == null ? DEFAULT_CHANGES_SIZE : normalizeSize(limit, MAX_CHANGES_SIZE);
+
+		List<Record> upserts = recordRepository.findChangesByBabyId(babyId, from.getVersion(), from.getId(), Limit.of(size + 1));
+		// 首次同步不需要下发删除
+		List<RecordTombstone> tombstones = from.isStart()
+				? List.of()
+				: recordTombstoneRepository.findChangesByBabyId(babyId, from.getVersion(), from.getId(), Limit.of(size + 1));
+
+		List<Record> changedRecords = new ArrayList<>();
+		List<Long> deletes = new ArrayList<>();
+		SyncToken last = new SyncToken(from.getVersion(), from.getId(), purgedVersion);
+		int i = 0;
+		int j = 0;
+		while (changedRecords.size() + deletes.size() < size && (i < upserts.size() || j < tombstones.size())) {
+			boolean takeRecord = j >= tombstones.size() || (i < upserts.size()
+					&& compare(upserts.get(i).getVersion(), upserts.get(i).getId(),
+							tombstones.get(j).getVersion(), tombstones.get(j).getRecordId()) < 0);
+			if (takeRecord) {
+				Record record = upserts.get(i++);
+				changedRecords.add(record);
+				last = new SyncToken(record.getVersion(), record.getId(), purgedVersion);
+			} else {
+				RecordTombstone tombstone = tombstones.get(j++);
+				deletes.add(tombstone.getRecordId());
+				last = new SyncToken(tombstone.getVersion(), tombstone.getRecordId(), purgedVersion);
+			}
+		}
+		boolean hasMore = i < upserts.size() || j < tombstones.size();
+		return new RecordChanges(changedRecords, deletes, last.encode(), hasMore);
+	}
+
+	/**
+	 * 定期清理超过保留时间的删除墓碑
+	 * 先记录每个宝宝被清理的最大墓碑版本，getChanges 据此拒绝可能漏掉这些删除的同步令牌
+	 * @return 删除的行数
+	 */
+	@Scheduled(fixedDelayString = "${app.sync.tombstone-purge-interval-ms:3600000}")
+	public int purgeExpiredTombstones() {
+		OffsetDateTime before = OffsetDateTime.now().minus(tombstoneRetention);
+		Integer deleted = transactionTemplate.execute(status -> {
+			babyRepository.raiseTombstonesPurgedVersion(before);
+			return recordTombstoneRepository.deleteByDeletedAtBefore(before);
+		});
+		if (deleted != null && deleted > 0) {
+			log.info("Purged {} expired record tombstones", deleted);
+		}
+		return deleted != null ? deleted : 0;
+	}
+
+	private static int compare(Long version1, Long id1, Long version2, Long id2) {
+		int result = version1.compareTo(version2);
+		return result != 0 ? result : id1.compareTo(id2);
+	}
+
+	/**
+	 * 递增宝宝的数据版本并返回新值
+	 * 宝宝行会被锁到事务结束，同一宝宝的写入按版本号顺序提交
+	 */
+	private Long nextVersion(Long babyId) {
+		if (babyId == null) {
+			throw new IllegalArgumentException("宝宝ID不能为空");
+		}
+		if (babyRepository.incrementDataVersion(babyId) == 0) {
+			throw new RuntimeException("Baby not found with id: " + babyId);
+		}
+		return babyRepository.findDataVersionById(babyId);
+	}
+
+	private int normalizeSize(int limit, int max) {
+		if (limit < 1) {
+			throw new IllegalArgumentException("分页条数必须大于0");
+		}
+		return Math.min(limit, max);
+	}
+
+	private int normalizePageSize(Integer limit) {
+		if (limit == null) {
+			return DEFAULT_PAGE_SIZE;
+		}
+		return normalizeSize(limit, MAX_PAGE_SIZE);
+	}
+
+	private <T> RecordPage<T> toPage(List<T> rows, int size, Function<T, OffsetDateTime> happenedAt, Function<T, Long> id) {
+		if (rows.size() <= size) {
+			return new RecordPage<>(rows, null);
+		}
+		List<T> items = rows.subList(0, size);
+		T last = items.get(size - 1);
+		return new RecordPage<>(items, new RecordCursor(happenedAt.apply(last), id.apply(last)).encode());
+	}
+
 	/**
 	 * 根据ID获取记录
 	 * @param recordId 记录ID
@@ -106,19 +435,44 @@ public class RecordService {
 	 * @return 更新后的记录
 	 * @throws RuntimeException 如果记录不存在或用户无权限
 	 */
+	@Transactional
 	public Record updateRecord(Long familyId, Long recordId, Long userId, UpdateRecordRequest req) {
-		// 查找记录并验证权限
-		Optional<Record> existingRecordOpt = recordRepository.findById(recordId);
-		if (existingRecordOpt.isEmpty()) {
-			throw new RuntimeException("Record not found with id: " + recordId);
-		}
-		
-		Record existingRecord = existingRecordOpt.get();
+		Record existingRecord = getRecordById(recordId);
 		
 		// 验证记录属于指定的家庭
 		if (!existingRecord.getFamilyId().equals(familyId)) {
 			throw new RuntimeException("Record does not belong to the specified family");
 		}
+		return applyUpdate(existingRecord, req);
+	}
+
+	/**
+	 * 更新指定宝宝的记录
+	 * 调用方已校验宝宝的访问权限；记录在本事务内只查询一次，校验归属后直接修改，保存时不再重新读取
+	 * @param babyId 宝宝ID
+	 * @param recordId 记录ID
+	 * @param userId 当前用户ID
+	 * @param req 更新请求
+	 * @return 更新后的记录
+	 * @throws RuntimeException 如果记录不存在或不属于该宝宝
+	 */
+	@Transactional
+	public Record updateBabyRecord(Long babyId, Long recordId, Long userId, UpdateRecordRequest req) {
+		return applyUpdate(getBabyRecord(babyId, recordId), req);
+	}
+
+	private Record applyUpdate(Record existingRecord, UpdateRecordRequest req) {
+		// 保留汇总用到的旧值；汇总的原生更新会清空持久化上下文，放在保存之后，避免保存时重新查询记录
+		Record previous = Record.builder()
+				.familyId(existingRecord.getFamilyId())
+				.babyId(existingRecord.getBabyId())
+				.type(existingRecord.getType())
+				.happenedAt(existingRecord.getHappenedAt())
+				.amountMl(existingRecord.getAmountMl())
+				.durationMin(existingRecord.getDurationMin())
+				.build();
+		statisticsCache.evict(existingRecord);
+		latestRecordCache.remove(existingRecord);
 		
 		// 更新记录字段
 		existingRecord.setType(req.getType());
@@ -138,8 +492,15 @@ public class RecordService {
 		existingRecord.setHeightCm(req.getHeightCm());
 		existingRecord.setWeightKg(req.getWeightKg());
 		existingRecord.setNutritionTypes(req.getNutritionTypes());
+		existingRecord.setVersion(nextVersion(existingRecord.getBabyId()));
 		
-		return recordRepository.save(existingRecord);
+		Record savedRecord = recordRepository.save(existingRecord);
+		// 从每日汇总中扣除旧值，再累加新值
+		babyDailyStatsService.onRecordRemoved(previous);
+		babyDailyStatsService.onRecordAdded(savedRecord);
+		statisticsCache.evict(savedRecord);
+		latestRecordCache.put(savedRecord.getBabyId(), List.of(savedRecord));
+		return savedRecord;
 	}
 
 	/**
@@ -149,21 +510,50 @@ public class RecordService {
 	 * @param userId 当前用户ID
 	 * @throws RuntimeException 如果记录不存在或用户无权限
 	 */
+	@Transactional
 	public void deleteRecord(Long familyId, Long recordId, Long userId) {
-		// 查找记录并验证权限
-		Optional<Record> existingRecordOpt = recordRepository.findById(recordId);
-		if (existingRecordOpt.isEmpty()) {
-			throw new RuntimeException("Record not found with id: " + recordId);
-		}
-		
-		Record existingRecord = existingRecordOpt.get();
+		Record existingRecord = getRecordById(recordId);
 		
 		// 验证记录属于指定的家庭
 		if (!existingRecord.getFamilyId().equals(familyId)) {
 			throw new RuntimeException("Record does not belong to the specified family");
 		}
-		
-		// 删除记录
-		recordRepository.deleteById(recordId);
+		remove(existingRecord);
+	}
+
+	/**
+	 * 删除指定宝宝的记录
+	 * 调用方已校验宝宝的访问权限；记录在本事务内只查询一次
+	 * @param babyId 宝宝ID
+	 * @param recordId 记录ID
+	 * @param userId 当前用户ID
+	 * @throws RuntimeException 如果记录不存在或不属于该宝宝
+	 */
+	@Transactional
+	public void deleteBabyRecord(Long babyId, Long recordId, Long userId) {
+		remove(getBabyRecord(babyId, recordId));
+	}
+
+	private Record getBabyRecord(Long babyId, Long recordId) {
+		Record record = getRecordById(recordId);
+		if (!record.getBabyId().equals(babyId)) {
+			throw new RuntimeException("Record does not belong to the specified baby");
+		}
+		return record;
+	}
+
+	private void remove(Record existingRecord) {
+		// 删除已加载的实体，不再按ID重新查询；并留下墓碑供增量同步下发
+		recordRepository.delete(existingRecord);
+		recordTombstoneRepository.save(RecordTombstone.builder()
+				.recordId(existingRecord.getId())
+				.babyId(existingRecord.getBabyId())
+				.familyId(existingRecord.getFamilyId())
+				.version(nextVersion(existingRecord.getBabyId()))
+				.deletedAt(OffsetDateTime.now())
+				.build());
+		babyDailyStatsService.onRecordRemoved(existingRecord);
+		statisticsCache.evict(existingRecord);
+		latestRecordCache.remove(existingRecord);
 	}
-}
\ No newline at end of file
+}
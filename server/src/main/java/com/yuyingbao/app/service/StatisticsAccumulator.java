@@ -0,0 +1,89 @@
+package com.yuyingbao.app.service;
+
+import com.yuyingbao.app.dto.StatisticsSummary;
+import com.yuyingbao.app.model.enums.RecordType;
+import com.yuyingbao.app.repository.projection.RecordTypeAggregate;
+
+import java.util.List;
+
+/**
+ * 按记录类型累加聚合结果的计数器
+ * 以 RecordType 的序号为下标存放原始类型，一次遍历完成累加，最后生成不可变的统计结果
+ */
+public final class StatisticsAccumulator {
+	private static final RecordType[] TYPES = RecordType.values();
+
+	// 母乳按10ml/分钟估算喂养量
+	static final int BREASTFEEDING_ML_PER_MINUTE = 10;
+
+	// 建议只有三种，预先创建好，避免每次请求分配新列表
+	private static final List<String> SUGGESTIONS_LOW = List.of("今日喂养量偏少，建议适当增加喂奶次数");
+	private static final List<String> SUGGESTIONS_HIGH = List.of("今日喂养量充足，继续保持良好的喂养习惯");
+	private static final List<String> SUGGESTIONS_NORMAL = List.of("今日喂养量在正常范围内，宝宝发育良好");
+
+	private final int[] counts = new int[TYPES.length];
+	private final double[] amounts = new double[TYPES.length];
+	private final long[] durations = new long[TYPES.length];
+
+	StatisticsAccumulator add(RecordType type, long count, double amount, long duration) {
+		int i = type.ordinal();
+		counts[i] += (int) count;
+		amounts[i] += amount;
+		durations[i] += duration;
+		return this;
+	}
+
+	StatisticsAccumulator add(RecordTypeAggregate aggregate) {
+		Double amount = aggregate.getTotalAmount();
+		Long duration = aggregate.getTotalDuration();
+		return add(aggregate.getType(), aggregate.getCount(),
+				amount != null ? amount : 0.0,
+				duration != null ? duration : 0L);
+	}
+
+	public StatisticsAccumulator addAll(List<? extends RecordTypeAggregate> aggregates) {
+		for (RecordTypeAggregate aggregate : aggregates) {
+			add(aggregate);
+		}
+		return this;
+	}
+
+	public StatisticsSummary toSummary() {
+		int breastfeeding = RecordType.BREASTFEEDING.ordinal();
+		int bottle = RecordType.BOTTLE.ordinal();
+		int formula = RecordType.FORMULA.ordinal();
+		int solid = RecordType.SOLID.ordinal();
+		int water = RecordType.WATER.ordinal();
+
+		int totalFeedingCount = counts[breastfeeding] + counts[bottle] + counts[formula] + counts[solid];
+		double totalFeedingAmount = durations[breastfeeding] * BREASTFEEDING_ML_PER_MINUTE + amounts[bottle] + amounts[formula];
+
+		StatisticsSummary.Feeding feeding = new StatisticsSummary.Feeding(
+				new StatisticsSummary.DurationTotal(counts[breastfeeding], durations[breastfeeding]),
+				new StatisticsSummary.AmountTotal(counts[bottle], amounts[bottle]),
+				new StatisticsSummary.AmountTotal(counts[formula], amounts[formula]),
+				new StatisticsSummary.Count(counts[solid]),
+				new StatisticsSummary.AmountTotal(counts[water], amounts[water]),
+				new StatisticsSummary.FeedingTotal(totalFeedingCount, totalFeedingAmount));
+		return new StatisticsSummary(feeding,
+				new StatisticsSummary.Count(counts[RecordType.DIAPER.ordinal()]),
+				new StatisticsSummary.Count(counts[RecordType.GROWTH.ordinal()]),
+				suggestions(totalFeedingAmount));
+	}
+
+	/**
+	 * 生成喂养建议
+	 * 这里可以根据宝宝年龄、体重等因素生成个性化建议，目前提供基础建议
+	 * @param totalAmount 总喂养量
+	 * @return 建议列表
+	 */
+	static List<String> suggestions(double totalAmount) {
+		if (totalAmount < 400) {
+			return SUGGESTIONS_LOW;
+		}
+		if (totalAmount > 1000) {
+			return SUGGESTIONS_HIGH;
+		}
+		return SUGGESTIONS_NORMAL;
+	}
+}
@@ -0,0 +1,127 @@
+package com.yuyingbao.app.service;
+
+import com.yuyingbao.app.config.CacheConfig;
+import com.yuyingbao.app.dto.GrowthTrend;
+import com.yuyingbao.app.dto.StatisticsSummary;
+import com.yuyingbao.app.model.entity.Record;
+import com.yuyingbao.app.model.enums.RecordType;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * 统计结果缓存
+ * 今日统计按 宝宝/家庭 + 日期 缓存，成长曲线按 宝宝 + 天数 + 点数 + 日期 缓存；
+ * 记录写入时只失效受影响的条目
+ */
+@Component
+public class StatisticsCache {
+	private final Cache todayStatistics;
+	private final Cache familyTodayStatistics;
+	private final Cache growthTrend;
+
+	public StatisticsCache(CacheManager cacheManager) {
+		this.todayStatistics = cacheManager.getCache(CacheConfig.TODAY_STATISTICS);
+		this.familyTodayStatistics = cacheManager.getCache(CacheConfig.FAMILY_TODAY_STATISTICS);
+		this.growthTrend = cacheManager.getCache(CacheConfig.GROWTH_TREND);
+	}
+
+	public StatisticsSummary babyToday(Long babyId, LocalDate date, Supplier<StatisticsSummary> loader) {
+		return todayStatistics.get(new DayKey(babyId, date), loader::get);
+	}
+
+	public StatisticsSummary familyToday(Long familyId, LocalDate date, Supplier<StatisticsSummary> loader) {
+		return familyTodayStatistics.get(new DayKey(familyId, date), loader::get);
+	}
+
+	public GrowthTrend growthTrend(Long babyId, int days, int points, LocalDate date, Supplier<GrowthTrend> loader) {
+		return growthTrend.get(new TrendKey(babyId, days, points, date), loader::get);
+	}
+
+	/**
+	 * 失效受某条记录影响的缓存
+	 * 立即失效一次，事务提交后再失效一次，避免提交前的并发读取把旧值重新写回缓存
+	 * @param record 新增、删除的记录，或修改前/修改后的记录
+	 */
+	public void evict(Record record) {
+		// 先取出键，记录对象之后可能被修改
+		Long babyId = record.getBabyId();
+		Long familyId = record.getFamilyId();
+		LocalDate statDate = BabyDailyStatsService.toStatDate(record.getHappenedAt());
+		boolean growth = record.getType() == RecordType.GROWTH;
+
+		Runnable eviction = () -> {
+			todayStatistics.evict(new DayKey(babyId, statDate));
+			familyTodayStatistics.evict(new DayKey(familyId, statDate));
+			if (growth) {
+				evictGrowthTrend(babyId);
+			}
+		};
+		eviction.run();
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					eviction.run();
+				}
+			});
+		}
+	}
+
+	/**
+	 * 失效某个宝宝及其家庭的全部统计缓存，用于批量导入等一次写入大量日期的场景
+	 * 与 evict 一样立即失效一次，事务提交后再失效一次
+	 * @param babyId 宝宝ID
+	 * @param familyId 家庭ID
+	 */
+	public void evictBaby(Long babyId, Long familyId) {
+		Runnable eviction = () -> {
+			removeIf(todayStatistics, key -> key instanceof DayKey dayKey && dayKey.id().equals(babyId));
+			removeIf(familyTodayStatistics, key -> key instanceof DayKey dayKey && dayKey.id().equals(familyId));
+			evictGrowthTrend(babyId);
+		};
+		eviction.run();
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					eviction.run();
+				}
+			});
+		}
+	}
+
+	/**
+	 * 清空全部统计缓存，用于每日汇总被整体重建之后
+	 */
+	public void clear() {
+		todayStatistics.clear();
+		familyTodayStatistics.clear();
+		growthTrend.clear();
+	}
+
+	private void evictGrowthTrend(Long babyId) {
+		// 成长曲线的键包含天数和点数，按宝宝批量移除
+		removeIf(growthTrend, key -> key instanceof TrendKey trendKey && trendKey.babyId().equals(babyId));
+	}
+
+	private static void removeIf(Cache cache, Predicate<Object> filter) {
+		if (cache.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> nativeCache) {
+			nativeCache.asMap().keySet().removeIf(filter);
+		} else {
+			cache.clear();
+		}
+	}
+
+	private record DayKey(Long id, LocalDate date) {
+	}
+
+	private record TrendKey(Long babyId, int days, int points, LocalDate date) {
+	}
+}
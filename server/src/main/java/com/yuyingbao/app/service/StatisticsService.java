@@ -1,24 +1,62 @@
 package com.yuyingbao.app.service;
 
-import com.yuyingbao.app.model.entity.Record;
+import com.yuyingbao.app.dto.BabyStatistics;
+import com.yuyingbao.app.dto.GrowthTrend;
+import com.yuyingbao.app.dto.StatisticsSummary;
+import com.yuyingbao.app.model.entity.Baby;
+import com.yuyingbao.app.model.enums.Gender;
 import com.yuyingbao.app.model.enums.RecordType;
+import com.yuyingbao.app.model.enums.StatisticsGranularity;
+import com.yuyingbao.app.repository.BabyDailyStatRepository;
+import com.yuyingbao.app.repository.BabyRepository;
 import com.yuyingbao.app.repository.RecordRepository;
+import com.yuyingbao.app.repository.projection.BabyTypeAggregate;
+import com.yuyingbao.app.repository.projection.DailyTypeAggregate;
+import com.yuyingbao.app.repository.projection.RecordTypeAggregate;
 import org.springframework.stereotype.Service;
 
+import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.OffsetDateTime;
+import java.time.YearMonth;
 import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
 @Service
 public class StatisticsService {
 
+    // 时间序列单次最多返回的时间段数
+    public static final int MAX_SERIES_BUCKETS = 366;
+    // 成长曲线的最大天数与每项指标的点数范围
+    public static final int MAX_TREND_DAYS = 3660;
+    public static final int DEFAULT_TREND_POINTS = 200;
+    public static final int MIN_TREND_POINTS = 3;
+    public static final int MAX_TREND_POINTS = 2000;
+
+    private static final double MILLIS_PER_MONTH = WhoGrowthStandards.DAYS_PER_MONTH * 24 * 60 * 60 * 1000;
+
     private final RecordRepository recordRepository;
+    private final BabyDailyStatRepository babyDailyStatRepository;
+    private final BabyRepository babyRepository;
+    private final StatisticsCache statisticsCache;
+    private final WhoGrowthStandards whoGrowthStandards;
 
-    public StatisticsService(RecordRepository recordRepository) {
+    public StatisticsService(RecordRepository recordRepository, BabyDailyStatRepository babyDailyStatRepository,
+                             BabyRepository babyRepository, StatisticsCache statisticsCache,
+                             WhoGrowthStandards whoGrowthStandards) {
         this.recordRepository = recordRepository;
+        this.babyDailyStatRepository = babyDailyStatRepository;
+        this.babyRepository = babyRepository;
+        this.statisticsCache = statisticsCache;
+        this.whoGrowthStandards = whoGrowthStandards;
     }
 
     /**
@@ -26,30 +64,63 @@ public class StatisticsService {
      * @param babyId 宝宝ID
      * @return 统计数据
      */
-    public Map<String, Object> getTodayStatistics(Long babyId) {
-        // 获取今天的开始和结束时间
-        OffsetDateTime startOfDay = LocalDate.now().atStartOfDay(ZoneId.systemDefault()).toOffsetDateTime();
-        OffsetDateTime endOfDay = startOfDay.plusDays(1);
-
-        // 查询今天的记录
-        List<Record> todayRecords = recordRepository.findByBabyIdAndHappenedAtBetween(
-                babyId, startOfDay, endOfDay);
+    public StatisticsSummary getTodayStatistics(Long babyId) {
+        LocalDate today = LocalDate.now(BabyDailyStatsService.ZONE);
 
-        return calculateStatistics(todayRecords);
+        // 读取今天的每日汇总，结果按宝宝和日期缓存
+        return statisticsCache.babyToday(babyId, today, () -> calculateStatistics(
+                babyDailyStatRepository.aggregateByBabyIdAndStatDateBetween(babyId, today, today)));
     }
 
     /**
      * 获取宝宝指定日期范围的统计数据
+     * 范围内的完整自然日读取每日汇总，首尾不完整的部分直接聚合原始记录
      * @param babyId 宝宝ID
      * @param startDate 开始日期
      * @param endDate 结束日期
      * @return 统计数据
      */
-    public Map<String, Object> getStatistics(Long babyId, OffsetDateTime startDate, OffsetDateTime endDate) {
-        List<Record> records = recordRepository.findByBabyIdAndHappenedAtBetween(
-                babyId, startDate, endDate);
+    public StatisticsSummary getStatistics(Long babyId, OffsetDateTime startDate, OffsetDateTime endDate) {
+        RangeSplit range = RangeSplit.of(startDate, endDate);
+        if (!range.hasFullDays()) {
+            return calculateStatistics(recordRepository.aggregateByBabyIdAndHappenedAtBetween(
+                    babyId, startDate, endDate));
+        }
 
-        return calculateStatistics(records);
+        return new StatisticsAccumulator()
+                // [startDate, 第一个完整日零点)
+                .addAll(recordRepository.aggregateByBabyIdAndHappenedAtFrom(babyId, startDate, range.firstFullDayStart()))
+                // 完整自然日
+                .addAll(babyDailyStatRepository.aggregateByBabyIdAndStatDateBetween(babyId, range.firstFullDay(), range.lastFullDay()))
+                // [最后一个完整日的次日零点, endDate]
+                .addAll(recordRepository.aggregateByBabyIdAndHappenedAtBetween(babyId, range.fullDaysEnd(), endDate))
+                .toSummary();
+    }
+
+    /**
+     * 时间范围按服务器时区拆分为：开头不完整的部分、完整自然日、结尾不完整的部分
+     */
+    private record RangeSplit(LocalDate firstFullDay, OffsetDateTime firstFullDayStart,
+                              LocalDate lastFullDay, OffsetDateTime fullDaysEnd) {
+
+        static RangeSplit of(OffsetDateTime startDate, OffsetDateTime endDate) {
+            ZoneId zone = BabyDailyStatsService.ZONE;
+            // 第一个完整自然日：开始时间恰好是零点则为当天，否则为次日
+            LocalDate firstFullDay = startDate.atZoneSameInstant(zone).toLocalDate();
+            OffsetDateTime firstFullDayStart = firstFullDay.atStartOfDay(zone).toOffsetDateTime();
+            if (firstFullDayStart.isBefore(startDate)) {
+                firstFullDay = firstFullDay.plusDays(1);
+                firstFullDayStart = firstFullDay.atStartOfDay(zone).toOffsetDateTime();
+            }
+            // 最后一个完整自然日：结束时间所在日期的前一天
+            LocalDate lastFullDay = endDate.atZoneSameInstant(zone).toLocalDate().minusDays(1);
+            OffsetDateTime fullDaysEnd = lastFullDay.plusDays(1).atStartOfDay(zone).toOffsetDateTime();
+            return new RangeSplit(firstFullDay, firstFullDayStart, lastFullDay, fullDaysEnd);
+        }
+
+        boolean hasFullDays() {
+            return !lastFullDay.isBefore(firstFullDay);
+        }
     }
 
     /**
@@ -57,169 +128,338 @@ public class StatisticsService {
      * @param familyId 家庭ID
      * @return 统计数据
      */
-    public Map<String, Object> getFamilyTodayStatistics(Long familyId) {
-        // 获取今天的开始和结束时间
-        OffsetDateTime startOfDay = LocalDate.now().atStartOfDay(ZoneId.systemDefault()).toOffsetDateTime();
-        OffsetDateTime endOfDay = startOfDay.plusDays(1);
+    public StatisticsSummary getFamilyTodayStatistics(Long familyId) {
+        LocalDate today = LocalDate.now(BabyDailyStatsService.ZONE);
 
-        // 查询今天的记录
-        List<Record> todayRecords = recordRepository.findByFamilyIdAndHappenedAtBetween(
-                familyId, startOfDay, endOfDay);
+        // 读取今天的每日汇总，结果按家庭和日期缓存
+        return statisticsCache.familyToday(familyId, today, () -> calculateStatistics(
+                babyDailyStatRepository.aggregateByFamilyIdAndStatDateBetween(familyId, today, today)));
+    }
 
-        return calculateStatistics(todayRecords);
+    /**
+     * 获取家庭内每个宝宝的今日统计
+     * 一次按 宝宝+类型 分组的查询读取所有宝宝的每日汇总，查询次数与宝宝数量无关
+     * @param familyId 家庭ID
+     * @return 每个宝宝的统计，按宝宝ID排序，没有记录的宝宝返回全零统计
+     */
+    public List<BabyStatistics> getFamilyBabiesTodayStatistics(Long familyId) {
+        LocalDate today = LocalDate.now(BabyDailyStatsService.ZONE);
+        List<Baby> babies = babyRepository.findByFamilyId(familyId);
+        Map<Long, StatisticsAccumulator> accumulators = babyAccumulators(babies);
+        addByBaby(accumulators, babyDailyStatRepository.aggregateBabiesByFamilyIdAndStatDateBetween(familyId, today, today));
+        return toBabyStatistics(babies, accumulators);
     }
 
     /**
-     * 计算统计数据
-     * @param records 记录列表
-     * @return 统计结果
+     * 获取家庭内每个宝宝指定时间范围的统计
+     * 与 getStatistics 相同的拆分方式，但每一段都是对整个家庭的一次分组查询
+     * @param familyId 家庭ID
+     * @param startDate 开始时间
+     * @param endDate 结束时间
+     * @return 每个宝宝的统计，按宝宝ID排序，没有记录的宝宝返回全零统计
      */
-    private Map<String, Object> calculateStatistics(List<Record> records) {
-        Map<String, Object> statistics = new HashMap<>();
-        
-        // 喂养统计
-        Map<String, Object> feedingStats = new HashMap<>();
-        int breastfeedingCount = 0;
-        int breastfeedingDuration = 0;
-        int bottleCount = 0;
-        double bottleAmount = 0.0;
-        int formulaCount = 0;
-        double formulaAmount = 0.0;
-        int solidCount = 0;
-        int waterCount = 0;
-        double waterAmount = 0.0;
-        
-        // 其他统计
-        int diaperCount = 0;
-        int growthCount = 0;
-        
-        // 总喂养量（ml）- 母乳按10ml/分钟估算
-        double totalFeedingAmount = 0.0;
-        int totalFeedingCount = 0;
-
-        for (Record record : records) {
-            switch (record.getType()) {
-                case BREASTFEEDING:
-                    breastfeedingCount++;
-                    totalFeedingCount++;
-                    if (record.getDurationMin() != null) {
-                        breastfeedingDuration += record.getDurationMin();
-                        // 母乳按10ml/分钟估算
-                        totalFeedingAmount += record.getDurationMin() * 10;
-                    }
-                    break;
-                case BOTTLE:
-                    bottleCount++;
-                    totalFeedingCount++;
-                    if (record.getAmountMl() != null) {
-                        bottleAmount += record.getAmountMl();
-                        totalFeedingAmount += record.getAmountMl();
-                    }
-                    break;
-                case FORMULA:
-                    formulaCount++;
-                    totalFeedingCount++;
-                    if (record.getAmountMl() != null) {
-                        formulaAmount += record.getAmountMl();
-                        totalFeedingAmount += record.getAmountMl();
-                    }
-                    break;
-                case SOLID:
-                    solidCount++;
-                    totalFeedingCount++;
-                    break;
-                case WATER:
-                    waterCount++;
-                    if (record.getAmountMl() != null) {
-                        waterAmount += record.getAmountMl();
-                    }
-                    break;
-                case DIAPER:
-                    diaperCount++;
-                    break;
-                case GROWTH:
-                    growthCount++;
-                    break;
-            }
+    public List<BabyStatistics> getFamilyBabiesStatistics(Long familyId, OffsetDateTime startDate, OffsetDateTime endDate) {
+        List<Baby> babies = babyRepository.findByFamilyId(familyId);
+        Map<Long, StatisticsAccumulator> accumulators = babyAccumulators(babies);
+        RangeSplit range = RangeSplit.of(startDate, endDate);
+        if (!range.hasFullDays()) {
+            addByBaby(accumulators, recordRepository.aggregateBabiesByFamilyIdAndHappenedAtBetween(familyId, startDate, endDate));
+        } else {
+            addByBaby(accumulators, recordRepository.aggregateBabiesByFamilyIdAndHappenedAtFrom(
+                    familyId, startDate, range.firstFullDayStart()));
+            addByBaby(accumulators, babyDailyStatRepository.aggregateBabiesByFamilyIdAndStatDateBetween(
+                    familyId, range.firstFullDay(), range.lastFullDay()));
+            addByBaby(accumulators, recordRepository.aggregateBabiesByFamilyIdAndHappenedAtBetween(
+                    familyId, range.fullDaysEnd(), endDate));
         }
+        return toBabyStatistics(babies, accumulators);
+    }
 
-        // 构建喂养统计
-        feedingStats.put("breastfeeding", Map.of(
-                "count", breastfeedingCount,
-                "totalDuration", breastfeedingDuration
-        ));
-        feedingStats.put("bottle", Map.of(
-                "count", bottleCount,
-                "totalAmount", bottleAmount
-        ));
-        feedingStats.put("formula", Map.of(
-                "count", formulaCount,
-                "totalAmount", formulaAmount
-        ));
-        feedingStats.put("solid", Map.of(
-                "count", solidCount
-        ));
-        feedingStats.put("water", Map.of(
-                "count", waterCount,
-                "totalAmount", waterAmount
-        ));
-        feedingStats.put("total", Map.of(
-                "count", totalFeedingCount,
-                "amount", totalFeedingAmount
-        ));
+    private static Map<Long, StatisticsAccumulator> babyAccumulators(List<Baby> babies) {
+        Map<Long, StatisticsAccumulator> accumulators = new HashMap<>();
+        for (Baby baby : babies) {
+            accumulators.put(baby.getId(), new StatisticsAccumulator());
+        }
+        return accumulators;
+    }
 
-        statistics.put("feeding", feedingStats);
-        statistics.put("diaper", Map.of("count", diaperCount));
-        statistics.put("growth", Map.of("count", growthCount));
-        
-        // 添加建议
-        List<String> suggestions = generateSuggestions(totalFeedingAmount, totalFeedingCount, diaperCount);
-        statistics.put("suggestions", suggestions);
+    private static void addByBaby(Map<Long, StatisticsAccumulator> accumulators, List<BabyTypeAggregate> rows) {
+        for (BabyTypeAggregate row : rows) {
+            StatisticsAccumulator accumulator = accumulators.get(row.getBabyId());
+            // 宝宝已不属于该家庭时忽略其历史汇总
+            if (accumulator != null) {
+                accumulator.add(row);
+            }
+        }
+    }
 
-        return statistics;
+    private static List<BabyStatistics> toBabyStatistics(List<Baby> babies, Map<Long, StatisticsAccumulator> accumulators) {
+        return babies.stream()
+                .sorted(Comparator.comparing(Baby::getId))
+                .map(baby -> new BabyStatistics(baby.getId(), baby.getName(), accumulators.get(baby.getId()).toSummary()))
+                .toList();
     }
 
     /**
-     * 生成喂养建议
-     * @param totalAmount 总喂养量
-     * @param feedingCount 喂养次数
-     * @param diaperCount 大便次数
-     * @return 建议列表
+     * 获取宝宝按天/周/月分段的统计序列
+     * 一次分组查询读取每日汇总，在内存中归入各时间段，没有数据的时间段补零；
+     * 返回列式数组，buckets[i] 对应各序列的第 i 个值
+     * @param babyId 宝宝ID
+     * @param granularity 分段粒度，周以周一为起点，月以1号为起点
+     * @param from 开始日期（包含），会对齐到所在时间段的起点；为空时按粒度取默认范围
+     * @param to 结束日期（包含），为空时为今天
+     * @param types 记录类型，为空时返回全部类型
+     * @return 序列数据
      */
-    private List<String> generateSuggestions(double totalAmount, int feedingCount, int diaperCount) {
-        List<String> suggestions = List.of();
-        
-        // 这里可以根据宝宝年龄、体重等因素生成个性化建议
-        // 目前提供基础建议
-        if (totalAmount < 400) {
-            suggestions = List.of("今日喂养量偏少，建议适当增加喂奶次数");
-        } else if (totalAmount > 1000) {
-            suggestions = List.of("今日喂养量充足，继续保持良好的喂养习惯");
-        } else {
-            suggestions = List.of("今日喂养量在正常范围内，宝宝发育良好");
+    public Map<String, Object> getSeries(Long babyId, StatisticsGranularity granularity, LocalDate from, LocalDate to,
+                                         List<RecordType> types) {
+        LocalDate end = to != null ? to : LocalDate.now(BabyDailyStatsService.ZONE);
+        LocalDate start = bucketStart(from != null ? from : defaultSeriesFrom(granularity, end), granularity);
+        if (start.isAfter(end)) {
+            throw new IllegalArgumentException("开始日期不能晚于结束日期");
+        }
+
+        List<String> buckets = new ArrayList<>();
+        for (LocalDate bucket = start; !bucket.isAfter(end); bucket = nextBucket(bucket, granularity)) {
+            if (buckets.size() == MAX_SERIES_BUCKETS) {
+                throw new IllegalArgumentException("统计区间过长，最多支持" + MAX_SERIES_BUCKETS + "个时间段");
+            }
+            buckets.add(bucket.toString());
+        }
+        List<RecordType> seriesTypes = types == null || types.isEmpty()
+                ? List.of(RecordType.values())
+                : types.stream().distinct().toList();
+
+        int size = buckets.size();
+        Map<RecordType, int[]> counts = new EnumMap<>(RecordType.class);
+        Map<RecordType, double[]> amounts = new EnumMap<>(RecordType.class);
+        Map<RecordType, long[]> durations = new EnumMap<>(RecordType.class);
+        for (RecordType type : seriesTypes) {
+            counts.put(type, new int[size]);
+            amounts.put(type, new double[size]);
+            durations.put(type, new long[size]);
+        }
+        // 喂养合计，口径与 calculateStatistics 一致：母乳按10ml/分钟估算
+        int[] feedingCount = new int[size];
+        double[] feedingAmount = new double[size];
+
+        for (DailyTypeAggregate row : babyDailyStatRepository.aggregateDailyByBabyIdAndStatDateBetween(
+                babyId, start, end, seriesTypes)) {
+            int index = bucketIndex(start, row.getStatDate(), granularity);
+            RecordType type = row.getType();
+            int count = (int) row.getCount();
+            double amount = row.getTotalAmount() != null ? row.getTotalAmount() : 0.0;
+            long duration = row.getTotalDuration() != null ? row.getTotalDuration() : 0L;
+            counts.get(type)[index] += count;
+            amounts.get(type)[index] += amount;
+            durations.get(type)[index] += duration;
+            switch (type) {
+                case BREASTFEEDING -> {
+                    feedingCount[index] += count;
+                    feedingAmount[index] += duration * StatisticsAccumulator.BREASTFEEDING_ML_PER_MINUTE;
+                }
+                case BOTTLE, FORMULA -> {
+                    feedingCount[index] += count;
+                    feedingAmount[index] += amount;
+                }
+                case SOLID -> feedingCount[index] += count;
+                default -> {
+                }
+            }
+        }
+
+        Map<String, Object> series = new LinkedHashMap<>();
+        for (RecordType type : seriesTypes) {
+            series.put(type.name(), Map.of(
+                    "count", counts.get(type),
+                    "amount", amounts.get(type),
+                    "duration", durations.get(type)
+            ));
         }
 
-        return suggestions;
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("babyId", babyId);
+        result.put("granularity", granularity.name().toLowerCase());
+        result.put("from", start.toString());
+        result.put("to", end.toString());
+        result.put("buckets", buckets);
+        result.put("series", series);
+        result.put("feeding", Map.of(
+                "count", feedingCount,
+                "amount", feedingAmount
+        ));
+        return result;
+    }
+
+    private static LocalDate defaultSeriesFrom(StatisticsGranularity granularity, LocalDate end) {
+        return switch (granularity) {
+            case DAY -> end.minusDays(6);
+            case WEEK -> end.minusWeeks(5);
+            case MONTH -> end.minusMonths(2);
+        };
+    }
+
+    private static LocalDate bucketStart(LocalDate date, StatisticsGranularity granularity) {
+        return switch (granularity) {
+            case DAY -> date;
+            case WEEK -> date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case MONTH -> date.withDayOfMonth(1);
+        };
+    }
+
+    private static LocalDate nextBucket(LocalDate bucket, StatisticsGranularity granularity) {
+        return switch (granularity) {
+            case DAY -> bucket.plusDays(1);
+            case WEEK -> bucket.plusWeeks(1);
+            case MONTH -> bucket.plusMonths(1);
+        };
+    }
+
+    private static int bucketIndex(LocalDate start, LocalDate date, StatisticsGranularity granularity) {
+        return switch (granularity) {
+            case DAY -> (int) ChronoUnit.DAYS.between(start, date);
+            case WEEK -> (int) (ChronoUnit.DAYS.between(start, date) / 7);
+            case MONTH -> (int) ChronoUnit.MONTHS.between(YearMonth.from(start), YearMonth.from(date));
+        };
     }
 
     /**
-     * 获取宝宝成长趋势数据
+     * 计算统计数据
+     * @param aggregates 按记录类型分组的聚合结果
+     * @return 统计结果
+     */
+    private StatisticsSummary calculateStatistics(List<RecordTypeAggregate> aggregates) {
+        return new StatisticsAccumulator().addAll(aggregates).toSummary();
+    }
+
+    /**
+     * 获取宝宝成长曲线
+     * 一次范围查询只读取时间、体重和身高三列，体重和身高分别用 LTTB 降采样到 points 个点以内，
+     * 再附上同一时间范围内的 WHO 百分位曲线
      * @param babyId 宝宝ID
      * @param days 天数
-     * @return 趋势数据
+     * @param points 体重、身高各自最多返回的点数
+     * @return 成长曲线
      */
-    public Map<String, Object> getGrowthTrend(Long babyId, int days) {
+    public GrowthTrend getGrowthTrend(Long babyId, int days, int points) {
+        if (days < 1 || days > MAX_TREND_DAYS) {
+            throw new IllegalArgumentException("days 必须在1到" + MAX_TREND_DAYS + "之间");
+        }
+        if (points < MIN_TREND_POINTS || points > MAX_TREND_POINTS) {
+            throw new IllegalArgumentException("points 必须在" + MIN_TREND_POINTS + "到" + MAX_TREND_POINTS + "之间");
+        }
+        LocalDate today = LocalDate.now(BabyDailyStatsService.ZONE);
+        return statisticsCache.growthTrend(babyId, days, points, today, () -> loadGrowthTrend(babyId, days, points));
+    }
+
+    private GrowthTrend loadGrowthTrend(Long babyId, int days, int points) {
         OffsetDateTime endDate = OffsetDateTime.now();
         OffsetDateTime startDate = endDate.minusDays(days);
 
-        List<Record> growthRecords = recordRepository.findByBabyIdAndTypeAndHappenedAtBetweenOrderByHappenedAtAsc(
-                babyId, RecordType.GROWTH, startDate, endDate);
+        // 每行为 happenedAt, weightKg, heightCm，按时间正序
+        List<Object[]> rows = recordRepository.findGrowthColumnsByBabyIdAndHappenedAtBetween(babyId, startDate, endDate);
+        long[] times = new long[rows.size()];
+        for (int i = 0; i < times.length; i++) {
+            times[i] = ((OffsetDateTime) rows.get(i)[0]).toInstant().toEpochMilli();
+        }
+        boolean[] keep = new boolean[rows.size()];
+        int kept = markSelected(rows, times, 1, points, keep);
+        kept += markSelected(rows, times, 2, points, keep);
+
+        long[] t = new long[kept];
+        Double[] weightKg = new Double[kept];
+        Double[] heightCm = new Double[kept];
+        int k = 0;
+        for (int i = 0; i < keep.length; i++) {
+            if (keep[i]) {
+                Object[] row = rows.get(i);
+                t[k] = times[i];
+                weightKg[k] = (Double) row[1];
+                heightCm[k] = (Double) row[2];
+                k++;
+            }
+        }
 
-        Map<String, Object> trend = new HashMap<>();
-        trend.put("babyId", babyId);
-        trend.put("days", days);
-        trend.put("records", growthRecords);
+        GrowthTrend.WhoCurves who = babyRepository.findById(babyId)
+                .map(baby -> whoCurves(baby, startDate, endDate))
+                .orElse(null);
+        return new GrowthTrend(babyId, days, rows.size(), t, weightKg, heightCm, who);
+    }
+
+    /**
+     * 对某一列不为空的行做 LTTB 降采样，把选中且尚未保留的行标记为保留
+     * @return 新标记的行数
+     */
+    private static int markSelected(List<Object[]> rows, long[] times, int column, int points, boolean[] keep) {
+        int[] rowIndex = new int[rows.size()];
+        long[] x = new long[rows.size()];
+        double[] y = new double[rows.size()];
+        int count = 0;
+        for (int i = 0; i < rows.size(); i++) {
+            Object value = rows.get(i)[column];
+            if (value != null) {
+                rowIndex[count] = i;
+                x[count] = times[i];
+                y[count] = ((Number) value).doubleValue();
+                count++;
+            }
+        }
+        int marked = 0;
+        for (int index : Lttb.select(x, y, count, points)) {
+            if (!keep[rowIndex[index]]) {
+                keep[rowIndex[index]] = true;
+                marked++;
+            }
+        }
+        return marked;
+    }
+
+    /**
+     * 时间范围内的 WHO 百分位曲线，每个整月龄一个采样点，再加上范围的两端
+     * @return 曲线，性别未知或范围与标准的月龄没有交集时返回 null
+     */
+    private GrowthTrend.WhoCurves whoCurves(Baby baby, OffsetDateTime startDate, OffsetDateTime endDate) {
+        if (baby.getBirthDate() == null || !whoGrowthStandards.supports(baby.getGender())) {
+            return null;
+        }
+        long birth = baby.getBirthDate().atStartOfDay(BabyDailyStatsService.ZONE).toInstant().toEpochMilli();
+        double from = Math.max(ageMonths(birth, startDate), 0);
+        double to = Math.min(ageMonths(birth, endDate), WhoGrowthStandards.MAX_MONTH);
+        if (from > to) {
+            return null;
+        }
+        int firstMonth = (int) Math.floor(from) + 1;
+        int lastMonth = (int) Math.ceil(to) - 1;
+        double[] ages = new double[Math.max(lastMonth - firstMonth + 1, 0) + 2];
+        ages[0] = from;
+        for (int month = firstMonth; month <= lastMonth; month++) {
+            ages[month - firstMonth + 1] = month;
+        }
+        ages[ages.length - 1] = to;
+
+        long[] t = new long[ages.length];
+        for (int i = 0; i < ages.length; i++) {
+            t[i] = birth + Math.round(ages[i] * MILLIS_PER_MONTH);
+        }
+        return new GrowthTrend.WhoCurves(t,
+                percentiles(WhoGrowthStandards.Indicator.WEIGHT, baby.getGender(), ages),
+                percentiles(WhoGrowthStandards.Indicator.LENGTH, baby.getGender(), ages));
+    }
+
+    private GrowthTrend.Percentiles percentiles(WhoGrowthStandards.Indicator indicator, Gender gender, double[] ages) {
+        WhoGrowthStandards.Percentile[] levels = WhoGrowthStandards.Percentile.values();
+        double[][] values = new double[levels.length][ages.length];
+        for (int level = 0; level < levels.length; level++) {
+            for (int i = 0; i < ages.length; i++) {
+                // 保留两位小数，足够绘图且减小响应体积
+                double value = whoGrowthStandards.value(indicator, gender, ages[i], levels[level].getZ());
+                values[level][i] = Math.round(value * 100) / 100.0;
+            }
+        }
+        return new GrowthTrend.Percentiles(values[0], values[1], values[2], values[3], values[4]);
+    }
 
-        return trend;
+    private static double ageMonths(long birth, OffsetDateTime time) {
+        return (time.toInstant().toEpochMilli() - birth) / MILLIS_PER_MONTH;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,226 @@
+package com.yuyingbao.app.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yuyingbao.app.config.WeChatConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 微信服务端接口客户端
+ * 使用共享的 JDK HttpClient（连接复用、异步收发），每个请求有严格的连接与响应超时；
+ * 同时进行中的请求数有上限，超出时直接拒绝；连续失败时熔断，熔断期间不再访问微信。
+ * 微信不可用、熔断或超出并发上限时抛出 503，登录凭证无效时抛出 IllegalStateException
+ */
+@Component
+public class WeChatAuthClient {
+	private static final Logger log = LoggerFactory.getLogger(WeChatAuthClient.class);
+	// code 无效、已使用或过期
+	private static final Set<Integer> INVALID_CODE_ERRORS = Set.of(40029, 40163, 40226);
+	// 系统繁忙，计入熔断
+	private static final int SYSTEM_BUSY = -1;
+
+	private final WeChatConfig config;
+	private final ObjectMapper objectMapper;
+	private final HttpClient httpClient;
+	private final Semaphore permits;
+	private final CircuitBreaker circuitBreaker;
+	private final AtomicReference<AccessToken> accessToken = new AtomicReference<>();
+	// 进行中的 access_token 刷新，同一时间只有一个
+	private final AtomicReference<CompletableFuture<AccessToken>> refreshing = new AtomicReference<>();
+
+	public WeChatAuthClient(WeChatConfig config, ObjectMapper objectMapper) {
+		this.config = config;
+		this.objectMapper = objectMapper;
+		// 固定 HTTP/1.1 长连接，避免在明文地址（本地模拟服务）上每个请求都尝试 h2c 升级
+		this.httpClient = HttpClient.newBuilder()
+				.version(HttpClient.Version.HTTP_1_1)
+				.connectTimeout(Duration.ofMillis(config.getConnectTimeoutMs()))
+				.build();
+		this.permits = new Semaphore(config.getMaxConcurrentRequests());
+		this.circuitBreaker = new CircuitBreaker(config.getFailureThreshold(),
+				TimeUnit.MILLISECONDS.toNanos(config.getOpenDurationMs()));
+	}
+
+	/**
+	 * 小程序登录会话
+	 * @param unionId 未绑定开放平台时为 null
+	 * @param sessionKey 会话密钥，不应返回给客户端或写入日志
+	 */
+	public record Session(String openId, String unionId, String sessionKey) {
+	}
+
+	private record AccessToken(String value, Instant refreshAt, Instant expiresAt) {
+	}
+
+	public boolean isEnabled() {
+		return config.isEnabled();
+	}
+
+	/**
+	 * 用 wx.login 的 code 换取 openId 与会话密钥，等待结果
+	 */
+	public Session code2Session(String code) {
+		return await(code2SessionAsync(code));
+	}
+
+	/**
+	 * 用 wx.login 的 code 换取 openId 与会话密钥
+	 * 请求在 HttpClient 的线程上异步完成，调用线程不被占用
+	 */
+	public CompletableFuture<Session> code2SessionAsync(String code) {
+		URI uri = URI.create(config.getBaseUrl() + "/sns/jscode2session?appid=" + encode(config.getAppId())
+				+ "&secret=" + encode(config.getAppSecret()) + "&js_code=" + encode(code)
+				+ "&grant_type=authorization_code");
+		return send(uri).thenApply(body -> {
+			int errcode = body.path("errcode").asInt(0);
+			if (INVALID_CODE_ERRORS.contains(errcode)) {
+				throw new IllegalStateException("微信登录凭证无效或已过期");
+			}
+			if (errcode != 0 || !body.hasNonNull("openid")) {
+				throw unavailable("微信登录失败: " + body.path("errmsg").asText("errcode " + errcode));
+			}
+			return new Session(body.get("openid").asText(), body.path("unionid").asText(null),
+					body.path("session_key").asText(null));
+		});
+	}
+
+	/**
+	 * 接口调用凭证
+	 * 缓存到过期为止；进入过期前的刷新窗口后仍返回当前凭证，同时在后台刷新，
+	 * 只有没有凭证或凭证已过期时才等待刷新完成
+	 */
+	public String accessToken() {
+		AccessToken current = accessToken.get();
+		Instant now = Instant.now();
+		if (current == null || !now.isBefore(current.expiresAt())) {
+			return await(refreshAccessToken()).value();
+		}
+		if (!now.isBefore(current.refreshAt())) {
+			refreshAccessToken();
+		}
+		return current.value();
+	}
+
+	private CompletableFuture<AccessToken> refreshAccessToken() {
+		CompletableFuture<AccessToken> future = new CompletableFuture<>();
+		CompletableFuture<AccessToken> inFlight = refreshing.compareAndExchange(null, future);
+		if (inFlight != null) {
+			return inFlight;
+		}
+		URI uri = URI.create(config.getBaseUrl() + "/cgi-bin/token?grant_type=client_credential&appid="
+				+ encode(config.getAppId()) + "&secret=" + encode(config.getAppSecret()));
+		send(uri).thenApply(this::toAccessToken).whenComplete((token, e) -> {
+			if (token != null) {
+				accessToken.set(token);
+			} else {
+				log.warn("Failed to refresh WeChat access_token: {}", e.getMessage());
+			}
+			refreshing.set(null);
+			if (token != null) {
+				future.complete(token);
+			} else {
+				future.completeExceptionally(e);
+			}
+		});
+		return future;
+	}
+
+	private AccessToken toAccessToken(JsonNode body) {
+		if (!body.hasNonNull("access_token")) {
+			throw unavailable("获取微信 access_token 失败: " + body.path("errmsg").asText("errcode " + body.path("errcode").asInt()));
+		}
+		Instant now = Instant.now();
+		Instant expiresAt = now.plusSeconds(body.path("expires_in").asLong(7200));
+		Instant refreshAt = expiresAt.minusSeconds(config.getAccessTokenRefreshAheadSeconds());
+		return new AccessToken(body.get("access_token").asText(), refreshAt.isBefore(now) ? now : refreshAt, expiresAt);
+	}
+
+	/**
+	 * 发送 GET 请求并解析 JSON 响应
+	 * 先占用并发名额再询问熔断器，避免熔断器放行的试探请求因为没有名额而丢失
+	 */
+	private CompletableFuture<JsonNode> send(URI uri) {
+		if (!permits.tryAcquire()) {
+			return CompletableFuture.failedFuture(unavailable("微信接口请求过多，请稍后重试"));
+		}
+		if (!circuitBreaker.tryAcquire()) {
+			permits.release();
+			return CompletableFuture.failedFuture(unavailable("微信服务暂时不可用，请稍后重试"));
+		}
+		HttpRequest request = HttpRequest.newBuilder(uri)
+				.timeout(Duration.ofMillis(config.getReadTimeoutMs()))
+				.GET()
+				.build();
+		CompletableFuture<HttpResponse<String>> response;
+		try {
+			response = httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+		} catch (RuntimeException e) {
+			permits.release();
+			circuitBreaker.onFailure();
+			return CompletableFuture.failedFuture(unavailable("微信服务暂时不可用，请稍后重试"));
+		}
+		return response.handle((resp, e) -> {
+			permits.release();
+			if (e != null) {
+				circuitBreaker.onFailure();
+				log.warn("WeChat request {} failed: {}", uri.getPath(), e.toString());
+				throw unavailable("微信服务暂时不可用，请稍后重试");
+			}
+			JsonNode body = resp.statusCode() == 200 ? parse(resp.body()) : null;
+			if (body == null || body.path("errcode").asInt(0) == SYSTEM_BUSY) {
+				circuitBreaker.onFailure();
+				log.warn("WeChat request {} returned HTTP {}", uri.getPath(), resp.statusCode());
+				throw unavailable("微信服务暂时不可用，请稍后重试");
+			}
+			circuitBreaker.onSuccess();
+			return body;
+		});
+	}
+
+	private JsonNode parse(String body) {
+		try {
+			return objectMapper.readTree(body);
+		} catch (IOException e) {
+			return null;
+		}
+	}
+
+	private static <T> T await(CompletableFuture<T> future) {
+		try {
+			return future.join();
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof RuntimeException cause) {
+				throw cause;
+			}
+			throw e;
+		}
+	}
+
+	private static String encode(String value) {
+		return URLEncoder.encode(value != null ? value : "", StandardCharsets.UTF_8);
+	}
+
+	private static ResponseStatusException unavailable(String message) {
+		return new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, message);
+	}
+}
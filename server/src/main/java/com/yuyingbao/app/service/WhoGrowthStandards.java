@@ -0,0 +1,138 @@
+package com.yuyingbao.app.service;
+
+import com.yuyingbao.app.model.enums.Gender;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * WHO 儿童生长标准
+ * 启动时把 LMS 参数表读入按月龄排列的 double 数组，按 Box-Cox 公式 M·(1 + L·S·z)^(1/L) 计算任意月龄的百分位值，
+ * 月龄之间线性插值。目前收录 0-24 月龄的年龄别体重与年龄别身长
+ */
+@Component
+public class WhoGrowthStandards {
+	public static final String RESOURCE = "who/lms.csv";
+	// 表中最大的月龄
+	public static final int MAX_MONTH = 24;
+	// WHO 月龄换算使用的平均每月天数
+	public static final double DAYS_PER_MONTH = 30.4375;
+
+	/**
+	 * 生长指标
+	 */
+	public enum Indicator {
+		WEIGHT,
+		LENGTH
+	}
+
+	/**
+	 * 曲线展示的百分位及其对应的 z 值
+	 */
+	public enum Percentile {
+		P3(-1.8808),
+		P15(-1.0364),
+		P50(0),
+		P85(1.0364),
+		P97(1.8808);
+
+		private final double z;
+
+		Percentile(double z) {
+			this.z = z;
+		}
+
+		public double getZ() {
+			return z;
+		}
+	}
+
+	// [指标][性别] -> 按月龄交替排列的 L、M、S
+	private final double[][][] tables = new double[Indicator.values().length][2][];
+
+	public WhoGrowthStandards() {
+		for (double[][] bySex : tables) {
+			for (int sex = 0; sex < bySex.length; sex++) {
+				bySex[sex] = new double[(MAX_MONTH + 1) * 3];
+				Arrays.fill(bySex[sex], Double.NaN);
+			}
+		}
+		try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+				new ClassPathResource(RESOURCE).getInputStream(), StandardCharsets.UTF_8))) {
+			String line;
+			boolean header = true;
+			while ((line = reader.readLine()) != null) {
+				if (line.isBlank() || line.startsWith("#")) {
+					continue;
+				}
+				if (header) {
+					header = false;
+					continue;
+				}
+				String[] values = line.split(",");
+				double[] table = tables[Indicator.valueOf(values[0]).ordinal()][sexIndex(Gender.valueOf(values[1]))];
+				int offset = Integer.parseInt(values[2]) * 3;
+				table[offset] = Double.parseDouble(values[3]);
+				table[offset + 1] = Double.parseDouble(values[4]);
+				table[offset + 2] = Double.parseDouble(values[5]);
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException("无法读取 WHO 生长标准 " + RESOURCE, e);
+		}
+		for (double[][] bySex : tables) {
+			for (double[] table : bySex) {
+				for (double value : table) {
+					if (Double.isNaN(value)) {
+						throw new IllegalStateException("WHO 生长标准 " + RESOURCE + " 缺少部分月龄的数据");
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * 是否有该性别的标准
+	 */
+	public boolean supports(Gender gender) {
+		return gender == Gender.BOY || gender == Gender.GIRL;
+	}
+
+	/**
+	 * 计算某月龄的百分位值
+	 * @param indicator 生长指标
+	 * @param gender 性别，只支持 BOY、GIRL
+	 * @param ageMonths 月龄，可以是小数
+	 * @param z 百分位对应的 z 值
+	 * @return 指标值，月龄超出表的范围时返回 NaN
+	 */
+	public double value(Indicator indicator, Gender gender, double ageMonths, double z) {
+		if (!supports(gender)) {
+			throw new IllegalArgumentException("Unsupported gender: " + gender);
+		}
+		if (!(ageMonths >= 0 && ageMonths <= MAX_MONTH)) {
+			return Double.NaN;
+		}
+		double[] table = tables[indicator.ordinal()][sexIndex(gender)];
+		int month = Math.min((int) ageMonths, MAX_MONTH - 1);
+		double fraction = ageMonths - month;
+		int offset = month * 3;
+		double l = interpolate(table[offset], table[offset + 3], fraction);
+		double m = interpolate(table[offset + 1], table[offset + 4], fraction);
+		double s = interpolate(table[offset + 2], table[offset + 5], fraction);
+		return Math.abs(l) < 1e-9 ? m * Math.exp(s * z) : m * Math.pow(1 + l * s * z, 1 / l);
+	}
+
+	private static double interpolate(double from, double to, double fraction) {
+		return from + (to - from) * fraction;
+	}
+
+	private static int sexIndex(Gender gender) {
+		return gender == Gender.BOY ? 0 : 1;
+	}
+}
@@ -0,0 +1,19 @@
+-- 增量同步：每个宝宝维护一个数据版本号，记录的每次写入都会递增它
+-- 递增时会锁住宝宝行直到事务提交，因此同一宝宝的版本号按提交顺序单调递增，可以直接作为同步令牌
+ALTER TABLE app.babies ADD COLUMN IF NOT EXISTS data_version BIGINT NOT NULL DEFAULT 0;
+
+ALTER TABLE app.records ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE app.records ADD COLUMN IF NOT EXISTS updated_at TIMESTAMPTZ NOT NULL DEFAULT NOW();
+
+CREATE INDEX IF NOT EXISTS idx_records_baby_version ON app.records(baby_id, version, id);
+
+-- 删除墓碑：记录删除后保留其ID与删除时的版本号，供客户端同步删除
+CREATE TABLE IF NOT EXISTS app.record_tombstones (
+  record_id BIGINT PRIMARY KEY,
+  baby_id BIGINT NOT NULL,
+  family_id BIGINT NOT NULL,
+  version BIGINT NOT NULL,
+  deleted_at TIMESTAMPTZ NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_record_tombstones_baby_version ON app.record_tombstones(baby_id, version, record_id);
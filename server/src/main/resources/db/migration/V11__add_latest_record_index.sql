@@ -0,0 +1,8 @@
+-- 每种类型最新记录的索引
+-- /babies/{id}/records/latest 使用 DISTINCT ON (type) ... ORDER BY type, happened_at DESC, id DESC，
+-- 升序与降序混合的排序无法反向扫描原索引，这里按查询顺序建索引；
+-- 按类型的范围统计同样可以使用新索引，替换掉原来的 idx_records_baby_type_time
+CREATE INDEX IF NOT EXISTS idx_records_baby_type_latest ON app.records(baby_id, type, happened_at DESC, id DESC)
+  INCLUDE (amount_ml, duration_min);
+
+DROP INDEX IF EXISTS app.idx_records_baby_type_time;
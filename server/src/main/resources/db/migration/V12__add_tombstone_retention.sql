@@ -0,0 +1,6 @@
+-- 删除墓碑只保留一段时间，过期的墓碑由应用定期清理
+-- 清理时记录每个宝宝被清理掉的最大墓碑版本；同步令牌带有签发时的该值，
+-- 此后清理掉的墓碑若晚于令牌位置，客户端可能漏掉删除，需要重新全量同步
+ALTER TABLE app.babies ADD COLUMN IF NOT EXISTS tombstones_purged_version BIGINT NOT NULL DEFAULT 0;
+
+CREATE INDEX IF NOT EXISTS idx_record_tombstones_deleted_at ON app.record_tombstones(deleted_at);
@@ -0,0 +1,9 @@
+-- 以宝宝为中心的记录索引
+-- /babies/{id}/records 与统计接口均按 baby_id 查询，原有索引只覆盖 family_id
+-- 时间线索引带上 id，支持 (happened_at, id) 游标分页的有序扫描
+CREATE INDEX IF NOT EXISTS idx_records_baby_time ON app.records(baby_id, happened_at, id)
+  INCLUDE (type, amount_ml, duration_min);
+
+-- 按类型筛选与统计，INCLUDE 统计字段以支持仅索引扫描
+CREATE INDEX IF NOT EXISTS idx_records_baby_type_time ON app.records(baby_id, type, happened_at)
+  INCLUDE (amount_ml, duration_min);
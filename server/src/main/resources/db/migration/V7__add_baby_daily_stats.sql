@@ -0,0 +1,19 @@
+-- 宝宝每日统计汇总表
+-- 由记录的增删改在同一事务内增量维护，统计接口按天读取汇总行而不再扫描 records
+CREATE TABLE IF NOT EXISTS app.baby_daily_stats (
+  baby_id BIGINT NOT NULL,
+  family_id BIGINT NOT NULL,
+  stat_date DATE NOT NULL,
+  type VARCHAR(32) NOT NULL,
+  record_count INT NOT NULL DEFAULT 0,
+  total_amount DOUBLE PRECISION NOT NULL DEFAULT 0,
+  total_duration BIGINT NOT NULL DEFAULT 0,
+  CONSTRAINT pk_baby_daily_stats PRIMARY KEY (baby_id, stat_date, type, family_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_baby_daily_stats_family_date ON app.baby_daily_stats(family_id, stat_date);
+
+COMMENT ON TABLE app.baby_daily_stats IS '宝宝每日按记录类型汇总的统计';
+COMMENT ON COLUMN app.baby_daily_stats.stat_date IS '记录发生时间在服务器时区下的日期';
+COMMENT ON COLUMN app.baby_daily_stats.total_amount IS 'amount_ml 合计';
+COMMENT ON COLUMN app.baby_daily_stats.total_duration IS 'duration_min 合计';
@@ -0,0 +1,3 @@
+-- 记录主键改为 Hibernate pooled 序列分配（allocationSize = 50），使批量插入可以走 JDBC batch
+-- 每次 nextval 预留 50 个ID；现有数据的最大ID之后开始分配，不会冲突
+ALTER SEQUENCE app.records_id_seq INCREMENT BY 50;
@@ -0,0 +1,13 @@
+-- 写接口的幂等键：同一用户重复提交同一个 Idempotency-Key 时直接返回首次的响应
+-- 与业务写入在同一事务内插入，主键冲突保证并发重试也不会重复写入
+CREATE TABLE IF NOT EXISTS app.idempotency_keys (
+  user_id BIGINT NOT NULL,
+  idempotency_key VARCHAR(128) NOT NULL,
+  fingerprint VARCHAR(64) NOT NULL,
+  status_code INT NOT NULL,
+  response_body TEXT,
+  created_at TIMESTAMPTZ NOT NULL DEFAULT NOW(),
+  PRIMARY KEY (user_id, idempotency_key)
+);
+
+CREATE INDEX IF NOT EXISTS idx_idempotency_keys_created_at ON app.idempotency_keys(created_at);
@@ -0,0 +1,132 @@
+package com.yuyingbao.app;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 本地模拟的微信服务端，用于测试与离线压测登录
+ * 实现 /sns/jscode2session 与 /cgi-bin/token：code 以 invalid 开头时返回 40029，以 busy 开头时返回 -1，
+ * 其余返回 openid = "fake-" + code；可以设置响应延迟或让所有请求返回 HTTP 500。
+ * 单独启动：在 test classpath 下运行 main，再把 app.wechat.base-url 指向输出的地址并开启 app.wechat.enabled
+ */
+public class FakeWeChatServer implements AutoCloseable {
+    static {
+        // 响应头与响应体分两次写出，不关闭 Nagle 时每个请求会多等一个延迟 ACK（约 40ms）
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final AtomicInteger sessionRequests = new AtomicInteger();
+    private final AtomicInteger tokenRequests = new AtomicInteger();
+    private volatile long latencyMs;
+    private volatile boolean failing;
+    private volatile long accessTokenExpiresIn = 7200;
+
+    public FakeWeChatServer() throws IOException {
+        this(0);
+    }
+
+    public FakeWeChatServer(int port) throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 0);
+        executor = Executors.newCachedThreadPool();
+        server.setExecutor(executor);
+        server.createContext("/sns/jscode2session", exchange -> {
+            sessionRequests.incrementAndGet();
+            String code = query(exchange).getOrDefault("js_code", "");
+            if (code.startsWith("invalid")) {
+                respond(exchange, "{\"errcode\":40029,\"errmsg\":\"invalid code\"}");
+            } else if (code.startsWith("busy")) {
+                respond(exchange, "{\"errcode\":-1,\"errmsg\":\"system error\"}");
+            } else {
+                respond(exchange, "{\"openid\":\"fake-" + code + "\",\"session_key\":\"fake-session-key\"}");
+            }
+        });
+        server.createContext("/cgi-bin/token", exchange -> {
+            int n = tokenRequests.incrementAndGet();
+            respond(exchange, "{\"access_token\":\"fake-token-" + n + "\",\"expires_in\":" + accessTokenExpiresIn + "}");
+        });
+        server.start();
+    }
+
+    public static void main(String[] args) throws Exception {
+        FakeWeChatServer server = new FakeWeChatServer(args.length > 0 ? Integer.parseInt(args[0]) : 18080);
+        if (args.length > 1) {
+            server.setLatencyMs(Long.parseLong(args[1]));
+        }
+        System.out.println("Fake WeChat server listening on " + server.baseUrl());
+    }
+
+    public String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    public void setLatencyMs(long latencyMs) {
+        this.latencyMs = latencyMs;
+    }
+
+    public void setFailing(boolean failing) {
+        this.failing = failing;
+    }
+
+    public void setAccessTokenExpiresIn(long accessTokenExpiresIn) {
+        this.accessTokenExpiresIn = accessTokenExpiresIn;
+    }
+
+    public int sessionRequests() {
+        return sessionRequests.get();
+    }
+
+    public int tokenRequests() {
+        return tokenRequests.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void respond(HttpExchange exchange, String body) throws IOException {
+        try {
+            if (latencyMs > 0) {
+                Thread.sleep(latencyMs);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        byte[] bytes = (failing ? "server error" : body).getBytes(StandardCharsets.UTF_8);
+        // 与微信一致，JSON 以 text/plain 返回
+        exchange.getResponseHeaders().set("Content-Type", "text/plain");
+        exchange.sendResponseHeaders(failing ? 500 : 200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static Map<String, String> query(HttpExchange exchange) {
+        Map<String, String> params = new HashMap<>();
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query == null) {
+            return params;
+        }
+        for (String pair : query.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0) {
+                params.put(pair.substring(0, eq), URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return params;
+    }
+}
@@ -0,0 +1,49 @@
+package com.yuyingbao.app;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+import java.util.Collection;
+
+/**
+ * 在测试中启动 JMH 基准
+ * 基准类与业务代码一起编译在测试源码中，由对应的测试方法调用这里运行；
+ * 统一加上 GC 分析器（等同 -prof gc），结果中的 gc.alloc.rate.norm 即每次调用分配的字节数，
+ * 完整结果另外以 JSON 写入 target/jmh-results/类名.json，便于对比不同提交
+ * 单个基准：mvn test -Dbenchmark=true -Dtest=类名；全部基准：mvn test -Pbenchmark
+ */
+public final class JmhSupport {
+    public static final String RESULT_DIR = "target/jmh-results";
+
+    private JmhSupport() {
+    }
+
+    /**
+     * 运行指定类中的全部基准
+     * @param benchmark 基准类
+     * @return 运行结果
+     */
+    public static Collection<RunResult> run(Class<?> benchmark) throws RunnerException {
+        // surefire 通过清单 jar 传递类路径，fork 出的 JVM 需要展开后的真实类路径
+        String testClassPath = System.getProperty("surefire.test.class.path");
+        if (testClassPath != null) {
+            System.setProperty("java.class.path", testClassPath);
+        }
+        File resultDir = new File(RESULT_DIR);
+        resultDir.mkdirs();
+        Options options = new OptionsBuilder()
+                .include(benchmark.getName() + "\\.")
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result(new File(resultDir, benchmark.getSimpleName() + ".json").getPath())
+                .shouldFailOnError(true)
+                .build();
+        return new Runner(options).run();
+    }
+}
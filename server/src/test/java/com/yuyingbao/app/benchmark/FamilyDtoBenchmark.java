@@ -0,0 +1,113 @@
+package com.yuyingbao.app.benchmark;
+
+import com.yuyingbao.app.JmhSupport;
+import com.yuyingbao.app.dto.FamilyDTO;
+import com.yuyingbao.app.dto.FamilyMemberDTO;
+import com.yuyingbao.app.model.entity.Family;
+import com.yuyingbao.app.model.entity.FamilyMember;
+import com.yuyingbao.app.model.entity.User;
+import com.yuyingbao.app.model.enums.FamilyMemberRole;
+import com.yuyingbao.app.service.UserService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * FamilyDTO/FamilyMemberDTO 转换的 JMH 基准
+ * 用户查询由内存中的 UserService 替身完成，只测量转换本身。
+ * 默认不运行，使用 mvn test -Dbenchmark=true -Dtest=FamilyDtoBenchmark 执行
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@DisplayName("家庭 DTO 转换 JMH 基准")
+public class FamilyDtoBenchmark {
+
+    @Param({"2", "6", "20"})
+    public int members;
+
+    private Family family;
+    private User creator;
+    private List<FamilyMember> familyMembers;
+    private UserService userService;
+
+    @Setup
+    public void setUp() {
+        OffsetDateTime now = OffsetDateTime.now();
+        family = Family.builder()
+                .id(1L)
+                .name("基准测试家庭")
+                .inviteCode("BENCH123")
+                .creatorUserId(1L)
+                .createdAt(now)
+                .build();
+
+        Map<Long, User> users = new HashMap<>();
+        familyMembers = new ArrayList<>(members);
+        FamilyMemberRole[] roles = FamilyMemberRole.values();
+        for (long i = 1; i <= members; i++) {
+            users.put(i, User.builder()
+                    .id(i)
+                    .openId("open-id-" + i)
+                    .nickname("成员" + i)
+                    .avatarUrl("https://example.com/avatar/" + i + ".png")
+                    .createdAt(now)
+                    .build());
+            familyMembers.add(FamilyMember.builder()
+                    .id(i)
+                    .familyId(1L)
+                    .userId(i)
+                    .role(i == 1 ? "CREATOR" : "MEMBER")
+                    .memberRole(i % 3 == 0 ? null : roles[(int) (i % roles.length)])
+                    .joinedAt(now)
+                    .build());
+        }
+        creator = users.get(1L);
+        userService = new UserService(null) {
+            @Override
+            public User getUserById(Long userId) {
+                return users.get(userId);
+            }
+        };
+    }
+
+    @Benchmark
+    public FamilyDTO familyFromEntity() {
+        return FamilyDTO.fromEntity(family, familyMembers, creator, userService);
+    }
+
+    @Benchmark
+    public FamilyMemberDTO memberFromEntity() {
+        return FamilyMemberDTO.fromEntity(familyMembers.get(0), creator);
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    @DisplayName("运行家庭 DTO 转换基准")
+    void runBenchmarks() throws Exception {
+        assertFalse(JmhSupport.run(getClass()).isEmpty());
+    }
+}
@@ -0,0 +1,109 @@
+package com.yuyingbao.app.benchmark;
+
+import com.yuyingbao.app.JmhSupport;
+import com.yuyingbao.app.config.JwtConfig;
+import com.yuyingbao.app.config.JwtAuthenticationFilter;
+import com.yuyingbao.app.service.JwtService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JwtAuthenticationFilter 处理单个请求的 JMH 基准
+ * 分别测量携带有效令牌、无效令牌和不带令牌的请求；validTokenUncached 关闭已验证令牌缓存，
+ * 每个请求都重新校验签名，作为缓存前的对照。
+ * 默认不运行，使用 mvn test -Dbenchmark=true -Dtest=JwtAuthenticationFilterBenchmark 执行
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@DisplayName("JWT 过滤器 JMH 基准")
+public class JwtAuthenticationFilterBenchmark {
+
+    // 链路末端什么都不做，只测量过滤器本身
+    private static final FilterChain NOOP_CHAIN = (request, response) -> {
+    };
+
+    private JwtAuthenticationFilter filter;
+    private JwtAuthenticationFilter uncachedFilter;
+    private MockHttpServletRequest validRequest;
+    private MockHttpServletRequest invalidRequest;
+    private MockHttpServletRequest anonymousRequest;
+    private MockHttpServletResponse response;
+
+    @Setup
+    public void setUp() {
+        JwtService jwtService = new JwtService(JwtServiceBenchmark.jwtConfig());
+        filter = new JwtAuthenticationFilter(jwtService);
+        JwtConfig uncachedConfig = JwtServiceBenchmark.jwtConfig();
+        uncachedConfig.setTokenCacheSize(0);
+        uncachedFilter = new JwtAuthenticationFilter(new JwtService(uncachedConfig));
+        validRequest = request("Bearer " + jwtService.generateToken(1L, Map.of("openId", "benchmark-open-id")));
+        invalidRequest = request("Bearer not-a-jwt");
+        anonymousRequest = request(null);
+        response = new MockHttpServletResponse();
+    }
+
+    @Benchmark
+    public void validToken() throws ServletException, IOException {
+        filter.doFilter(validRequest, response, NOOP_CHAIN);
+        SecurityContextHolder.clearContext();
+    }
+
+    @Benchmark
+    public void validTokenUncached() throws ServletException, IOException {
+        uncachedFilter.doFilter(validRequest, response, NOOP_CHAIN);
+        SecurityContextHolder.clearContext();
+    }
+
+    @Benchmark
+    public void invalidToken() throws ServletException, IOException {
+        filter.doFilter(invalidRequest, response, NOOP_CHAIN);
+        SecurityContextHolder.clearContext();
+    }
+
+    @Benchmark
+    public void noToken() throws ServletException, IOException {
+        filter.doFilter(anonymousRequest, response, NOOP_CHAIN);
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    @DisplayName("运行 JWT 过滤器基准")
+    void runBenchmarks() throws Exception {
+        assertFalse(JmhSupport.run(getClass()).isEmpty());
+    }
+
+    private static MockHttpServletRequest request(String authorization) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/statistics/babies/1/today");
+        if (authorization != null) {
+            request.addHeader("Authorization", authorization);
+        }
+        return request;
+    }
+}
@@ -0,0 +1,87 @@
+package com.yuyingbao.app.benchmark;
+
+import com.yuyingbao.app.JmhSupport;
+import com.yuyingbao.app.config.JwtConfig;
+import com.yuyingbao.app.service.JwtService;
+import io.jsonwebtoken.Claims;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JwtService 签发与解析令牌的 JMH 基准
+ * parseToken 重复解析同一个令牌，命中已验证令牌缓存；parseTokenUncached 每次都校验签名
+ * 默认不运行，使用 mvn test -Dbenchmark=true -Dtest=JwtServiceBenchmark 执行
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@DisplayName("JWT 令牌 JMH 基准")
+public class JwtServiceBenchmark {
+
+    private static final Map<String, Object> CLAIMS = Map.of("openId", "benchmark-open-id");
+
+    private JwtService jwtService;
+    private JwtService uncachedJwtService;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtService = new JwtService(jwtConfig());
+        JwtConfig uncachedConfig = jwtConfig();
+        uncachedConfig.setTokenCacheSize(0);
+        uncachedJwtService = new JwtService(uncachedConfig);
+        token = jwtService.generateToken(1L, CLAIMS);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtService.generateToken(1L, CLAIMS);
+    }
+
+    @Benchmark
+    public Claims parseToken() {
+        return jwtService.parseToken(token);
+    }
+
+    @Benchmark
+    public Claims parseTokenUncached() {
+        return uncachedJwtService.parseToken(token);
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    @DisplayName("运行 JWT 令牌基准")
+    void runBenchmarks() throws Exception {
+        assertFalse(JmhSupport.run(getClass()).isEmpty());
+    }
+
+    /**
+     * 与测试配置相同的 JWT 参数
+     */
+    static JwtConfig jwtConfig() {
+        JwtConfig config = new JwtConfig();
+        config.setSecret("benchmark-secret-key-that-is-at-least-256-bits-long");
+        config.setIssuer("yuyingbao");
+        config.setExpirationMinutes(60);
+        return config;
+    }
+}
@@ -0,0 +1,91 @@
+package com.yuyingbao.app.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yuyingbao.app.JmhSupport;
+import com.yuyingbao.app.model.entity.Record;
+import com.yuyingbao.app.model.enums.DiaperColor;
+import com.yuyingbao.app.model.enums.DiaperTexture;
+import com.yuyingbao.app.model.enums.RecordType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Record 列表 JSON 序列化的 JMH 基准
+ * 使用与 Spring MVC 相同方式构建的 ObjectMapper，记录类型轮流覆盖喂养、尿布和成长。
+ * 默认不运行，使用 mvn test -Dbenchmark=true -Dtest=RecordSerializationBenchmark 执行
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@DisplayName("记录序列化 JMH 基准")
+public class RecordSerializationBenchmark {
+
+    @Param({"50", "500", "5000"})
+    public int records;
+
+    private ObjectMapper objectMapper;
+    private List<Record> list;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        OffsetDateTime base = OffsetDateTime.of(2025, 1, 1, 12, 0, 0, 0, ZoneOffset.ofHours(8));
+        list = new ArrayList<>(records);
+        for (int i = 0; i < records; i++) {
+            Record.RecordBuilder builder = Record.builder()
+                    .id((long) i + 1)
+                    .familyId(1L)
+                    .userId(1L)
+                    .babyId(1L)
+                    .happenedAt(base.minusMinutes(i * 30L))
+                    .version((long) i)
+                    .updatedAt(base);
+            switch (i % 3) {
+                case 0 -> builder.type(RecordType.BOTTLE).amountMl(120.0);
+                case 1 -> builder.type(RecordType.DIAPER)
+                        .diaperTexture(DiaperTexture.values()[0])
+                        .diaperColor(DiaperColor.values()[0])
+                        .hasUrine(true);
+                default -> builder.type(RecordType.GROWTH).heightCm(60.5).weightKg(6.2);
+            }
+            list.add(builder.build());
+        }
+    }
+
+    @Benchmark
+    public byte[] serializeRecords() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(list);
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    @DisplayName("运行记录序列化基准")
+    void runBenchmarks() throws Exception {
+        assertFalse(JmhSupport.run(getClass()).isEmpty());
+    }
+}
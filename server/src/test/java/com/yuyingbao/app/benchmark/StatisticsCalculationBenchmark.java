@@ -0,0 +1,214 @@
+package com.yuyingbao.app.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yuyingbao.app.JmhSupport;
+import com.yuyingbao.app.dto.StatisticsSummary;
+import com.yuyingbao.app.model.enums.RecordType;
+import com.yuyingbao.app.repository.projection.RecordTypeAggregate;
+import com.yuyingbao.app.service.StatisticsAccumulator;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 统计计算 JMH 基准
+ * 对比旧的 HashMap/Map.of 装箱实现与类型化结果 + 原始类型累加器，分别测量计算本身和计算后序列化为 JSON。
+ * 输入为 50/500/5000 条单记录聚合行（未经数据库分组时的最坏情况）。
+ * 默认不运行，使用 mvn test -Dbenchmark=true -Dtest=StatisticsCalculationBenchmark 执行，
+ * 吞吐量见 ops/s，每次调用分配的字节数见 gc.alloc.rate.norm
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@DisplayName("统计计算 JMH 基准")
+public class StatisticsCalculationBenchmark {
+
+    @Param({"50", "500", "5000"})
+    public int records;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private List<RecordTypeAggregate> rows;
+
+    @Setup
+    public void setUp() {
+        rows = sampleRows(records);
+    }
+
+    @Benchmark
+    public Map<String, Object> legacyMaps() {
+        return legacyCalculate(rows);
+    }
+
+    @Benchmark
+    public StatisticsSummary typedRecords() {
+        return new StatisticsAccumulator().addAll(rows).toSummary();
+    }
+
+    @Benchmark
+    public byte[] legacyMapsJson() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(legacyCalculate(rows));
+    }
+
+    @Benchmark
+    public byte[] typedRecordsJson() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(new StatisticsAccumulator().addAll(rows).toSummary());
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    @DisplayName("运行统计计算基准")
+    void runBenchmarks() throws Exception {
+        // 两种实现的 JSON 结构和数值必须一致
+        List<RecordTypeAggregate> sample = sampleRows(500);
+        assertEquals(objectMapper.readTree(objectMapper.writeValueAsString(legacyCalculate(sample))),
+                objectMapper.readTree(objectMapper.writeValueAsString(new StatisticsAccumulator().addAll(sample).toSummary())));
+
+        assertFalse(JmhSupport.run(getClass()).isEmpty());
+    }
+
+    private static List<RecordTypeAggregate> sampleRows(int count) {
+        Random random = new Random(42);
+        RecordType[] types = RecordType.values();
+        List<RecordTypeAggregate> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            RecordType type = types[random.nextInt(types.length)];
+            Double amount = switch (type) {
+                case BOTTLE, FORMULA, WATER -> (double) (30 + random.nextInt(150));
+                default -> null;
+            };
+            Long duration = type == RecordType.BREASTFEEDING ? (long) (5 + random.nextInt(25)) : null;
+            result.add(new Row(type, 1, amount, duration));
+        }
+        return result;
+    }
+
+    private record Row(RecordType type, long count, Double totalAmount, Long totalDuration) implements RecordTypeAggregate {
+        @Override
+        public RecordType getType() {
+            return type;
+        }
+
+        @Override
+        public long getCount() {
+            return count;
+        }
+
+        @Override
+        public Double getTotalAmount() {
+            return totalAmount;
+        }
+
+        @Override
+        public Long getTotalDuration() {
+            return totalDuration;
+        }
+    }
+
+    /**
+     * 旧实现：每次请求构建 HashMap/Map.of 嵌套结构，数值全部装箱
+     */
+    private static Map<String, Object> legacyCalculate(List<RecordTypeAggregate> aggregates) {
+        Map<String, Object> statistics = new HashMap<>();
+        Map<String, Object> feedingStats = new HashMap<>();
+        int breastfeedingCount = 0;
+        int breastfeedingDuration = 0;
+        int bottleCount = 0;
+        double bottleAmount = 0.0;
+        int formulaCount = 0;
+        double formulaAmount = 0.0;
+        int solidCount = 0;
+        int waterCount = 0;
+        double waterAmount = 0.0;
+        int diaperCount = 0;
+        int growthCount = 0;
+        double totalFeedingAmount = 0.0;
+        int totalFeedingCount = 0;
+
+        for (RecordTypeAggregate aggregate : aggregates) {
+            int count = (int) aggregate.getCount();
+            double amount = aggregate.getTotalAmount() != null ? aggregate.getTotalAmount() : 0.0;
+            int duration = aggregate.getTotalDuration() != null ? aggregate.getTotalDuration().intValue() : 0;
+            switch (aggregate.getType()) {
+                case BREASTFEEDING:
+                    breastfeedingCount += count;
+                    totalFeedingCount += count;
+                    breastfeedingDuration += duration;
+                    totalFeedingAmount += duration * 10;
+                    break;
+                case BOTTLE:
+                    bottleCount += count;
+                    totalFeedingCount += count;
+                    bottleAmount += amount;
+                    totalFeedingAmount += amount;
+                    break;
+                case FORMULA:
+                    formulaCount += count;
+                    totalFeedingCount += count;
+                    formulaAmount += amount;
+                    totalFeedingAmount += amount;
+                    break;
+                case SOLID:
+                    solidCount += count;
+                    totalFeedingCount += count;
+                    break;
+                case WATER:
+                    waterCount += count;
+                    waterAmount += amount;
+                    break;
+                case DIAPER:
+                    diaperCount += count;
+                    break;
+                case GROWTH:
+                    growthCount += count;
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        feedingStats.put("breastfeeding", Map.of("count", breastfeedingCount, "totalDuration", breastfeedingDuration));
+        feedingStats.put("bottle", Map.of("count", bottleCount, "totalAmount", bottleAmount));
+        feedingStats.put("formula", Map.of("count", formulaCount, "totalAmount", formulaAmount));
+        feedingStats.put("solid", Map.of("count", solidCount));
+        feedingStats.put("water", Map.of("count", waterCount, "totalAmount", waterAmount));
+        feedingStats.put("total", Map.of("count", totalFeedingCount, "amount", totalFeedingAmount));
+
+        statistics.put("feeding", feedingStats);
+        statistics.put("diaper", Map.of("count", diaperCount));
+        statistics.put("growth", Map.of("count", growthCount));
+        List<String> suggestions;
+        if (totalFeedingAmount < 400) {
+            suggestions = List.of("今日喂养量偏少，建议适当增加喂奶次数");
+        } else if (totalFeedingAmount > 1000) {
+            suggestions = List.of("今日喂养量充足，继续保持良好的喂养习惯");
+        } else {
+            suggestions = List.of("今日喂养量在正常范围内，宝宝发育良好");
+        }
+        statistics.put("suggestions", suggestions);
+        return statistics;
+    }
+}
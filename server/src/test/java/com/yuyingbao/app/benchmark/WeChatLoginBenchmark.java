@@ -0,0 +1,80 @@
+package com.yuyingbao.app.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yuyingbao.app.FakeWeChatServer;
+import com.yuyingbao.app.JmhSupport;
+import com.yuyingbao.app.config.WeChatConfig;
+import com.yuyingbao.app.service.WeChatAuthClient;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 通过 WeChatAuthClient 换取 openId 的 JMH 基准，对端为本地模拟的微信服务端
+ * 16 个线程并发登录，latencyMs 模拟微信接口的响应时间，用于离线衡量登录吞吐与连接复用；
+ * 客户端与模拟服务端在同一进程内，结果受机器核数影响
+ * 默认不运行，使用 mvn test -Dbenchmark=true -Dtest=WeChatLoginBenchmark 执行
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 1)
+@Threads(16)
+@Fork(1)
+@DisplayName("微信登录 JMH 基准")
+public class WeChatLoginBenchmark {
+
+    @Param({"0", "20"})
+    public long latencyMs;
+
+    private FakeWeChatServer server;
+    private WeChatAuthClient client;
+
+    @Setup
+    public void setUp() throws IOException {
+        server = new FakeWeChatServer();
+        server.setLatencyMs(latencyMs);
+        WeChatConfig config = new WeChatConfig();
+        config.setEnabled(true);
+        config.setAppId("benchmark-app-id");
+        config.setAppSecret("benchmark-app-secret");
+        config.setBaseUrl(server.baseUrl());
+        client = new WeChatAuthClient(config, new ObjectMapper());
+    }
+
+    @TearDown
+    public void tearDown() {
+        server.close();
+    }
+
+    @Benchmark
+    public WeChatAuthClient.Session code2Session() {
+        return client.code2Session("benchmark-code");
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    @DisplayName("运行微信登录基准")
+    void runBenchmarks() throws Exception {
+        assertFalse(JmhSupport.run(getClass()).isEmpty());
+    }
+}
@@ -4,13 +4,18 @@ import com.yuyingbao.app.BaseIntegrationTest;
 import com.yuyingbao.app.dto.WeChatLoginRequest;
 import com.yuyingbao.app.model.entity.User;
 import com.yuyingbao.app.repository.UserRepository;
+import com.yuyingbao.app.service.LoginInfoBuffer;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.time.OffsetDateTime;
+import java.util.Map;
+
 import static org.hamcrest.Matchers.*;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
@@ -31,6 +36,12 @@ class AuthControllerTest extends BaseIntegrationTest {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private LoginInfoBuffer loginInfoBuffer;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     @Test
     @DisplayName("新用户微信登录 - 应该创建用户并返回token")
     void testWeChatLogin_NewUser_ShouldCreateUserAndReturnToken() throws Exception {
@@ -160,4 +171,48 @@ class AuthControllerTest extends BaseIntegrationTest {
         assertEquals("最小用户", createdUser.getNickname());
         assertNull(createdUser.getAvatarUrl());
     }
+
+    @Test
+    @DisplayName("已存在用户完整登录 - 登录信息延迟写入，多次登录合并为一次更新")
+    void testWeChatLoginComplete_ShouldBufferLoginInfoUntilFlush() throws Exception {
+        // Given - 已存在的用户
+        User existingUser = userRepository.save(User.builder()
+                .openId("mock-login_buffer")
+                .nickname("登录用户")
+                .deviceBrand("OldBrand")
+                .createdAt(OffsetDateTime.now())
+                .build());
+        WeChatLoginRequest.DeviceInfo firstDevice = new WeChatLoginRequest.DeviceInfo();
+        firstDevice.setBrand("Apple");
+        firstDevice.setModel("iPhone 14");
+        WeChatLoginRequest.DeviceInfo secondDevice = new WeChatLoginRequest.DeviceInfo();
+        secondDevice.setModel("iPhone 15");
+
+        // When - 连续两次登录
+        for (WeChatLoginRequest.DeviceInfo deviceInfo : new WeChatLoginRequest.DeviceInfo[]{firstDevice, secondDevice}) {
+            WeChatLoginRequest request = new WeChatLoginRequest();
+            request.setCode("login_buffer");
+            request.setDeviceInfo(deviceInfo);
+            mockMvc.perform(post("/auth/wechat/login-complete")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(toJson(request)))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.token", notNullValue()));
+        }
+
+        // Then - 写入前数据库未变化，写入后两次登录合并为一条：品牌来自第一次，型号来自第二次
+        assertNull(loginRow(existingUser.getId()).get("LAST_LOGIN_AT"));
+        assertEquals(1, loginInfoBuffer.pendingCount());
+        assertEquals(1, loginInfoBuffer.flush());
+        Map<String, Object> row = loginRow(existingUser.getId());
+        assertNotNull(row.get("LAST_LOGIN_AT"));
+        assertEquals("Apple", row.get("DEVICE_BRAND"));
+        assertEquals("iPhone 15", row.get("DEVICE_MODEL"));
+        assertEquals(0, loginInfoBuffer.pendingCount());
+    }
+
+    private Map<String, Object> loginRow(Long userId) {
+        return jdbcTemplate.queryForMap(
+                "SELECT last_login_at, device_brand, device_model FROM app.users WHERE id = ?", userId);
+    }
 }
\ No newline at end of file
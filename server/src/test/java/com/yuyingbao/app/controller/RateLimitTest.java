@@ -0,0 +1,119 @@
+package com.yuyingbao.app.controller;
+
+import com.yuyingbao.app.BaseIntegrationTest;
+import com.yuyingbao.app.config.RateLimitInterceptor;
+import com.yuyingbao.app.dto.UpsertBabyRequest;
+import com.yuyingbao.app.model.entity.Baby;
+import com.yuyingbao.app.model.entity.Family;
+import com.yuyingbao.app.model.entity.User;
+import com.yuyingbao.app.model.enums.Gender;
+import com.yuyingbao.app.service.BabyService;
+import com.yuyingbao.app.service.FamilyService;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.ServletException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * 接口限流测试
+ */
+@AutoConfigureMockMvc
+@TestPropertySource(properties = {
+        "app.rate-limit.statistics.user-capacity=3",
+        "app.rate-limit.statistics.user-per-second=0.01",
+        "app.rate-limit.statistics.family-capacity=4",
+        "app.rate-limit.statistics.family-per-second=0.01"
+})
+@DisplayName("接口限流测试")
+class RateLimitTest extends BaseIntegrationTest {
+
+    @Autowired
+    private FamilyService familyService;
+
+    @Autowired
+    private BabyService babyService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    @DisplayName("统计接口限流 - 超出用户额度或家庭共享额度时返回429和Retry-After")
+    void testStatisticsRateLimit_ShouldThrottlePerUserAndPerFamily() throws Exception {
+        // Given - 同一家庭的两个成员
+        Family family = familyService.createFamily(testUser.getId());
+        Baby baby = babyService.createBaby(family.getId(), babyRequest());
+        User anotherUser = userRepository.save(User.builder()
+                .openId("rate-limit-openid")
+                .nickname("另一个成员")
+                .createdAt(OffsetDateTime.now())
+                .build());
+        familyService.joinFamily(anotherUser.getId(), family.getInviteCode());
+        String anotherAuthHeader = "Bearer " + jwtService.generateToken(anotherUser.getId(), Map.of());
+        User outsider = userRepository.save(User.builder()
+                .openId("rate-limit-outsider")
+                .nickname("非家庭成员")
+                .createdAt(OffsetDateTime.now())
+                .build());
+        String outsiderAuthHeader = "Bearer " + jwtService.generateToken(outsider.getId(), Map.of());
+
+        // When & Then - 用户额度内的请求正常返回，超出后返回429，不消耗家庭额度
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(get("/api/statistics/babies/{babyId}/today", baby.getId())
+                            .header("Authorization", getAuthHeader()))
+                    .andExpect(status().isOk());
+        }
+        mockMvc.perform(get("/api/statistics/babies/{babyId}/today", baby.getId())
+                        .header("Authorization", getAuthHeader()))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", not(emptyOrNullString())))
+                .andExpect(jsonPath("$.message", notNullValue()));
+
+        // 非家庭成员的请求由控制器的权限校验拒绝（SecurityException），不消耗家庭额度
+        for (int i = 0; i < 2; i++) {
+            ServletException rejected = assertThrows(ServletException.class, () ->
+                    mockMvc.perform(get("/api/statistics/families/{familyId}/today", family.getId())
+                            .header("Authorization", outsiderAuthHeader)));
+            assertInstanceOf(SecurityException.class, rejected.getCause());
+        }
+
+        // 另一个成员还有用户额度，但家庭额度只剩一次
+        mockMvc.perform(get("/api/statistics/families/{familyId}/today", family.getId())
+                        .header("Authorization", anotherAuthHeader))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/statistics/families/{familyId}/today", family.getId())
+                        .header("Authorization", anotherAuthHeader))
+                .andExpect(status().isTooManyRequests());
+
+        // 其他类别的接口使用单独的额度
+        mockMvc.perform(get("/babies/{babyId}/records", baby.getId())
+                        .header("Authorization", getAuthHeader()))
+                .andExpect(status().isOk());
+
+        assertEquals(1.0, throttled("user"));
+        assertEquals(1.0, throttled("family"));
+    }
+
+    private double throttled(String scope) {
+        return meterRegistry.counter(RateLimitInterceptor.THROTTLED_METRIC, "route", "statistics", "scope", scope).count();
+    }
+
+    private UpsertBabyRequest babyRequest() {
+        UpsertBabyRequest request = new UpsertBabyRequest();
+        request.setName("限流宝宝");
+        request.setGender(Gender.BOY);
+        request.setBirthDate(LocalDate.of(2025, 6, 1));
+        return request;
+    }
+}
@@ -2,26 +2,40 @@ package com.yuyingbao.app.controller;
 
 import com.yuyingbao.app.BaseIntegrationTest;
 import com.yuyingbao.app.dto.CreateRecordRequest;
+import com.yuyingbao.app.dto.RecordChanges;
 import com.yuyingbao.app.dto.UpdateRecordRequest;
 import com.yuyingbao.app.model.entity.Baby;
 import com.yuyingbao.app.model.entity.Family;
 import com.yuyingbao.app.model.entity.FamilyMember;
+import com.yuyingbao.app.model.entity.IdempotencyKey;
 import com.yuyingbao.app.model.entity.Record;
 import com.yuyingbao.app.model.enums.*;
 import com.yuyingbao.app.repository.BabyRepository;
 import com.yuyingbao.app.repository.FamilyMemberRepository;
 import com.yuyingbao.app.repository.FamilyRepository;
+import com.yuyingbao.app.repository.IdempotencyKeyRepository;
 import com.yuyingbao.app.repository.RecordRepository;
+import com.yuyingbao.app.service.RecordService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.http.MediaType;
+import org.springframework.test.context.transaction.TestTransaction;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.OffsetDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Base64;
 import java.util.List;
 
 import static org.hamcrest.Matchers.*;
@@ -53,6 +67,15 @@ class RecordControllerTest extends BaseIntegrationTest {
     @Autowired
     private BabyRepository babyRepository;
 
+    @Autowired
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+
+    @Autowired
+    private RecordService recordService;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
     private Family testFamily;
     private Baby testBaby;
 
@@ -331,6 +354,71 @@ class RecordControllerTest extends BaseIntegrationTest {
                 .andExpect(jsonPath("$[0].type", is("BOTTLE")));
     }
 
+    @Test
+    @DisplayName("游标分页查询宝宝记录 - 应该按时间倒序逐页返回")
+    void testPageBabyRecords_ShouldFollowCursor() throws Exception {
+        // Given - 创建5条记录（时间截断到秒，与数据库精度一致）
+        OffsetDateTime now = OffsetDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        for (int i = 0; i < 5; i++) {
+            recordRepository.save(Record.builder()
+                    .familyId(testFamily.getId())
+                    .userId(testUser.getId())
+                    .babyId(testBaby.getId())
+                    .type(RecordType.BOTTLE)
+                    .happenedAt(now.minusHours(i))
+                    .amountMl(100.0 + i)
+                    .build());
+        }
+
+        // When & Then - 第一页
+        String next = mockMvc.perform(get("/babies/{babyId}/records", testBaby.getId())
+                        .param("limit", "2")
+                        .header("Authorization", getAuthHeader()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].amountMl", is(100.0)))
+                .andExpect(jsonPath("$[1].amountMl", is(101.0)))
+                .andExpect(header().exists("X-Next-Cursor"))
+                .andReturn().getResponse().getHeader("X-Next-Cursor");
+
+        // 第二页
+        next = mockMvc.perform(get("/babies/{babyId}/records", testBaby.getId())
+                        .param("limit", "2")
+                        .param("cursor", next)
+                        .header("Authorization", getAuthHeader()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].amountMl", is(102.0)))
+                .andReturn().getResponse().getHeader("X-Next-Cursor");
+
+        // 最后一页没有下一页游标
+        mockMvc.perform(get("/babies/{babyId}/records", testBaby.getId())
+                        .param("limit", "2")
+                        .param("cursor", next)
+                        .header("Authorization", getAuthHeader()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].amountMl", is(104.0)))
+                .andExpect(header().doesNotExist("X-Next-Cursor"));
+    }
+
+    @Test
+    @DisplayName("无效的分页游标 - 应该返回400错误")
+    void testPageRecords_InvalidCursor_ShouldReturn400() throws Exception {
+        mockMvc.perform(get("/families/{familyId}/records", testFamily.getId())
+                        .param("cursor", "not-a-cursor")
+                        .header("Authorization", getAuthHeader()))
+                .andExpect(status().isBadRequest());
+
+        // 格式正确但秒与纳秒相加溢出的游标
+        String overflow = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((Long.MAX_VALUE + ".1000000000000000000.1").getBytes(StandardCharsets.UTF_8));
+        mockMvc.perform(get("/families/{familyId}/records", testFamily.getId())
+                        .param("cursor", overflow)
+                        .header("Authorization", getAuthHeader()))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     @DisplayName("更新记录 - 应该成功更新")
     void testUpdateRecord_ShouldUpdateSuccessfully() throws Exception {
@@ -456,4 +544,556 @@ class RecordControllerTest extends BaseIntegrationTest {
                 .andDo(print())
                 .andExpect(status().isForbidden());
     }
+
+    @Test
+    @DisplayName("测试批量创建记录 - 应该一次写入全部记录并同步统计")
+    void testCreateRecordsBatch_ShouldCreateAll() throws Exception {
+        // Given - 一批离线补录的记录
+        OffsetDateTime base = OffsetDateTime.now().minusHours(5);
+        List<CreateRecordRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            CreateRecordRequest diaper = new CreateRecordRequest();
+            diaper.setType(RecordType.DIAPER);
+            diaper.setHappenedAt(base.plusMinutes(i * 30));
+            diaper.setDiaperTexture(DiaperTexture.SOFT);
+            requests.add(diaper);
+        }
+        CreateRecordRequest bottle = new CreateRecordRequest();
+        bottle.setType(RecordType.BOTTLE);
+        bottle.setHappenedAt(base.plusHours(2));
+        bottle.setAmountMl(90.0);
+        requests.add(bottle);
+
+        // When & Then
+        mockMvc.perform(post("/babies/{babyId}/records/batch", testBaby.getId())
+                        .header("Authorization", getAuthHeader())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(toJson(requests)))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(4)))
+                .andExpect(jsonPath("$[0].id", notNullValue()))
+                .andExpect(jsonPath("$[0].babyId", is(testBaby.getId().intValue())))
+                .andExpect(jsonPath("$[3].type", is("BOTTLE")))
+                .andExpect(jsonPath("$[3].amountMl", is(90.0)));
+
+        assertEquals(4, recordRepository.findByBabyIdOrderByHappenedAtDesc(testBaby.getId()).size());
+    }
+
+    @Test
+    @DisplayName("测试批量创建记录 - 空列表或缺少必填字段应该返回400")
+    void testCreateRecordsBatch_InvalidRequests_ShouldReturn400() throws Exception {
+        mockMvc.perform(post("/babies/{babyId}/records/batch", testBaby.getId())
+                        .header("Authorization", getAuthHeader())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andExpect(status().isBadRequest());
+
+        CreateRecordRequest missingType = new CreateRecordRequest();
+        missingType.setHappenedAt(OffsetDateTime.now());
+        mockMvc.perform(post("/babies/{babyId}/records/batch", testBaby.getId())
+                        .header("Authorization", getAuthHeader())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(toJson(List.of(missingType))))
+                .andExpect(status().isBadRequest());
+
+        assertTrue(recordRepository.findByBabyIdOrderByHappenedAtDesc(testBaby.getId()).isEmpty());
+    }
+
+    @Test
+    @DisplayName("测试幂等键 - 重试创建应返回首次结果且不重复写入")
+    void testCreateRecord_WithIdempotencyKey_ShouldNotDuplicate() throws Exception {
+        // Given
+        CreateRecordRequest request = new CreateRecordRequest();
+        request.setType(RecordType.BOTTLE);
+        request.setHappenedAt(OffsetDateTime.now());
+        request.setAmountMl(120.0);
+
+        // When - 同一个键提交两次
+        String first = mockMvc.perform(post("/babies/{babyId}/records", testBaby.getId())
+                        .header("Authorization", getAuthHeader())
+                        .header("Idempotency-Key", "create-key-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(toJson(request)))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Idempotent-Replayed"))
+                .andReturn().getResponse().getContentAsString();
+        Long recordId = fromJson(first, Record.class).getId();
+
+        mockMvc.perform(post("/babies/{babyId}/records", testBaby.getId())
+                        .header("Authorization", getAuthHeader())
+                        .header("Idempotency-Key", "create-key-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(toJson(request)))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(header().string("Idempotent-Replayed", "true"))
+                .andExpect(jsonPath("$.id", is(recordId.intValue())))
+                .andExpect(jsonPath("$.amountMl", is(120.0)));
+
+        // Then
+        assertEquals(1, recordRepository.findByBabyIdOrderByHappenedAtDesc(testBaby.getId()).size());
+
+        // 同一个键用于不同的请求体应该被拒绝
+        request.setAmountMl(150.0);
+        mockMvc.perform(post("/babies/{babyId}/records", testBaby.getId())
+                        .header("Authorization", getAuthHeader())
+                        .header("Idempotency-Key", "create-key-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(toJson(request)))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("测试幂等键 - 重试删除应返回204")
+    void testDeleteRecord_WithIdempotencyKey_ShouldReplay() throws Exception {
+        // Given
+        Record record = recordRepository.save(Record.builder()
+                .familyId(testFamily.getId())
+                .userId(testUser.getId())
+                .babyId(testBaby.getId())
+                .type(RecordType.DIAPER)
+                .happenedAt(OffsetDateTime.now())
+                .build());
+
+        // When & Then - 第二次删除不会再访问记录
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(delete("/babies/{babyId}/records/{recordId}", testBaby.getId(), record.getId())
+                            .header("Authorization", getAuthHeader())
+                            .header("Idempotency-Key", "delete-key-1"))
+                    .andExpect(status().isNoContent());
+        }
+        assertFalse(recordRepository.existsById(record.getId()));
+    }
+
+    @Test
+    @DisplayName("测试幂等键 - 过期未清理的键可以重新使用")
+    void testCreateRecord_WithExpiredIdempotencyKey_ShouldExecuteAgain() throws Exception {
+        // Given - 超过有效期但尚未被定期清理的键，对应另一个请求
+        idempotencyKeyRepository.saveAndFlush(IdempotencyKey.builder()
+                .userId(testUser.getId())
+                .idempotencyKey("expired-key-1")
+                .fingerprint("0".repeat(64))
+                .statusCode(200)
+                .createdAt(OffsetDateTime.now().minusHours(25))
+                .build());
+        CreateRecordRequest request = new CreateRecordRequest();
+        request.setType(RecordType.BOTTLE);
+        request.setHappenedAt(OffsetDateTime.now());
+        request.setAmountMl(90.0);
+
+        // When
+        mockMvc.perform(post("/babies/{babyId}/records", testBaby.getId())
+                        .header("Authorization", getAuthHeader())
+                        .header("Idempotency-Key", "expired-key-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(toJson(request)))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Idempotent-Replayed"))
+                .andExpect(jsonPath("$.amountMl", is(90.0)));
+
+        // Then - 旧行被替换为本次请求的结果
+        entityManager.clear();
+        assertEquals(1, recordRepository.findByBabyIdOrderByHappenedAtDesc(testBaby.getId()).size());
+        IdempotencyKey stored = idempotencyKeyRepository.findById(new IdempotencyKey.Key(testUser.getId(), "expired-key-1")).orElseThrow();
+        assertTrue(stored.getCreatedAt().isAfter(OffsetDateTime.now().minusHours(1)));
+    }
+
+    private Long createBabyRecord(RecordType type, Double amountMl) throws Exception {
+        CreateRecordRequest request = new CreateRecordRequest();
+        request.setType(type);
+        request.setHappenedAt(OffsetDateTime.now());
+        request.setAmountMl(amountMl);
+        String body = mockMvc.perform(post("/babies/{babyId}/records", testBaby.getId())
+                        .header("Authorization", getAuthHeader())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(toJson(request)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return fromJson(body, Record.class).getId();
+    }
+
+    private RecordChanges fetchChanges(String since) throws Exception {
+        String body = mockMvc.perform(get("/babies/{babyId}/records/changes", testBaby.getId())
+                        .param("since", since == null ? "" : since)
+                        .header("Authorization", getAuthHeader()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return fromJson(body, RecordChanges.class);
+    }
+
+    @Test
+    @DisplayName("测试增量同步 - 应该只返回令牌之后的新增、修改与删除")
+    void testRecordChanges_ShouldReturnDeltaSinceToken() throws Exception {
+        // Given - 首次同步拿到全部记录
+        Long keptId = createBabyRecord(RecordType.BOTTLE, 100.0);
+        Long deletedId = createBabyRecord(RecordType.DIAPER, null);
+        RecordChanges initial = fetchChanges(null);
+        assertEquals(List.of(keptId, deletedId), initial.getUpserts().stream().map(Record::getId).toList());
+        assertTrue(initial.getDeletes().isEmpty());
+        assertFalse(initial.isHasMore());
+
+        // When - 修改一条、删除一条、新增一条
+        UpdateRecordRequest update = new UpdateRecordRequest();
+        update.setType(RecordType.BOTTLE);
+        update.setHappenedAt(OffsetDateTime.now());
+        update.setAmountMl(130.0);
+        mockMvc.perform(put("/babies/{babyId}/records/{recordId}", testBaby.getId(), keptId)
+                        .header("Authorization", getAuthHeader())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(toJson(update)))
+                .andExpect(status().isOk());
+        mockMvc.perform(delete("/babies/{babyId}/records/{recordId}", testBaby.getId(), deletedId)
+                        .header("Authorization", getAuthHeader()))
+                .andExpect(status().isNoContent());
+        Long newId = createBabyRecord(RecordType.FORMULA, 60.0);
+
+        // Then - 只下发变更
+        RecordChanges delta = fetchChanges(initial.getToken());
+        assertEquals(List.of(keptId, newId), delta.getUpserts().stream().map(Record::getId).toList());
+        assertEquals(130.0, delta.getUpserts().get(0).getAmountMl());
+        assertEquals(List.of(deletedId), delta.getDeletes());
+
+        // 没有新变更时返回空结果
+        RecordChanges empty = fetchChanges(delta.getToken());
+        assertTrue(empty.getUpserts().isEmpty());
+        assertTrue(empty.getDeletes().isEmpty());
+        assertEquals(delta.getToken(), empty.getToken());
+
+        // 超过单次上限时分批返回
+        mockMvc.perform(get("/babies/{babyId}/records/changes", testBaby.getId())
+                        .param("since", initial.getToken())
+                        .param("limit", "1")
+                        .header("Authorization", getAuthHeader()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.upserts", hasSize(1)))
+                .andExpect(jsonPath("$.hasMore", is(true)));
+
+        mockMvc.perform(get("/babies/{babyId}/records/changes", testBaby.getId())
+                        .param("since", "not-a-token")
+                        .header("Authorization", getAuthHeader()))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("测试增量同步 - 删除墓碑被清理后旧令牌应返回410")
+    void testRecordChanges_AfterTombstonePurge_ShouldRequireFullResync() throws Exception {
+        // Given - 拿到令牌之后删除一条记录，墓碑超过保留时间
+        Long keptId = createBabyRecord(RecordType.BOTTLE, 100.0);
+        Long deletedId = createBabyRecord(RecordType.DIAPER, null);
+        RecordChanges initial = fetchChanges(null);
+        mockMvc.perform(delete("/babies/{babyId}/records/{recordId}", testBaby.getId(), deletedId)
+                        .header("Authorization", getAuthHeader()))
+                .andExpect(status().isNoContent());
+        entityManager.createQuery("UPDATE RecordTombstone t SET t.deletedAt = :deletedAt")
+                .setParameter("deletedAt", OffsetDateTime.now().minusDays(31))
+                .executeUpdate();
+
+        // When
+        assertEquals(1, recordService.purgeExpiredTombstones());
+
+        // Then - 旧令牌可能漏掉删除，要求重新全量同步；全量同步后的令牌可以继续使用
+        mockMvc.perform(get("/babies/{babyId}/records/changes", testBaby.getId())
+                        .param("since", initial.getToken())
+                        .header("Authorization", getAuthHeader()))
+                .andExpect(status().isGone());
+        RecordChanges full = fetchChanges(null);
+        assertEquals(List.of(keptId), full.getUpserts().stream().map(Record::getId).toList());
+        assertTrue(fetchChanges(full.getToken()).getUpserts().isEmpty());
+    }
+
+    @Test
+    @DisplayName("记录列表ETag - 数据未变化时应返回304，写入后应返回新的ETag")
+    void testListRecords_ShouldSupportConditionalGet() throws Exception {
+        // Given - 首次读取列表与筛选结果拿到 ETag
+        createBabyRecord(RecordType.BOTTLE, 100.0);
+        String listEtag = mockMvc.perform(get("/babies/{babyId}/records", testBaby.getId())
+                        .header("Authorization", getAuthHeader()))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andReturn().getResponse().getHeader("ETag");
+        String filterEtag = mockMvc.perform(get("/babies/{babyId}/records/filter", testBaby.getId())
+                        .param("type", "BOTTLE")
+                        .header("Authorization", getAuthHeader()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+        assertNotEquals(listEtag, filterEtag);
+
+        // When & Then - 数据未变化，条件请求返回304
+        mockMvc.perform(get("/babies/{babyId}/records", testBaby.getId())
+                        .header("Authorization", getAuthHeader())
+                        .header("If-None-Match", listEtag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+        mockMvc.perform(get("/babies/{babyId}/records/filter", testBaby.getId())
+                        .param("type", "BOTTLE")
+                        .header("Authorization", getAuthHeader())
+                        .header("If-None-Match", filterEtag))
+                .andExpect(status().isNotModified());
+
+        // 新增记录后旧 ETag 失效
+        createBabyRecord(RecordType.FORMULA, 60.0);
+        mockMvc.perform(get("/babies/{babyId}/records", testBaby.getId())
+                        .header("Authorization", getAuthHeader())
+                        .header("If-None-Match", listEtag))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", not(listEtag)))
+                .andExpect(jsonPath("$", hasSize(2)));
+    }
+
+    @Test
+    @DisplayName("记录筛选 - fields参数应只返回选中的字段，slim按记录类型返回精简视图")
+    void testListRecordsWithFields_ShouldReturnSelectedColumns() throws Exception {
+        // Given - 一条喂奶记录和一条尿布记录
+        Long bottleId = createBabyRecord(RecordType.BOTTLE, 120.0);
+        Long diaperId = createBabyRecord(RecordType.DIAPER, null);
+
+        // When & Then - slim 视图只包含通用字段与本类型字段
+        mockMvc.perform(get("/babies/{babyId}/records/filter", testBaby.getId())
+                        .param("fields", "slim")
+                        .header("Authorization", getAuthHeader()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].id", is(diaperId.intValue())))
+                .andExpect(jsonPath("$[0].type", is("DIAPER")))
+                .andExpect(jsonPath("$[0].amountMl").doesNotExist())
+                .andExpect(jsonPath("$[1].id", is(bottleId.intValue())))
+                .andExpect(jsonPath("$[1].amountMl", is(120.0)))
+                .andExpect(jsonPath("$[1].happenedAt").exists())
+                .andExpect(jsonPath("$[1].familyId").doesNotExist())
+                .andExpect(jsonPath("$[1].babyId").doesNotExist());
+
+        // 显式字段列表，配合分页使用
+        mockMvc.perform(get("/families/{familyId}/records/filter", testFamily.getId())
+                        .param("fields", "amountMl,babyId")
+                        .param("limit", "1")
+                        .header("Authorization", getAuthHeader()))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("X-Next-Cursor"))
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id", is(diaperId.intValue())))
+                .andExpect(jsonPath("$[0].babyId", is(testBaby.getId().intValue())))
+                .andExpect(jsonPath("$[0].type").doesNotExist());
+
+        // 不支持的字段返回400
+        mockMvc.perform(get("/babies/{babyId}/records/filter", testBaby.getId())
+                        .param("fields", "id,password")
+                        .header("Authorization", getAuthHeader()))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("最新记录 - 应返回每种类型最新的一条记录，写入后同步更新")
+    void testLatestRecords_ShouldReturnLatestPerType() throws Exception {
+        // Given - 两条喂奶记录和一条尿布记录
+        createBabyRecord(RecordType.BOTTLE, 100.0);
+        Long bottleId = createBabyRecord(RecordType.BOTTLE, 120.0);
+        Long diaperId = createBabyRecord(RecordType.DIAPER, null);
+
+        // When & Then - 每种类型只返回最新的一条
+        mockMvc.perform(get("/babies/{babyId}/records/latest", testBaby.getId())
+                        .header("Authorization", getAuthHeader()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.BOTTLE.id", is(bottleId.intValue())))
+                .andExpect(jsonPath("$.BOTTLE.amountMl", is(120.0)))
+                .andExpect(jsonPath("$.DIAPER.id", is(diaperId.intValue())))
+                .andExpect(jsonPath("$.GROWTH").doesNotExist());
+
+        // 新增记录直接写入缓存
+        Long newerBottleId = createBabyRecord(RecordType.BOTTLE, 150.0);
+        mockMvc.perform(get("/babies/{babyId}/records/latest", testBaby.getId())
+                        .header("Authorization", getAuthHeader()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.BOTTLE.id", is(newerBottleId.intValue())));
+
+        // 删除最新记录后回退到上一条
+        mockMvc.perform(delete("/babies/{babyId}/records/{recordId}", testBaby.getId(), newerBottleId)
+                        .header("Authorization", getAuthHeader()))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(get("/babies/{babyId}/records/latest", testBaby.getId())
+                        .header("Authorization", getAuthHeader()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.BOTTLE.id", is(bottleId.intValue())))
+                .andExpect(jsonPath("$.DIAPER.id", is(diaperId.intValue())));
+    }
+
+    @Test
+    @DisplayName("记录导出 - 应按时间正序流式导出CSV与NDJSON")
+    void testExportRecords_ShouldStreamCsvAndNdjson() throws Exception {
+        // Given - 两条记录，备注中带逗号和引号
+        CreateRecordRequest request = new CreateRecordRequest();
+        request.setType(RecordType.BOTTLE);
+        request.setHappenedAt(OffsetDateTime.now().minusHours(1));
+        request.setAmountMl(120.0);
+        request.setNote("喝完了, 说\"还要\"");
+        mockMvc.perform(post("/babies/{babyId}/records", testBaby.getId())
+                        .header("Authorization", getAuthHeader())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(toJson(request)))
+                .andExpect(status().isOk());
+        Long diaperId = createBabyRecord(RecordType.DIAPER, null);
+
+        // 不支持的格式在开始写出前返回400
+        mockMvc.perform(get("/babies/{babyId}/records/export", testBaby.getId())
+                        .param("format", "xlsx")
+                        .header("Authorization", getAuthHeader()))
+                .andExpect(status().isBadRequest());
+
+        // 导出在异步线程的独立事务中读取，先提交测试数据
+        TestTransaction.flagForCommit();
+        TestTransaction.end();
+
+        // When & Then - CSV：表头 + 每条记录一行，按时间正序
+        MvcResult csv = mockMvc.perform(get("/babies/{babyId}/records/export", testBaby.getId())
+                        .header("Authorization", getAuthHeader()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String csvBody = mockMvc.perform(asyncDispatch(csv))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Disposition", containsString("baby-" + testBaby.getId() + "-records.csv")))
+                .andExpect(content().contentTypeCompatibleWith("text/csv"))
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+        String[] lines = csvBody.split("\r\n");
+        assertEquals(3, lines.length);
+        assertTrue(lines[0].startsWith("\uFEFFid,happenedAt,type,"));
+        assertTrue(lines[1].contains(",BOTTLE,"));
+        assertTrue(lines[1].contains("\"喝完了, 说\"\"还要\"\"\""));
+        assertTrue(lines[2].startsWith(diaperId + ","));
+
+        // NDJSON：每行一个 JSON 对象
+        MvcResult ndjson = mockMvc.perform(get("/babies/{babyId}/records/export", testBaby.getId())
+                        .param("format", "ndjson")
+                        .header("Authorization", getAuthHeader()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String ndjsonBody = mockMvc.perform(asyncDispatch(ndjson))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+        String[] rows = ndjsonBody.split("\n");
+        assertEquals(2, rows.length);
+        assertEquals(RecordType.BOTTLE, fromJson(rows[0], Record.class).getType());
+        assertEquals(120.0, fromJson(rows[0], Record.class).getAmountMl());
+        assertEquals(diaperId, fromJson(rows[1], Record.class).getId());
+    }
+
+    @Test
+    @DisplayName("记录导入 - 应批量导入合法行，并返回失败行的行号与原因")
+    void testImportRecords_ShouldInsertValidRowsAndReportErrors() throws Exception {
+        // Given - CSV：两条合法记录、一条缺少喂奶量、一条类型不存在、一条列数不对
+        String csv = "\uFEFFid,happenedAt,type,note,amountMl,durationMin,heightCm\r\n"
+                + "1,2024-01-01T08:00:00.000+08:00,BOTTLE,\"早上, 第一顿\",120.0,,\r\n"
+                + "2,2024-01-01T09:00:00+08:00,GROWTH,,,,60.5\r\n"
+                + "3,2024-01-01T10:00:00+08:00,FORMULA,,,,\r\n"
+                + "4,2024-01-01T11:00:00+08:00,SLEEP,,,,\r\n"
+                + "5,2024-01-01T12:00:00+08:00\r\n";
+
+        // When & Then
+        mockMvc.perform(post("/babies/{babyId}/records/import", testBaby.getId())
+                        .header("Authorization", getAuthHeader())
+                        .contentType("text/csv")
+                        .content(csv.getBytes(StandardCharsets.UTF_8)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total", is(5)))
+                .andExpect(jsonPath("$.imported", is(2)))
+                .andExpect(jsonPath("$.failed", is(3)))
+                .andExpect(jsonPath("$.errors[0].line", is(4)))
+                .andExpect(jsonPath("$.errors[0].message", containsString("amountMl")))
+                .andExpect(jsonPath("$.errors[1].line", is(5)))
+                .andExpect(jsonPath("$.errors[2].line", is(6)));
+
+        List<Record> records = recordRepository.findByBabyIdOrderByHappenedAtDesc(testBaby.getId());
+        assertEquals(2, records.size());
+        assertEquals(RecordType.GROWTH, records.get(0).getType());
+        assertEquals(60.5, records.get(0).getHeightCm());
+        assertEquals(testFamily.getId(), records.get(1).getFamilyId());
+        assertEquals("早上, 第一顿", records.get(1).getNote());
+
+        // NDJSON：未知字段忽略，其他类型的字段不会写入
+        String ndjson = "{\"type\":\"DIAPER\",\"happenedAt\":\"2024-01-02T08:00:00Z\",\"hasUrine\":true,\"amountMl\":50,\"source\":\"other-app\"}\n"
+                + "not json\n";
+        mockMvc.perform(post("/babies/{babyId}/records/import", testBaby.getId())
+                        .param("format", "ndjson")
+                        .header("Authorization", getAuthHeader())
+                        .contentType("application/x-ndjson")
+                        .content(ndjson.getBytes(StandardCharsets.UTF_8)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported", is(1)))
+                .andExpect(jsonPath("$.errors[0].line", is(2)));
+        mockMvc.perform(get("/babies/{babyId}/records/latest", testBaby.getId())
+                        .header("Authorization", getAuthHeader()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.DIAPER.hasUrine", is(true)))
+                .andExpect(jsonPath("$.DIAPER.amountMl").doesNotExist())
+                .andExpect(jsonPath("$.BOTTLE.amountMl", is(120.0)));
+
+        // 表头包含不支持的列时整个文件返回400
+        mockMvc.perform(post("/babies/{babyId}/records/import", testBaby.getId())
+                        .header("Authorization", getAuthHeader())
+                        .contentType("text/csv")
+                        .content("type,password\r\nBOTTLE,x\r\n"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("记录导入 - 超过文件大小或行数上限时返回413且不写入")
+    void testImportRecords_OverLimits_ShouldReturn413() throws Exception {
+        // Given - 测试配置的上限为 64KB、10 行
+        String header = "happenedAt,type,amountMl\r\n";
+        String row = "2024-01-01T08:00:00+08:00,BOTTLE,120.0\r\n";
+
+        // When & Then - 超过大小上限，读取请求体时即拒绝
+        mockMvc.perform(post("/babies/{babyId}/records/import", testBaby.getId())
+                        .header("Authorization", getAuthHeader())
+                        .contentType("text/csv")
+                        .content((header + row.repeat(2000)).getBytes(StandardCharsets.UTF_8)))
+                .andExpect(status().isPayloadTooLarge());
+
+        // 超过行数上限，整个导入回滚
+        mockMvc.perform(post("/babies/{babyId}/records/import", testBaby.getId())
+                        .header("Authorization", getAuthHeader())
+                        .contentType("text/csv")
+                        .content((header + row.repeat(11)).getBytes(StandardCharsets.UTF_8)))
+                .andExpect(status().isPayloadTooLarge());
+
+        assertTrue(recordRepository.findByBabyIdOrderByHappenedAtDesc(testBaby.getId()).isEmpty());
+    }
+
+    @Test
+    @DisplayName("更新和删除宝宝的记录 - 记录只加载一次，不再加载宝宝")
+    void testUpdateAndDeleteBabyRecord_ShouldLoadRecordOnce() throws Exception {
+        // Given - 一条记录（创建时权限缓存已就绪），清空持久化上下文后开始统计实体加载次数
+        Long recordId = createBabyRecord(RecordType.BOTTLE, 90.0);
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+
+        UpdateRecordRequest request = new UpdateRecordRequest();
+        request.setType(RecordType.BOTTLE);
+        request.setHappenedAt(OffsetDateTime.now());
+        request.setAmountMl(120.0);
+
+        // When & Then - 更新
+        mockMvc.perform(put("/babies/{babyId}/records/{recordId}", testBaby.getId(), recordId)
+                        .header("Authorization", getAuthHeader())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(toJson(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.amountMl", is(120.0)));
+        assertEquals(1, statistics.getEntityStatistics(Record.class.getName()).getLoadCount());
+        assertEquals(0, statistics.getEntityStatistics(Baby.class.getName()).getLoadCount());
+
+        // When & Then - 删除
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+        mockMvc.perform(delete("/babies/{babyId}/records/{recordId}", testBaby.getId(), recordId)
+                        .header("Authorization", getAuthHeader()))
+                .andExpect(status().isNoContent());
+        assertEquals(1, statistics.getEntityStatistics(Record.class.getName()).getLoadCount());
+        assertEquals(0, statistics.getEntityStatistics(Baby.class.getName()).getLoadCount());
+        assertFalse(recordRepository.existsById(recordId));
+    }
 }
\ No newline at end of file
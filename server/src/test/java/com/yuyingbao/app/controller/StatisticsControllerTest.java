@@ -0,0 +1,503 @@
+package com.yuyingbao.app.controller;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.yuyingbao.app.BaseIntegrationTest;
+import com.yuyingbao.app.config.CacheConfig;
+import com.yuyingbao.app.dto.CreateRecordRequest;
+import com.yuyingbao.app.dto.UpdateRecordRequest;
+import com.yuyingbao.app.model.entity.Baby;
+import com.yuyingbao.app.model.entity.Family;
+import com.yuyingbao.app.model.entity.FamilyMember;
+import com.yuyingbao.app.model.entity.Record;
+import com.yuyingbao.app.model.enums.Gender;
+import com.yuyingbao.app.model.enums.RecordType;
+import com.yuyingbao.app.repository.BabyRepository;
+import com.yuyingbao.app.repository.FamilyMemberRepository;
+import com.yuyingbao.app.repository.FamilyRepository;
+import com.yuyingbao.app.repository.RecordRepository;
+import com.yuyingbao.app.service.BabyDailyStatsService;
+import com.yuyingbao.app.service.RecordService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.transaction.TestTransaction;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * 统计接口测试
+ */
+@AutoConfigureMockMvc
+@DisplayName("统计接口测试")
+class StatisticsControllerTest extends BaseIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private RecordRepository recordRepository;
+
+    @Autowired
+    private FamilyRepository familyRepository;
+
+    @Autowired
+    private FamilyMemberRepository familyMemberRepository;
+
+    @Autowired
+    private BabyRepository babyRepository;
+
+    @Autowired
+    private BabyDailyStatsService babyDailyStatsService;
+
+    @Autowired
+    private RecordService recordService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    private Family testFamily;
+    private Baby testBaby;
+
+    @BeforeEach
+    void setUpFamilyAndBaby() {
+        testFamily = familyRepository.save(Family.builder()
+                .name("统计测试家庭")
+                .inviteCode("STATS123")
+                .creatorUserId(testUser.getId())
+                .createdAt(OffsetDateTime.now())
+                .build());
+
+        familyMemberRepository.save(FamilyMember.builder()
+                .familyId(testFamily.getId())
+                .userId(testUser.getId())
+                .role("CREATOR")
+                .joinedAt(OffsetDateTime.now())
+                .build());
+
+        testBaby = babyRepository.save(Baby.builder()
+                .familyId(testFamily.getId())
+                .name("统计宝宝")
+                .gender(Gender.GIRL)
+                .birthDate(LocalDate.of(2024, 1, 1))
+                .createdAt(OffsetDateTime.now())
+                .build());
+    }
+
+    private void saveRecord(RecordType type, OffsetDateTime happenedAt, Double amountMl, Integer durationMin) {
+        saveRecord(testBaby, type, happenedAt, amountMl, durationMin);
+    }
+
+    private void saveRecord(Baby baby, RecordType type, OffsetDateTime happenedAt, Double amountMl, Integer durationMin) {
+        recordRepository.save(Record.builder()
+                .familyId(testFamily.getId())
+                .userId(testUser.getId())
+                .babyId(baby.getId())
+                .type(type)
+                .happenedAt(happenedAt)
+                .amountMl(amountMl)
+                .durationMin(durationMin)
+                .build());
+    }
+
+    @Test
+    @DisplayName("指定时间范围统计 - 应该按类型汇总次数与用量")
+    void testGetBabyStatistics_ShouldAggregateByType() throws Exception {
+        OffsetDateTime base = OffsetDateTime.now().minusDays(1);
+        saveRecord(RecordType.BREASTFEEDING, base, null, 15);
+        saveRecord(RecordType.BREASTFEEDING, base.plusHours(1), null, null);
+        saveRecord(RecordType.BOTTLE, base.plusHours(2), 120.0, null);
+        saveRecord(RecordType.FORMULA, base.plusHours(3), 90.0, null);
+        saveRecord(RecordType.WATER, base.plusHours(4), 30.0, null);
+        saveRecord(RecordType.DIAPER, base.plusHours(5), null, null);
+        // 范围之外的记录不参与统计
+        saveRecord(RecordType.BOTTLE, base.minusDays(3), 200.0, null);
+
+        mockMvc.perform(get("/api/statistics/babies/{babyId}", testBaby.getId())
+                        .param("startDate", base.minusHours(1).toString())
+                        .param("endDate", base.plusHours(6).toString())
+                        .header("Authorization", getAuthHeader()))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.feeding.breastfeeding.count", is(2)))
+                .andExpect(jsonPath("$.feeding.breastfeeding.totalDuration", is(15)))
+                .andExpect(jsonPath("$.feeding.bottle.count", is(1)))
+                .andExpect(jsonPath("$.feeding.bottle.totalAmount", is(120.0)))
+                .andExpect(jsonPath("$.feeding.formula.totalAmount", is(90.0)))
+                .andExpect(jsonPath("$.feeding.water.totalAmount", is(30.0)))
+                .andExpect(jsonPath("$.feeding.solid.count", is(0)))
+                .andExpect(jsonPath("$.feeding.total.count", is(4)))
+                .andExpect(jsonPath("$.feeding.total.amount", is(360.0)))
+                .andExpect(jsonPath("$.diaper.count", is(1)))
+                .andExpect(jsonPath("$.growth.count", is(0)))
+                .andExpect(jsonPath("$.suggestions", hasSize(1)));
+    }
+
+    @Test
+    @DisplayName("无记录时的今日统计 - 应该返回全零结构")
+    void testGetTodayStatistics_NoRecords_ShouldReturnZeros() throws Exception {
+        mockMvc.perform(get("/api/statistics/babies/{babyId}/today", testBaby.getId())
+                        .header("Authorization", getAuthHeader()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.feeding.total.count", is(0)))
+                .andExpect(jsonPath("$.feeding.total.amount", is(0.0)))
+                .andExpect(jsonPath("$.diaper.count", is(0)));
+    }
+
+    private Long createRecordViaApi(RecordType type, Double amountMl, Integer durationMin) throws Exception {
+        CreateRecordRequest request = new CreateRecordRequest();
+        request.setType(type);
+        request.setHappenedAt(OffsetDateTime.now());
+        request.setAmountMl(amountMl);
+        request.setDurationMin(durationMin);
+        String body = mockMvc.perform(post("/babies/{babyId}/records", testBaby.getId())
+                        .header("Authorization", getAuthHeader())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(toJson(request)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return fromJson(body, Record.class).getId();
+    }
+
+    @Test
+    @DisplayName("今日统计 - 应该随记录的增删改同步更新每日汇总")
+    void testTodayStatistics_ShouldFollowRecordWrites() throws Exception {
+        Long bottleId = createRecordViaApi(RecordType.BOTTLE, 120.0, null);
+        Long feedingId = createRecordViaApi(RecordType.BREASTFEEDING, null, 10);
+        createRecordViaApi(RecordType.DIAPER, null, null);
+
+        // 修改瓶喂量，删除母乳记录
+        UpdateRecordRequest update = new UpdateRecordRequest();
+        update.setType(RecordType.BOTTLE);
+        update.setHappenedAt(OffsetDateTime.now());
+        update.setAmountMl(150.0);
+        mockMvc.perform(put("/babies/{babyId}/records/{recordId}", testBaby.getId(), bottleId)
+                        .header("Authorization", getAuthHeader())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(toJson(update)))
+                .andExpect(status().isOk());
+        mockMvc.perform(delete("/babies/{babyId}/records/{recordId}", testBaby.getId(), feedingId)
+                        .header("Authorization", getAuthHeader()))
+                .andExpect(status().isNoContent());
+
+        mockMvc.perform(get("/api/statistics/babies/{babyId}/today", testBaby.getId())
+                        .header("Authorization", getAuthHeader()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.feeding.bottle.count", is(1)))
+                .andExpect(jsonPath("$.feeding.bottle.totalAmount", is(150.0)))
+                .andExpect(jsonPath("$.feeding.breastfeeding.count", is(0)))
+                .andExpect(jsonPath("$.diaper.count", is(1)));
+
+        mockMvc.perform(get("/api/statistics/families/{familyId}/today", testFamily.getId())
+                        .header("Authorization", getAuthHeader()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.feeding.total.count", is(1)))
+                .andExpect(jsonPath("$.feeding.total.amount", is(150.0)));
+
+        assertTrue(babyDailyStatsService.findInconsistencies(testBaby.getId()).isEmpty());
+    }
+
+    @Test
+    @DisplayName("每日汇总一致性校验 - 绕过服务写入的记录应被发现并可重建")
+    void testDailyStatsConsistency_ShouldDetectAndRebuild() throws Exception {
+        // 直接写库，不经过 RecordService
+        saveRecord(RecordType.FORMULA, OffsetDateTime.now().minusDays(3), 80.0, null);
+        assertEquals(1, babyDailyStatsService.findInconsistencies(testBaby.getId()).size());
+
+        assertEquals(1, babyDailyStatsService.rebuildBaby(testBaby.getId()));
+        assertTrue(babyDailyStatsService.findInconsistencies(testBaby.getId()).isEmpty());
+
+        // 跨越多个完整自然日的范围统计会读取汇总
+        mockMvc.perform(get("/api/statistics/babies/{babyId}", testBaby.getId())
+                        .param("startDate", OffsetDateTime.now().minusDays(7).toString())
+                        .param("endDate", OffsetDateTime.now().toString())
+                        .header("Authorization", getAuthHeader()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.feeding.formula.count", is(1)))
+                .andExpect(jsonPath("$.feeding.formula.totalAmount", is(80.0)));
+    }
+
+    @Test
+    @DisplayName("每日汇总重建 - 与并发写入交错时不应死锁且汇总保持一致")
+    void testRebuildBaby_ConcurrentWrite_ShouldNotDeadlock() throws Exception {
+        // Given: 已提交的历史数据，其他线程才能看到
+        LocalDate day = LocalDate.now().minusDays(2);
+        saveRecord(RecordType.FORMULA, at(day, 9), 80.0, null);
+        TestTransaction.flagForCommit();
+        TestTransaction.end();
+
+        Long babyId = testBaby.getId();
+        CreateRecordRequest request = new CreateRecordRequest();
+        request.setBabyId(babyId);
+        request.setType(RecordType.FORMULA);
+        request.setHappenedAt(at(day, 10));
+        request.setAmountMl(60.0);
+
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        CountDownLatch babyLocked = new CountDownLatch(1);
+        CountDownLatch releaseWriter = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            // When: 写入方先锁住宝宝行并停住，重建随后开始，写入方再继续写记录与汇总行
+            Future<?> writer = executor.submit(() -> tx.executeWithoutResult(status -> {
+                babyRepository.incrementDataVersion(babyId);
+                babyLocked.countDown();
+                try {
+                    releaseWriter.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                recordService.createRecord(testFamily.getId(), testUser.getId(), request);
+            }));
+            assertTrue(babyLocked.await(10, TimeUnit.SECONDS));
+            Future<Integer> rebuild = executor.submit(() -> babyDailyStatsService.rebuildBaby(babyId));
+            // 给重建留出时间走到第一条加锁语句
+            Thread.sleep(300);
+            releaseWriter.countDown();
+
+            // Then: 两个事务都成功提交，重建等到写入提交后才读取记录
+            writer.get(30, TimeUnit.SECONDS);
+            assertEquals(1, rebuild.get(30, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+        assertTrue(babyDailyStatsService.findInconsistencies(babyId).isEmpty());
+        assertEquals(2, recordRepository.findByBabyIdOrderByHappenedAtDesc(babyId).size());
+    }
+
+    private OffsetDateTime at(LocalDate date, int hour) {
+        return date.atTime(hour, 0).atZone(ZoneId.systemDefault()).toOffsetDateTime();
+    }
+
+    @Test
+    @DisplayName("统计序列 - 应该按周分段并补齐无数据的时间段")
+    void testGetBabySeries_ShouldBucketByWeekAndFillGaps() throws Exception {
+        // 2025-03-03 是周一
+        saveRecord(RecordType.BOTTLE, at(LocalDate.of(2025, 3, 4), 10), 100.0, null);
+        saveRecord(RecordType.BREASTFEEDING, at(LocalDate.of(2025, 3, 5), 8), null, 10);
+        saveRecord(RecordType.DIAPER, at(LocalDate.of(2025, 3, 12), 9), null, null);
+        saveRecord(RecordType.FORMULA, at(LocalDate.of(2025, 3, 12), 9), 90.0, null);
+        babyDailyStatsService.rebuildBaby(testBaby.getId());
+
+        mockMvc.perform(get("/api/statistics/babies/{babyId}/series", testBaby.getId())
+                        .param("granularity", "week")
+                        .param("from", "2025-03-05")
+                        .param("to", "2025-03-23")
+                        .param("types", "BOTTLE,BREASTFEEDING,DIAPER")
+                        .header("Authorization", getAuthHeader()))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.granularity", is("week")))
+                .andExpect(jsonPath("$.from", is("2025-03-03")))
+                .andExpect(jsonPath("$.buckets", contains("2025-03-03", "2025-03-10", "2025-03-17")))
+                .andExpect(jsonPath("$.series.BOTTLE.count", contains(1, 0, 0)))
+                .andExpect(jsonPath("$.series.BOTTLE.amount", contains(100.0, 0.0, 0.0)))
+                .andExpect(jsonPath("$.series.BREASTFEEDING.duration", contains(10, 0, 0)))
+                .andExpect(jsonPath("$.series.DIAPER.count", contains(0, 1, 0)))
+                // 未请求的类型不参与序列和喂养合计
+                .andExpect(jsonPath("$.series.FORMULA").doesNotExist())
+                .andExpect(jsonPath("$.feeding.count", contains(2, 0, 0)))
+                .andExpect(jsonPath("$.feeding.amount", contains(200.0, 0.0, 0.0)));
+
+        mockMvc.perform(get("/api/statistics/babies/{babyId}/series", testBaby.getId())
+                        .param("granularity", "day")
+                        .param("from", "2025-03-04")
+                        .param("to", "2025-03-06")
+                        .header("Authorization", getAuthHeader()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.buckets", hasSize(3)))
+                .andExpect(jsonPath("$.series.BOTTLE.count", contains(1, 0, 0)))
+                .andExpect(jsonPath("$.series.BREASTFEEDING.count", contains(0, 1, 0)));
+    }
+
+    @Test
+    @DisplayName("统计序列 - 非法粒度或区间过长应该返回400")
+    void testGetBabySeries_InvalidParameters_ShouldReturn400() throws Exception {
+        mockMvc.perform(get("/api/statistics/babies/{babyId}/series", testBaby.getId())
+                        .param("granularity", "hour")
+                        .header("Authorization", getAuthHeader()))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(get("/api/statistics/babies/{babyId}/series", testBaby.getId())
+                        .param("granularity", "day")
+                        .param("from", "2020-01-01")
+                        .param("to", "2025-01-01")
+                        .header("Authorization", getAuthHeader()))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("今日统计缓存 - 重复读取应命中缓存，记录写入后应失效")
+    void testTodayStatistics_ShouldBeCachedAndEvictedOnWrite() throws Exception {
+        Cache<?, ?> cache = (Cache<?, ?>) cacheManager.getCache(CacheConfig.TODAY_STATISTICS).getNativeCache();
+
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(get("/api/statistics/babies/{babyId}/today", testBaby.getId())
+                            .header("Authorization", getAuthHeader()))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.feeding.bottle.count", is(0)));
+        }
+        assertEquals(1, cache.stats().missCount());
+        assertEquals(1, cache.stats().hitCount());
+
+        createRecordViaApi(RecordType.BOTTLE, 60.0, null);
+
+        mockMvc.perform(get("/api/statistics/babies/{babyId}/today", testBaby.getId())
+                        .header("Authorization", getAuthHeader()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.feeding.bottle.count", is(1)))
+                .andExpect(jsonPath("$.feeding.bottle.totalAmount", is(60.0)));
+        assertEquals(2, cache.stats().missCount());
+    }
+
+    @Test
+    @DisplayName("今日统计ETag - 数据未变化时应返回304，记录写入后应返回新的ETag")
+    void testTodayStatistics_ShouldSupportConditionalGet() throws Exception {
+        // Given - 首次读取拿到 ETag
+        String etag = mockMvc.perform(get("/api/statistics/babies/{babyId}/today", testBaby.getId())
+                        .header("Authorization", getAuthHeader()))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        // When & Then - 数据未变化，条件请求返回304且无响应体
+        mockMvc.perform(get("/api/statistics/babies/{babyId}/today", testBaby.getId())
+                        .header("Authorization", getAuthHeader())
+                        .header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        // 兼容接口使用同一个 ETag
+        mockMvc.perform(get("/api/statistics/today")
+                        .param("babyId", testBaby.getId().toString())
+                        .header("Authorization", getAuthHeader())
+                        .header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+
+        // 写入记录后 ETag 变化，返回最新数据
+        createRecordViaApi(RecordType.BOTTLE, 60.0, null);
+        mockMvc.perform(get("/api/statistics/babies/{babyId}/today", testBaby.getId())
+                        .header("Authorization", getAuthHeader())
+                        .header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", not(etag)))
+                .andExpect(jsonPath("$.feeding.bottle.count", is(1)));
+    }
+
+    @Test
+    @DisplayName("家庭看板 - 应该一次返回家庭内每个宝宝的今日与时间范围统计")
+    void testFamilyBabiesStatistics_ShouldReturnPerBabyStatistics() throws Exception {
+        // Given - 同一家庭的第二个宝宝，以及各自的记录
+        Baby secondBaby = babyRepository.save(Baby.builder()
+                .familyId(testFamily.getId())
+                .name("二宝")
+                .gender(Gender.BOY)
+                .birthDate(LocalDate.of(2025, 1, 1))
+                .createdAt(OffsetDateTime.now())
+                .build());
+        LocalDate today = LocalDate.now(BabyDailyStatsService.ZONE);
+        saveRecord(RecordType.BOTTLE, at(today, 0), 100.0, null);
+        saveRecord(secondBaby, RecordType.DIAPER, at(today, 0), null, null);
+        saveRecord(secondBaby, RecordType.FORMULA, at(today.minusDays(2), 12), 50.0, null);
+        babyDailyStatsService.rebuildBaby(testBaby.getId());
+        babyDailyStatsService.rebuildBaby(secondBaby.getId());
+
+        // When & Then - 今日统计
+        mockMvc.perform(get("/api/statistics/families/{familyId}/babies/today", testFamily.getId())
+                        .header("Authorization", getAuthHeader()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].babyId", is(testBaby.getId().intValue())))
+                .andExpect(jsonPath("$[0].babyName", is("统计宝宝")))
+                .andExpect(jsonPath("$[0].statistics.feeding.bottle.count", is(1)))
+                .andExpect(jsonPath("$[0].statistics.diaper.count", is(0)))
+                .andExpect(jsonPath("$[1].babyId", is(secondBaby.getId().intValue())))
+                .andExpect(jsonPath("$[1].statistics.diaper.count", is(1)))
+                .andExpect(jsonPath("$[1].statistics.feeding.formula.count", is(0)));
+
+        // 时间范围统计：包含完整自然日与首尾不完整的部分
+        mockMvc.perform(get("/api/statistics/families/{familyId}/babies", testFamily.getId())
+                        .param("startDate", at(today.minusDays(3), 6).toString())
+                        .param("endDate", OffsetDateTime.now().plusMinutes(1).toString())
+                        .header("Authorization", getAuthHeader()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].statistics.feeding.bottle.totalAmount", is(100.0)))
+                .andExpect(jsonPath("$[1].statistics.feeding.formula.totalAmount", is(50.0)))
+                .andExpect(jsonPath("$[1].statistics.diaper.count", is(1)));
+    }
+
+    @Test
+    @DisplayName("成长曲线 - 应该按列返回降采样后的测量值与 WHO 百分位曲线")
+    void testGetGrowthTrend_ShouldReturnColumnsWithWhoCurves() throws Exception {
+        // Given - 出生200天的男宝宝，每9小时一条体重记录，每10条附带一次身长
+        Baby baby = babyRepository.save(Baby.builder()
+                .familyId(testFamily.getId())
+                .name("成长宝宝")
+                .gender(Gender.BOY)
+                .birthDate(LocalDate.now(BabyDailyStatsService.ZONE).minusDays(200))
+                .createdAt(OffsetDateTime.now())
+                .build());
+        OffsetDateTime first = OffsetDateTime.now().minusDays(190).withNano(0);
+        OffsetDateTime last = first;
+        for (int i = 0; i < 500; i++) {
+            last = first.plusHours(9L * i);
+            recordRepository.save(Record.builder()
+                    .familyId(testFamily.getId())
+                    .userId(testUser.getId())
+                    .babyId(baby.getId())
+                    .type(RecordType.GROWTH)
+                    .happenedAt(last)
+                    .weightKg(3.5 + i * 0.01)
+                    .heightCm(i % 10 == 0 ? 50.0 + i * 0.03 : null)
+                    .build());
+        }
+
+        // When & Then - 体重降采样到50个点，身长只有50条全部保留，首尾两点一定保留
+        mockMvc.perform(get("/api/statistics/babies/{babyId}/growth-trend", baby.getId())
+                        .param("days", "200")
+                        .param("points", "50")
+                        .header("Authorization", getAuthHeader()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total", is(500)))
+                .andExpect(jsonPath("$.t", hasSize(allOf(greaterThanOrEqualTo(50), lessThanOrEqualTo(100)))))
+                .andExpect(jsonPath("$.weightKg", hasSize(allOf(greaterThanOrEqualTo(50), lessThanOrEqualTo(100)))))
+                .andExpect(jsonPath("$.t[0]", is(first.toInstant().toEpochMilli())))
+                .andExpect(jsonPath("$.t[-1:]", contains(last.toInstant().toEpochMilli())))
+                .andExpect(jsonPath("$.heightCm[?(@ != null)]", hasSize(50)))
+                .andExpect(jsonPath("$.records").doesNotExist())
+                // 0-7 月龄：两端加上每个整月龄，男童出生时体重 P50 约 3.35kg
+                .andExpect(jsonPath("$.who.t", hasSize(8)))
+                .andExpect(jsonPath("$.who.weightKg.p50[0]", closeTo(3.35, 0.05)))
+                .andExpect(jsonPath("$.who.weightKg.p3", hasSize(8)))
+                .andExpect(jsonPath("$.who.heightCm.p50[1]", closeTo(54.72, 0.01)));
+
+        // 超出范围的点数
+        mockMvc.perform(get("/api/statistics/babies/{babyId}/growth-trend", baby.getId())
+                        .param("points", "2")
+                        .header("Authorization", getAuthHeader()))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,248 @@
+package com.yuyingbao.app.repository;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yuyingbao.app.dto.RecordCursor;
+import com.yuyingbao.app.model.enums.RecordType;
+import com.yuyingbao.app.repository.projection.RecordProjection;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 记录查询执行计划回归测试
+ * 在 PostgreSQL 上执行 Flyway 迁移并灌入数据后，对 RecordRepository 的每个方法以及 RecordViewRepository 片段
+ * 按各种条件组合生成的 SQL 执行 EXPLAIN，任何一个查询退化为 records 表的顺序扫描都会导致测试失败
+ */
+@DataJpaTest(properties = {
+        "spring.flyway.enabled=true",
+        "spring.flyway.schemas=app",
+        "spring.flyway.default-schema=app",
+        "spring.jpa.hibernate.ddl-auto=none",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.PostgreSQLDialect",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.yuyingbao.app.repository.RecordRepositoryQueryPlanTest$CapturingStatementInspector"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+@DisplayName("记录查询执行计划测试")
+class RecordRepositoryQueryPlanTest {
+
+    @Container
+    static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16");
+
+    @DynamicPropertySource
+    static void datasourceProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.datasource.driver-class-name", postgres::getDriverClassName);
+    }
+
+    @Autowired
+    private RecordRepository recordRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @BeforeEach
+    void seed() {
+        // 200个家庭、400个宝宝、5万条记录，按宝宝聚集写入，贴近真实数据分布
+        jdbcTemplate.execute("""
+                INSERT INTO app.records (family_id, user_id, baby_id, type, happened_at, amount_ml, duration_min)
+                SELECT (g / 250) + 1, 1, (g / 125) + 1,
+                       (ARRAY['BREASTFEEDING','BOTTLE','FORMULA','SOLID','DIAPER','GROWTH','WATER','NUTRITION'])[(g % 8) + 1],
+                       NOW() - make_interval(mins => g * 7),
+                       (g % 200)::double precision, g % 30
+                FROM generate_series(0, 49999) AS g
+                """);
+        jdbcTemplate.execute("ANALYZE app.records");
+    }
+
+    @Test
+    @DisplayName("RecordRepository 的所有查询都不应对 records 表做顺序扫描")
+    void everyRepositoryQuery_ShouldAvoidSeqScanOnRecords() throws Exception {
+        List<Method> methods = Arrays.stream(RecordRepository.class.getDeclaredMethods())
+                .filter(m -> !Modifier.isStatic(m.getModifiers()) && !m.isSynthetic())
+                .sorted(Comparator.comparing(Method::getName))
+                .toList();
+        assertFalse(methods.isEmpty());
+
+        List<String> failures = new ArrayList<>();
+        for (Method method : methods) {
+            CapturingStatementInspector.SQL.clear();
+            method.invoke(recordRepository, sampleArguments(method));
+            checkCapturedPlans(method.getName(), failures);
+        }
+
+        assertTrue(failures.isEmpty(), "以下查询退化为顺序扫描:\n" + String.join("\n", failures));
+    }
+
+    @Test
+    @DisplayName("RecordViewRepository 的投影与导出查询都不应对 records 表做顺序扫描")
+    void everyViewFragmentQuery_ShouldAvoidSeqScanOnRecords() throws Exception {
+        // 片段方法的 JPQL 随筛选条件、游标与投影变化，逐一覆盖各种组合
+        OffsetDateTime end = OffsetDateTime.now();
+        OffsetDateTime start = end.minusDays(7);
+        RecordCursor cursor = new RecordCursor(end, Long.MAX_VALUE);
+        Map<String, RecordProjection> projections = Map.of(
+                "slim", RecordProjection.parse(RecordProjection.SLIM, null),
+                "slim+type", RecordProjection.parse(RecordProjection.SLIM, RecordType.BOTTLE),
+                "all", RecordProjection.all());
+
+        Map<String, Runnable> calls = new LinkedHashMap<>();
+        projections.forEach((name, projection) -> {
+            calls.put("findViewsByBabyId[" + name + "]",
+                    () -> recordRepository.findViewsByBabyId(1L, null, null, null, null, 20, projection));
+            calls.put("findViewsByBabyId[" + name + ", cursor]",
+                    () -> recordRepository.findViewsByBabyId(1L, null, null, null, cursor, 20, projection));
+            calls.put("findViewsByBabyId[" + name + ", range, type, cursor]",
+                    () -> recordRepository.findViewsByBabyId(1L, start, end, RecordType.BOTTLE, cursor, 20, projection));
+            calls.put("findViewsByFamilyId[" + name + ", cursor]",
+                    () -> recordRepository.findViewsByFamilyId(1L, null, null, null, cursor, 20, projection));
+            calls.put("findViewsByFamilyId[" + name + ", range, type, cursor]",
+                    () -> recordRepository.findViewsByFamilyId(1L, start, end, RecordType.BOTTLE, cursor, 20, projection));
+        });
+        calls.put("streamRowsByBabyId", () -> {
+            try (Stream<Object[]> rows = recordRepository.streamRowsByBabyId(1L, RecordProjection.all(), 100)) {
+                rows.limit(1).forEach(row -> { });
+            }
+        });
+
+        // 每个片段查询方法都必须被覆盖（insertAll 使用 JdbcTemplate 批量插入，不是查询）
+        Set<String> covered = new HashSet<>();
+        calls.keySet().forEach(name -> covered.add(name.replaceAll("\\[.*", "")));
+        for (Method method : RecordViewRepository.class.getDeclaredMethods()) {
+            assertTrue(covered.contains(method.getName()), "缺少 " + method.getName() + " 的执行计划用例");
+        }
+
+        List<String> failures = new ArrayList<>();
+        for (Map.Entry<String, Runnable> call : calls.entrySet()) {
+            CapturingStatementInspector.SQL.clear();
+            call.getValue().run();
+            checkCapturedPlans(call.getKey(), failures);
+        }
+
+        assertTrue(failures.isEmpty(), "以下查询退化为顺序扫描:\n" + String.join("\n", failures));
+    }
+
+    private void checkCapturedPlans(String name, List<String> failures) throws Exception {
+        List<String> statements = CapturingStatementInspector.SQL.stream()
+                .filter(sql -> sql.contains("records"))
+                .toList();
+        if (statements.isEmpty()) {
+            failures.add(name + ": 未捕获到 SQL");
+            return;
+        }
+        for (String sql : statements) {
+            JsonNode plan = explain(sql);
+            if (hasSeqScanOnRecords(plan)) {
+                failures.add(name + ": " + plan.toPrettyString());
+            }
+        }
+    }
+
+    /**
+     * 使用通用计划（PostgreSQL 16+）解释带参数的 SQL，无需绑定具体参数值
+     */
+    private JsonNode explain(String sql) throws Exception {
+        StringBuilder numbered = new StringBuilder(sql.length() + 16);
+        int index = 0;
+        for (char c : sql.toCharArray()) {
+            if (c == '?') {
+                numbered.append('$').append(++index);
+            } else {
+                numbered.append(c);
+            }
+        }
+        String json = jdbcTemplate.queryForObject("EXPLAIN (GENERIC_PLAN, FORMAT JSON) " + numbered, String.class);
+        return objectMapper.readTree(json).get(0).get("Plan");
+    }
+
+    private boolean hasSeqScanOnRecords(JsonNode node) {
+        if ("Seq Scan".equals(node.path("Node Type").asText())
+                && "records".equals(node.path("Relation Name").asText())) {
+            return true;
+        }
+        for (JsonNode child : node.path("Plans")) {
+            if (hasSeqScanOnRecords(child)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 按参数类型构造示例参数；执行计划使用通用计划，参数取值不影响结果
+     */
+    private Object[] sampleArguments(Method method) {
+        OffsetDateTime now = OffsetDateTime.now();
+        Class<?>[] types = method.getParameterTypes();
+        Object[] args = new Object[types.length];
+        for (int i = 0; i < types.length; i++) {
+            Class<?> type = types[i];
+            if (type == Long.class || type == long.class) {
+                args[i] = 1L;
+            } else if (type == Integer.class || type == int.class) {
+                args[i] = 1;
+            } else if (type == OffsetDateTime.class) {
+                args[i] = now;
+            } else if (type == LocalDate.class) {
+                args[i] = now.toLocalDate();
+            } else if (type == RecordType.class) {
+                args[i] = RecordType.BOTTLE;
+            } else if (type == Limit.class) {
+                args[i] = Limit.of(20);
+            } else if (type == String.class) {
+                args[i] = "test";
+            } else if (List.class.isAssignableFrom(type)) {
+                args[i] = List.of(1L);
+            } else {
+                fail("不支持的参数类型 " + type.getName() + "（方法 " + method.getName() + "），请在 sampleArguments 中补充");
+            }
+        }
+        return args;
+    }
+
+    /**
+     * 记录 Hibernate 发出的 SQL
+     */
+    public static class CapturingStatementInspector implements StatementInspector {
+        static final List<String> SQL = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            SQL.add(sql);
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.yuyingbao.app.repository.projection;
+
+import com.yuyingbao.app.dto.RecordView;
+import com.yuyingbao.app.model.enums.RecordType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 记录列投影测试
+ */
+@DisplayName("记录列投影测试")
+class RecordProjectionTest {
+
+    private static final String ENUM = RecordType.class.getName() + ".";
+
+    @Test
+    @DisplayName("未指定类型的 slim 视图 - 类型专属列应由 CASE 按行类型读取")
+    void testSelectClause_UntypedSlim_ShouldScopeColumnsByType() {
+        // When
+        String select = RecordProjection.parse("slim", null).selectClause("r");
+
+        // Then - 通用字段直接读取，专属字段只在相关类型的行上取值
+        assertTrue(select.startsWith("r.id, r.happenedAt, r.type, r.note, "), select);
+        assertTrue(select.contains("CASE WHEN r.type IN (" + ENUM + "BOTTLE, " + ENUM + "FORMULA, " + ENUM + "WATER)"
+                + " THEN r.amountMl END"), select);
+        assertTrue(select.contains("CASE WHEN r.type IN (" + ENUM + "BREASTFEEDING) THEN r.durationMin END"), select);
+        assertTrue(select.contains("CASE WHEN r.type IN (" + ENUM + "GROWTH) THEN r.weightKg END"), select);
+        assertFalse(select.contains(", r.amountMl"), select);
+    }
+
+    @Test
+    @DisplayName("slim 视图 - 显式请求或已指定类型的列应直接读取")
+    void testSelectClause_RequestedOrTyped_ShouldSelectPlainColumns() {
+        // 显式请求的字段每一行都返回
+        String mixed = RecordProjection.parse("slim,amountMl", null).selectClause("r");
+        assertTrue(mixed.contains("r.amountMl, "), mixed);
+        assertFalse(mixed.contains("THEN r.amountMl"), mixed);
+        assertTrue(mixed.contains("THEN r.durationMin END"), mixed);
+
+        // 指定类型时只读取该类型的列
+        assertEquals("r.id, r.happenedAt, r.type, r.note, r.amountMl",
+                RecordProjection.parse("slim", RecordType.BOTTLE).selectClause("r"));
+        assertEquals("r.id, r.happenedAt, r.note", RecordProjection.parse("note", null).selectClause("r"));
+    }
+
+    @Test
+    @DisplayName("行转换 - 按选择列顺序原样填充视图")
+    void testToView_ShouldApplyColumnsInOrder() {
+        RecordProjection projection = RecordProjection.parse("slim", RecordType.BOTTLE);
+
+        RecordView view = projection.toView(new Object[]{1L, null, RecordType.BOTTLE, "备注", 120.0});
+
+        assertEquals(1L, view.getId());
+        assertEquals(RecordType.BOTTLE, view.getType());
+        assertEquals("备注", view.getNote());
+        assertEquals(120.0, view.getAmountMl());
+    }
+}
@@ -1,6 +1,7 @@
 package com.yuyingbao.app.security;
 
 import com.yuyingbao.app.BaseIntegrationTest;
+import com.yuyingbao.app.config.JwtConfig;
 import com.yuyingbao.app.dto.CreateFamilyRequest;
 import com.yuyingbao.app.dto.CreateRecordRequest;
 import com.yuyingbao.app.dto.UpsertBabyRequest;
@@ -14,6 +15,7 @@ import com.yuyingbao.app.repository.BabyRepository;
 import com.yuyingbao.app.repository.FamilyMemberRepository;
 import com.yuyingbao.app.repository.FamilyRepository;
 import com.yuyingbao.app.repository.UserRepository;
+import com.yuyingbao.app.service.JwtService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -25,6 +27,9 @@ import org.springframework.test.web.servlet.MockMvc;
 import java.time.LocalDate;
 import java.time.OffsetDateTime;
 import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
@@ -53,6 +58,9 @@ class SecurityTest extends BaseIntegrationTest {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private JwtConfig jwtConfig;
+
     private User anotherUser;
     private String anotherUserToken;
     private Family testFamily;
@@ -187,6 +195,30 @@ class SecurityTest extends BaseIntegrationTest {
         }
     }
 
+    @Test
+    @DisplayName("重复使用同一token - 校验结果被缓存，篡改或过期的token仍被拒绝")
+    void testVerifiedTokenCache_ShouldNotAcceptTamperedOrExpiredTokens() throws Exception {
+        // Given - 已校验过一次的token
+        assertSame(jwtService.parseToken(testToken), jwtService.parseToken(testToken));
+        String tamperedToken = testToken.substring(0, testToken.length() - 2)
+                + (testToken.endsWith("AA") ? "BB" : "AA");
+        JwtConfig expiredConfig = new JwtConfig();
+        expiredConfig.setSecret(jwtConfig.getSecret());
+        expiredConfig.setIssuer(jwtConfig.getIssuer());
+        expiredConfig.setExpirationMinutes(-1);
+        String expiredToken = new JwtService(expiredConfig).generateToken(testUser.getId(), Map.of());
+
+        // When & Then - 原token可以访问，篡改签名和已过期的token按未认证处理（未配置认证入口，返回403）
+        mockMvc.perform(get("/families/my")
+                        .header("Authorization", getAuthHeader()))
+                .andExpect(status().isOk());
+        for (String token : new String[]{tamperedToken, expiredToken}) {
+            mockMvc.perform(get("/families/my")
+                            .header("Authorization", "Bearer " + token))
+                    .andExpect(status().isForbidden());
+        }
+    }
+
     // =========================== 家庭权限测试 ===========================
 
     @Test
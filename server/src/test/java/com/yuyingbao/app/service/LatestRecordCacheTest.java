@@ -0,0 +1,93 @@
+package com.yuyingbao.app.service;
+
+import com.yuyingbao.app.BaseIntegrationTest;
+import com.yuyingbao.app.model.entity.Record;
+import com.yuyingbao.app.model.enums.RecordType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.test.context.transaction.TestTransaction;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 最新记录缓存测试
+ */
+@AutoConfigureMockMvc
+@DisplayName("最新记录缓存测试")
+class LatestRecordCacheTest extends BaseIntegrationTest {
+
+    private static final Long BABY_ID = 1L;
+
+    @Autowired
+    private LatestRecordCache latestRecordCache;
+
+    private final OffsetDateTime base = OffsetDateTime.now().minusHours(2);
+    private final Record older = record(1L, base);
+    private final Record newer = record(2L, base.plusHours(1));
+
+    private Record record(Long id, OffsetDateTime happenedAt) {
+        return Record.builder()
+                .id(id)
+                .babyId(BABY_ID)
+                .type(RecordType.BOTTLE)
+                .happenedAt(happenedAt)
+                .build();
+    }
+
+    @Test
+    @DisplayName("写入记录 - 提交前只失效缓存，提交后才合并新记录")
+    void testPut_ShouldMergeOnlyAfterCommit() {
+        // Given - 缓存中已有旧记录
+        latestRecordCache.get(BABY_ID, () -> List.of(older));
+
+        // When - 事务内写入新记录
+        latestRecordCache.put(BABY_ID, List.of(newer));
+
+        // Then - 提交前缓存已失效，并发读取只能加载到已提交的旧记录
+        AtomicInteger loads = new AtomicInteger();
+        Map<RecordType, Record> beforeCommit = latestRecordCache.get(BABY_ID, () -> {
+            loads.incrementAndGet();
+            return List.of(older);
+        });
+        assertEquals(1, loads.get());
+        assertEquals(older.getId(), beforeCommit.get(RecordType.BOTTLE).getId());
+
+        // 提交后新记录合并进缓存，覆盖提交前写回的旧值
+        TestTransaction.flagForCommit();
+        TestTransaction.end();
+        Map<RecordType, Record> afterCommit = latestRecordCache.get(BABY_ID, () -> {
+            loads.incrementAndGet();
+            return List.of();
+        });
+        assertEquals(1, loads.get());
+        assertEquals(newer.getId(), afterCommit.get(RecordType.BOTTLE).getId());
+    }
+
+    @Test
+    @DisplayName("写入记录 - 事务回滚后不应保留未提交的记录")
+    void testPut_Rollback_ShouldEvict() {
+        // Given - 缓存中已有旧记录
+        latestRecordCache.get(BABY_ID, () -> List.of(older));
+
+        // When - 事务内写入新记录后，同一事务的读取加载到了未提交的记录，随后回滚
+        latestRecordCache.put(BABY_ID, List.of(newer));
+        latestRecordCache.get(BABY_ID, () -> List.of(older, newer));
+        TestTransaction.end();
+
+        // Then - 回滚后重新从数据库加载
+        AtomicInteger loads = new AtomicInteger();
+        Map<RecordType, Record> latest = latestRecordCache.get(BABY_ID, () -> {
+            loads.incrementAndGet();
+            return List.of(older);
+        });
+        assertEquals(1, loads.get());
+        assertEquals(older.getId(), latest.get(RecordType.BOTTLE).getId());
+    }
+}
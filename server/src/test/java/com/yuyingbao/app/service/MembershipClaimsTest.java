@@ -0,0 +1,73 @@
+package com.yuyingbao.app.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.yuyingbao.app.BaseIntegrationTest;
+import com.yuyingbao.app.config.CacheConfig;
+import com.yuyingbao.app.model.entity.Family;
+import io.jsonwebtoken.Claims;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 令牌成员关系测试
+ */
+@AutoConfigureMockMvc
+@TestPropertySource(properties = "app.jwt.membership-claims=true")
+@DisplayName("令牌成员关系测试")
+class MembershipClaimsTest extends BaseIntegrationTest {
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private FamilyService familyService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Test
+    @DisplayName("令牌成员关系 - 版本最新时不查询成员关系，加入家庭后旧令牌回退到数据库检查")
+    void testMembershipClaims_ShouldAuthorizeFromTokenUntilMembershipChanges() throws Exception {
+        // Given - 已加入家庭的用户登录，另一个用户创建的家庭
+        Long userId = Long.valueOf(jwtService.parseToken(
+                authService.loginWithWeChat("membership-claims", "令牌用户", null)).getSubject());
+        Family family = familyService.createFamily(userId);
+        String token = authService.loginWithWeChat("membership-claims", null, null);
+        Family otherFamily = familyService.createFamily(testUser.getId());
+
+        // When & Then - 令牌携带所属家庭与成员关系版本
+        Claims claims = jwtService.parseToken(token);
+        assertEquals(List.of(family.getId().intValue()), claims.get(JwtService.FAMILY_IDS_CLAIM));
+        assertNotNull(claims.get(JwtService.MEMBERSHIP_VERSION_CLAIM));
+
+        // 版本最新时按令牌授权，不访问成员关系缓存
+        long requests = userFamiliesRequests();
+        mockMvc.perform(get("/families/{familyId}/babies", family.getId())
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+        assertThrows(Exception.class, () -> mockMvc.perform(get("/families/{familyId}/babies", otherFamily.getId())
+                .header("Authorization", "Bearer " + token)));
+        assertEquals(requests, userFamiliesRequests());
+
+        // 加入家庭后旧令牌中的家庭列表不再采信，回退到数据库检查并能访问新家庭
+        familyService.joinFamily(userId, otherFamily.getInviteCode());
+        mockMvc.perform(get("/families/{familyId}/babies", otherFamily.getId())
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+        assertTrue(userFamiliesRequests() > requests);
+    }
+
+    private long userFamiliesRequests() {
+        return ((Cache<?, ?>) cacheManager.getCache(CacheConfig.USER_FAMILIES).getNativeCache()).stats().requestCount();
+    }
+}
@@ -0,0 +1,87 @@
+package com.yuyingbao.app.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.yuyingbao.app.BaseIntegrationTest;
+import com.yuyingbao.app.config.CacheConfig;
+import com.yuyingbao.app.dto.UpsertBabyRequest;
+import com.yuyingbao.app.model.entity.Baby;
+import com.yuyingbao.app.model.entity.Family;
+import com.yuyingbao.app.model.entity.User;
+import com.yuyingbao.app.model.enums.Gender;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.cache.CacheManager;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 权限检查缓存测试
+ */
+@AutoConfigureMockMvc
+@DisplayName("权限检查缓存测试")
+class PermissionServiceTest extends BaseIntegrationTest {
+
+    @Autowired
+    private PermissionService permissionService;
+
+    @Autowired
+    private FamilyService familyService;
+
+    @Autowired
+    private BabyService babyService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Test
+    @DisplayName("权限检查 - 重复检查应该命中缓存，加入家庭和删除宝宝后立即生效")
+    void testPermissionCache_ShouldHitAndInvalidateOnMembershipChanges() {
+        // Given - 当前用户创建的家庭和宝宝，另一个尚未加入家庭的用户
+        Family family = familyService.createFamily(testUser.getId());
+        Baby baby = babyService.createBaby(family.getId(), babyRequest());
+        User anotherUser = userRepository.save(User.builder()
+                .openId("permission-cache-openid")
+                .nickname("另一个用户")
+                .createdAt(OffsetDateTime.now())
+                .build());
+
+        // When & Then - 第一次检查加载成员关系，之后的检查都命中缓存
+        assertTrue(permissionService.hasAccessToBaby(testUser.getId(), baby.getId()));
+        long misses = stats(CacheConfig.USER_FAMILIES).missCount() + stats(CacheConfig.BABY_FAMILY).missCount();
+        for (int i = 0; i < 10; i++) {
+            assertTrue(permissionService.hasAccessToBaby(testUser.getId(), baby.getId()));
+            assertTrue(permissionService.hasAccessToFamily(testUser.getId(), family.getId()));
+        }
+        assertEquals(misses, stats(CacheConfig.USER_FAMILIES).missCount() + stats(CacheConfig.BABY_FAMILY).missCount());
+
+        // 加入家庭前无权限，加入后立即可以访问
+        assertFalse(permissionService.hasAccessToBaby(anotherUser.getId(), baby.getId()));
+        familyService.joinFamily(anotherUser.getId(), family.getInviteCode());
+        assertTrue(permissionService.hasAccessToBaby(anotherUser.getId(), baby.getId()));
+        assertEquals(List.of(family.getId()), permissionService.getUserAccessibleFamilyIds(anotherUser.getId()));
+
+        // 删除宝宝后立即无权限
+        babyService.deleteBaby(family.getId(), baby.getId());
+        assertFalse(permissionService.hasAccessToBaby(testUser.getId(), baby.getId()));
+        assertFalse(permissionService.hasAccessToBaby(anotherUser.getId(), baby.getId()));
+    }
+
+    private UpsertBabyRequest babyRequest() {
+        UpsertBabyRequest request = new UpsertBabyRequest();
+        request.setName("缓存宝宝");
+        request.setGender(Gender.GIRL);
+        request.setBirthDate(LocalDate.of(2025, 6, 1));
+        return request;
+    }
+
+    private CacheStats stats(String name) {
+        return ((Cache<?, ?>) cacheManager.getCache(name).getNativeCache()).stats();
+    }
+}
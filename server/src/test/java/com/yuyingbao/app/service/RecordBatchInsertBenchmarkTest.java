@@ -0,0 +1,124 @@
+package com.yuyingbao.app.service;
+
+import com.yuyingbao.app.config.CacheConfig;
+import com.yuyingbao.app.dto.CreateRecordRequest;
+import com.yuyingbao.app.model.enums.RecordType;
+import com.yuyingbao.app.repository.RecordRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 批量创建记录基准测试
+ * 对比 N 次单条 createRecord（每次一个事务）与一次 createRecords（序列预分配ID + JDBC batch）的吞吐量。
+ * 默认不运行，使用 mvn test -Dbenchmark=true -Dtest=RecordBatchInsertBenchmarkTest 执行（需要 Docker）
+ */
+@DataJpaTest(properties = {
+        "spring.flyway.enabled=true",
+        "spring.flyway.schemas=app",
+        "spring.flyway.default-schema=app",
+        "spring.jpa.hibernate.ddl-auto=none",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.PostgreSQLDialect",
+        "spring.jpa.properties.hibernate.jdbc.batch_size=50",
+        "spring.jpa.properties.hibernate.order_inserts=true",
+        "logging.level.org.hibernate.SQL=WARN"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({RecordService.class, BabyDailyStatsService.class, StatisticsCache.class, CacheConfig.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Testcontainers(disabledWithoutDocker = true)
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@DisplayName("批量创建记录基准测试")
+class RecordBatchInsertBenchmarkTest {
+
+    private static final Long FAMILY_ID = 1L;
+    private static final Long USER_ID = 1L;
+    private static final OffsetDateTime BASE = OffsetDateTime.of(2025, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+    private static final int ROUNDS = 5;
+
+    @Container
+    static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16");
+
+    @DynamicPropertySource
+    static void datasourceProperties(DynamicPropertyRegistry registry) {
+        // 让驱动把 batch 中的 INSERT 改写为多行 INSERT
+        registry.add("spring.datasource.url", () -> postgres.getJdbcUrl() + "&reWriteBatchedInserts=true");
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.datasource.driver-class-name", postgres::getDriverClassName);
+    }
+
+    @Autowired
+    private RecordService recordService;
+
+    @Autowired
+    private RecordRepository recordRepository;
+
+    @ParameterizedTest(name = "{0} 条")
+    @ValueSource(ints = {100, 500})
+    void compareSingleCreatesWithBatch(int size) {
+        long babyId = size;
+        List<CreateRecordRequest> requests = requests(size);
+
+        // 预热
+        createOneByOne(babyId + 1000, requests);
+        recordService.createRecords(FAMILY_ID, USER_ID, babyId + 2000, requests);
+
+        double single = Double.MAX_VALUE;
+        double batch = Double.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long begin = System.nanoTime();
+            createOneByOne(babyId, requests);
+            single = Math.min(single, (System.nanoTime() - begin) / 1_000_000.0);
+
+            begin = System.nanoTime();
+            recordService.createRecords(FAMILY_ID, USER_ID, babyId + 3000, requests);
+            batch = Math.min(batch, (System.nanoTime() - begin) / 1_000_000.0);
+        }
+
+        System.out.printf("[batch-insert-benchmark] records=%d single creates best=%.2fms (%.0f rec/s) | batch best=%.2fms (%.0f rec/s)%n",
+                size, single, size * 1000 / single, batch, size * 1000 / batch);
+
+        // 两条路径写入的条数一致
+        assertEquals(recordRepository.findByBabyIdOrderByHappenedAtDesc(babyId).size(),
+                recordRepository.findByBabyIdOrderByHappenedAtDesc(babyId + 3000).size());
+    }
+
+    private void createOneByOne(long babyId, List<CreateRecordRequest> requests) {
+        for (CreateRecordRequest request : requests) {
+            request.setBabyId(babyId);
+            recordService.createRecord(FAMILY_ID, USER_ID, request);
+        }
+    }
+
+    private List<CreateRecordRequest> requests(int size) {
+        List<CreateRecordRequest> requests = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            CreateRecordRequest request = new CreateRecordRequest();
+            request.setType(i % 2 == 0 ? RecordType.DIAPER : RecordType.BOTTLE);
+            request.setHappenedAt(BASE.plusMinutes(i * 20L));
+            request.setAmountMl(i % 2 == 0 ? null : 90.0);
+            requests.add(request);
+        }
+        return requests;
+    }
+}
@@ -0,0 +1,138 @@
+package com.yuyingbao.app.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 记录导出内存基准测试
+ * 在 PostgreSQL 中为一个宝宝生成 100 万条记录，分别导出 CSV 与 NDJSON 到只计数的输出流，
+ * 导出过程中定期 GC 后采样堆占用，存活对象的增长必须保持在固定的小范围内（与记录条数无关）。
+ * 默认不运行，使用 mvn test -Dbenchmark=true -Dtest=RecordExportBenchmarkTest 执行（需要 Docker）
+ */
+@DataJpaTest(properties = {
+        "spring.flyway.enabled=true",
+        "spring.flyway.schemas=app",
+        "spring.flyway.default-schema=app",
+        "spring.jpa.hibernate.ddl-auto=none",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.PostgreSQLDialect",
+        "logging.level.org.hibernate.SQL=WARN"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Import(RecordExportService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Testcontainers(disabledWithoutDocker = true)
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@DisplayName("记录导出内存基准测试")
+class RecordExportBenchmarkTest {
+
+    private static final long BABY_ID = 1L;
+    private static final int RECORDS = 1_000_000;
+    private static final int SAMPLE_EVERY = 100_000;
+    // 导出过程中存活堆的增长上限；一次性加载 100 万条记录需要数百 MB
+    private static final long MAX_HEAP_GROWTH = 32L * 1024 * 1024;
+
+    @Container
+    static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16");
+
+    @DynamicPropertySource
+    static void datasourceProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.datasource.driver-class-name", postgres::getDriverClassName);
+    }
+
+    @Autowired
+    private RecordExportService recordExportService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    @DisplayName("导出100万条记录时堆占用应保持平稳")
+    void exportMillionRecordsWithFlatHeap() throws Exception {
+        // Given - 一个宝宝的 100 万条记录，交替为喂奶和尿布
+        if (jdbcTemplate.queryForObject("SELECT COUNT(*) FROM app.records WHERE baby_id = ?", Long.class, BABY_ID) == 0) {
+            jdbcTemplate.update("""
+                    INSERT INTO app.records (id, family_id, user_id, baby_id, type, happened_at, amount_ml, note)
+                    SELECT g, 1, 1, ?, CASE WHEN g % 2 = 0 THEN 'DIAPER' ELSE 'BOTTLE' END,
+                           TIMESTAMPTZ '2020-01-01 00:00:00+00' + g * INTERVAL '1 minute',
+                           CASE WHEN g % 2 = 0 THEN NULL ELSE 90 END, 'note, ' || g
+                    FROM generate_series(1, ?) AS g
+                    """, BABY_ID, RECORDS);
+            jdbcTemplate.execute("ANALYZE app.records");
+        }
+
+        for (RecordFileFormat format : RecordFileFormat.values()) {
+            // When - 导出到只计数的输出流，每 10 万行采样一次堆占用
+            HeapSamplingStream out = new HeapSamplingStream();
+            long begin = System.nanoTime();
+            recordExportService.export(BABY_ID, format, out);
+            double seconds = (System.nanoTime() - begin) / 1_000_000_000.0;
+
+            System.out.printf("[export-benchmark] format=%s rows=%d bytes=%.1fMB time=%.2fs (%.0f rows/s) max live heap growth=%.1fMB%n",
+                    format, out.lines, out.bytes / 1048576.0, seconds, RECORDS / seconds, out.maxGrowth / 1048576.0);
+
+            // Then - 每条记录一行（CSV 另有表头），堆增长与记录条数无关
+            assertEquals(format == RecordFileFormat.CSV ? RECORDS + 1 : RECORDS, out.lines);
+            assertTrue(out.maxGrowth < MAX_HEAP_GROWTH, "导出过程中存活堆增长 " + out.maxGrowth + " 字节");
+        }
+    }
+
+    /**
+     * 丢弃写入的内容，只统计字节数与行数，并在导出过程中定期 GC 后记录存活堆相对开始时的增长
+     */
+    private static final class HeapSamplingStream extends OutputStream {
+        private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        private final long baseline;
+        private long bytes;
+        private long lines;
+        private long maxGrowth;
+
+        HeapSamplingStream() {
+            this.baseline = liveHeap();
+        }
+
+        @Override
+        public void write(int b) {
+            bytes++;
+            if (b == '\n' && ++lines % SAMPLE_EVERY == 0) {
+                maxGrowth = Math.max(maxGrowth, liveHeap() - baseline);
+            }
+        }
+
+        @Override
+        public void write(byte[] buffer, int offset, int length) {
+            for (int i = offset; i < offset + length; i++) {
+                write(buffer[i]);
+            }
+        }
+
+        private long liveHeap() {
+            System.gc();
+            return memory.getHeapMemoryUsage().getUsed();
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.yuyingbao.app.service;
+
+import com.yuyingbao.app.config.CacheConfig;
+import com.yuyingbao.app.dto.StatisticsSummary;
+import com.yuyingbao.app.model.entity.Record;
+import com.yuyingbao.app.repository.RecordRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 统计聚合基准测试
+ * 对比“加载全部 Record 实体后在 Java 中汇总”与“数据库分组聚合”两条路径在 1万/10万 行范围上的耗时。
+ * 默认不运行，使用 mvn test -Dbenchmark=true -Dtest=StatisticsAggregationBenchmarkTest 执行（需要 Docker）
+ */
+@DataJpaTest(properties = {
+        "spring.flyway.enabled=true",
+        "spring.flyway.schemas=app",
+        "spring.flyway.default-schema=app",
+        "spring.jpa.hibernate.ddl-auto=none",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.PostgreSQLDialect",
+        "logging.level.org.hibernate.SQL=WARN"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({StatisticsService.class, StatisticsCache.class, CacheConfig.class})
+@Testcontainers(disabledWithoutDocker = true)
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@DisplayName("统计聚合基准测试")
+class StatisticsAggregationBenchmarkTest {
+
+    private static final Long BABY_ID = 1L;
+    private static final int TOTAL_ROWS = 100_000;
+    private static final int MINUTES_BETWEEN_RECORDS = 5;
+    private static final OffsetDateTime BASE = OffsetDateTime.of(2025, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int MEASURE_ROUNDS = 10;
+
+    @Container
+    static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16");
+
+    @DynamicPropertySource
+    static void datasourceProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.datasource.driver-class-name", postgres::getDriverClassName);
+    }
+
+    @Autowired
+    private StatisticsService statisticsService;
+
+    @Autowired
+    private RecordRepository recordRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void seed() {
+        jdbcTemplate.update("""
+                INSERT INTO app.records (family_id, user_id, baby_id, type, happened_at, amount_ml, duration_min)
+                SELECT 1, 1, ?,
+                       (ARRAY['BREASTFEEDING','BOTTLE','FORMULA','SOLID','DIAPER','GROWTH','WATER','NUTRITION'])[(g % 8) + 1],
+                       ?::timestamptz - make_interval(mins => g * ?),
+                       CASE WHEN g % 8 IN (1, 2, 6) THEN (g % 200)::double precision END,
+                       CASE WHEN g % 8 = 0 THEN g % 30 END
+                FROM generate_series(0, ? - 1) AS g
+                """, BABY_ID, BASE, MINUTES_BETWEEN_RECORDS, TOTAL_ROWS);
+        jdbcTemplate.execute("ANALYZE app.records");
+    }
+
+    @ParameterizedTest(name = "{0} 行")
+    @ValueSource(ints = {10_000, 100_000})
+    void compareEntityHydrationWithGroupedAggregate(int rows) {
+        OffsetDateTime start = BASE.minusMinutes((long) (rows - 1) * MINUTES_BETWEEN_RECORDS);
+
+        double[] legacy = measure(() -> legacyTotals(start, BASE));
+        StatisticsSummary statistics = statisticsService.getStatistics(BABY_ID, start, BASE);
+        double[] aggregate = measure(() -> statisticsService.getStatistics(BABY_ID, start, BASE));
+
+        System.out.printf("[statistics-benchmark] rows=%d entity+loop median=%.2fms p90=%.2fms | grouped aggregate median=%.2fms p90=%.2fms%n",
+                rows, legacy[0], legacy[1], aggregate[0], aggregate[1]);
+
+        // 两条路径的结果必须一致
+        double[] expected = legacyTotals(start, BASE);
+        StatisticsSummary.FeedingTotal total = statistics.feeding().total();
+        assertEquals((int) expected[0], total.count());
+        assertEquals(expected[1], total.amount(), 0.0001);
+    }
+
+    /**
+     * 旧实现：加载完整实体后在 Java 中汇总喂养次数与喂养量
+     */
+    private double[] legacyTotals(OffsetDateTime start, OffsetDateTime end) {
+        List<Record> records = recordRepository.findByBabyIdAndHappenedAtBetween(BABY_ID, start, end);
+        int count = 0;
+        double amount = 0.0;
+        for (Record record : records) {
+            switch (record.getType()) {
+                case BREASTFEEDING -> {
+                    count++;
+                    if (record.getDurationMin() != null) {
+                        amount += record.getDurationMin() * 10;
+                    }
+                }
+                case BOTTLE, FORMULA -> {
+                    count++;
+                    if (record.getAmountMl() != null) {
+                        amount += record.getAmountMl();
+                    }
+                }
+                case SOLID -> count++;
+                default -> {
+                }
+            }
+        }
+        entityManager.clear();
+        return new double[]{count, amount};
+    }
+
+    /**
+     * 返回 [中位数, P90]，单位毫秒
+     */
+    private double[] measure(Supplier<?> action) {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            action.get();
+        }
+        double[] samples = new double[MEASURE_ROUNDS];
+        for (int i = 0; i < MEASURE_ROUNDS; i++) {
+            long begin = System.nanoTime();
+            action.get();
+            samples[i] = (System.nanoTime() - begin) / 1_000_000.0;
+            entityManager.clear();
+        }
+        Arrays.sort(samples);
+        return new double[]{samples[MEASURE_ROUNDS / 2], samples[(int) (MEASURE_ROUNDS * 0.9)]};
+    }
+}
@@ -0,0 +1,145 @@
+package com.yuyingbao.app.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yuyingbao.app.FakeWeChatServer;
+import com.yuyingbao.app.config.WeChatConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 微信接口客户端测试，使用本地模拟的微信服务端
+ */
+@DisplayName("微信接口客户端测试")
+class WeChatAuthClientTest {
+
+    private FakeWeChatServer server;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = new FakeWeChatServer();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+    }
+
+    @Test
+    @DisplayName("code2Session - 有效code返回openId，无效code抛出IllegalStateException")
+    void testCode2Session_ShouldReturnOpenIdOrRejectInvalidCode() {
+        // Given
+        WeChatAuthClient client = client(config());
+
+        // When & Then
+        WeChatAuthClient.Session session = client.code2Session("abc");
+        assertEquals("fake-abc", session.openId());
+        assertEquals("fake-session-key", session.sessionKey());
+        assertThrows(IllegalStateException.class, () -> client.code2Session("invalid-code"));
+    }
+
+    @Test
+    @DisplayName("熔断 - 超时达到阈值后直接拒绝，熔断时间过后试探成功即恢复")
+    void testCircuitBreaker_ShouldOpenOnTimeoutsAndRecover() throws Exception {
+        // Given - 响应超过读超时的服务端
+        WeChatConfig config = config();
+        config.setReadTimeoutMs(200);
+        config.setFailureThreshold(2);
+        config.setOpenDurationMs(500);
+        WeChatAuthClient client = client(config);
+        server.setLatencyMs(1000);
+
+        // When - 连续两次超时
+        for (int i = 0; i < 2; i++) {
+            long start = System.nanoTime();
+            assertEquals(HttpStatus.SERVICE_UNAVAILABLE, unavailable(() -> client.code2Session("slow")).getStatusCode());
+            assertTrue(System.nanoTime() - start < 900_000_000L, "应该在读超时后返回，而不是等待服务端响应");
+        }
+
+        // Then - 熔断期间不再访问服务端
+        int requests = server.sessionRequests();
+        unavailable(() -> client.code2Session("fast"));
+        assertEquals(requests, server.sessionRequests());
+
+        // 熔断时间过后试探请求成功，恢复正常
+        server.setLatencyMs(0);
+        Thread.sleep(600);
+        assertEquals("fake-fast", client.code2Session("fast").openId());
+        assertEquals("fake-again", client.code2Session("again").openId());
+    }
+
+    @Test
+    @DisplayName("并发上限 - 超出上限的请求立即返回503")
+    void testConcurrencyLimit_ShouldRejectWhenAllPermitsInUse() {
+        // Given - 只允许一个进行中的请求
+        WeChatConfig config = config();
+        config.setMaxConcurrentRequests(1);
+        WeChatAuthClient client = client(config);
+        server.setLatencyMs(300);
+
+        // When
+        CompletableFuture<WeChatAuthClient.Session> first = client.code2SessionAsync("first");
+        ResponseStatusException rejected = unavailable(() -> client.code2Session("second"));
+
+        // Then - 第二个请求被拒绝，第一个正常完成，名额释放后可以继续请求
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, rejected.getStatusCode());
+        assertEquals("fake-first", first.join().openId());
+        assertEquals("fake-third", client.code2Session("third").openId());
+    }
+
+    @Test
+    @DisplayName("access_token - 缓存到刷新窗口，进入窗口后返回旧值并在后台刷新")
+    void testAccessToken_ShouldBeCachedAndRefreshedAhead() throws Exception {
+        // Given - 有效期等于刷新提前量的凭证，获取后立即进入刷新窗口
+        WeChatConfig config = config();
+        config.setAccessTokenRefreshAheadSeconds(7200);
+        WeChatAuthClient client = client(config);
+        server.setAccessTokenExpiresIn(7200);
+
+        // When & Then - 首次获取等待刷新，之后返回缓存并只触发一次后台刷新
+        assertEquals("fake-token-1", client.accessToken());
+        assertEquals("fake-token-1", client.accessToken());
+        for (int i = 0; i < 50 && server.tokenRequests() < 2; i++) {
+            Thread.sleep(20);
+        }
+        Thread.sleep(50);
+        assertEquals(2, server.tokenRequests());
+        assertEquals("fake-token-2", client.accessToken());
+    }
+
+    @Test
+    @DisplayName("服务端错误 - HTTP 500 和系统繁忙都返回503")
+    void testServerErrors_ShouldReturnServiceUnavailable() {
+        // Given
+        WeChatAuthClient client = client(config());
+
+        // When & Then
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, unavailable(() -> client.code2Session("busy")).getStatusCode());
+        server.setFailing(true);
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, unavailable(() -> client.code2Session("abc")).getStatusCode());
+    }
+
+    private WeChatConfig config() {
+        WeChatConfig config = new WeChatConfig();
+        config.setEnabled(true);
+        config.setAppId("test-app-id");
+        config.setAppSecret("test-app-secret");
+        config.setBaseUrl(server.baseUrl());
+        return config;
+    }
+
+    private static WeChatAuthClient client(WeChatConfig config) {
+        return new WeChatAuthClient(config, new ObjectMapper());
+    }
+
+    private static ResponseStatusException unavailable(Runnable call) {
+        return assertThrows(ResponseStatusException.class, call::run);
+    }
+}